@@ -0,0 +1,204 @@
+package org.graphstream.algorithm;
+
+import java.util.*;
+
+/**
+ * Workspace running one breadth-first search per source.
+ *
+ * The workspace holds the sigma, delta and distance of every node for the
+ * source currently processed.
+ *
+ * Predecessors are not stored : during accumulation the successors of a node
+ * v in the shortest-path DAG are its neighbours w with
+ * {@code dist[w] == dist[v] + 1}, and the sigma[v] * (1 + delta[w]) shortest
+ * paths going through such an edge (v, w) give its centrality. Only the nodes
+ * reached by a traversal are reset after it, so processing a source allocates
+ * nothing and costs nothing for the part of the graph it did not reach.
+ */
+class BfsWorkspace extends StressWorkspace {
+
+    /**
+     * The distance value.
+     */
+    protected final int[] dist;
+
+    /**
+     * The sigma value.
+     */
+    protected final double[] sigma;
+
+    /**
+     * The delta value.
+     */
+    protected final double[] delta;
+
+    /**
+     * Nodes reached by the current traversal, in visit order. The first
+     * {@link #visited} entries are used as the BFS queue, and read backwards
+     * they give the nodes by decreasing distance.
+     */
+    protected final int[] order;
+
+    /**
+     * Number of nodes reached by the current traversal.
+     */
+    protected int visited;
+
+    /**
+     * New workspace sized for the graph indexed by the given engine.
+     *
+     * @param engine The engine owning the indexed graph.
+     */
+    BfsWorkspace(StressEngine engine) {
+        super(engine);
+
+        int n = engine.getNodeCount();
+
+        this.dist = new int[n];
+        this.sigma = new double[n];
+        this.delta = new double[n];
+        this.order = new int[n];
+
+        Arrays.fill(dist, UNREACHED);
+    }
+
+    @Override
+    void computeSources(int from, int to, double[] centrality, double[] edgeCentrality) {
+        for (int s = from; s < to; s++) {
+            computeSource(s, centrality, edgeCentrality);
+        }
+    }
+
+    /**
+     * Add the contribution of the given source to centrality arrays.
+     *
+     * @param s              Index of the source node.
+     * @param centrality     The centrality to update, by node index.
+     * @param edgeCentrality The centrality to update, by edge index, or null.
+     */
+    void computeSource(int s, double[] centrality, double[] edgeCentrality) {
+        /*
+         * INITIALIZATION
+         */
+        initialization(s);
+
+        /*
+         * ACCUMULATION
+         */
+        int[] offsets = engine.offsets;
+        int[] neighbors = engine.neighbors;
+        int[] edgeIds = engine.edgeIds;
+        double[] targets = this.targets;
+        int limit = engine.maxHops;
+
+        for (int i = visited - 1; i >= 0; i--) {
+            int v = order[i];
+            int next = dist[v] + 1;
+            // Nodes at the maximum distance have no successor
+            int last = next <= limit ? offsets[v + 1] : offsets[v];
+            double d = 0.0;
+
+            for (int k = offsets[v]; k < last; k++) {
+                int w = neighbors[k];
+
+                if (dist[w] == next) {
+                    double c = (targets != null ? targets[w] : 1.0) + delta[w];
+                    d += c;
+
+                    if (edgeCentrality != null) {
+                        edgeCentrality[edgeIds[k]] += sigma[v] * c / 2;
+                    }
+                }
+            }
+
+            delta[v] = d;
+
+            if (v != s) {
+                centrality[v] += sigma[v] * d / 2;
+            }
+        }
+
+        reset();
+    }
+
+    /**
+     * Compute single-source multiple-targets shortest paths on an unweighted
+     * graph, up to the maximum distance of the engine. Reached nodes are
+     * stored in {@link #order}, in visit order.
+     *
+     * @param source Index of the source node.
+     */
+    protected void initialization(int source) {
+        int[] offsets = engine.offsets;
+        int[] neighbors = engine.neighbors;
+        int limit = engine.maxHops;
+
+        dist[source] = 0;
+        sigma[source] = 1.0;
+        order[0] = source;
+        visited = 1;
+
+        for (int head = 0; head < visited; head++) {
+            int v = order[head];
+
+            if (dist[v] == limit) {
+                break;
+            }
+
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                int w = neighbors[k];
+
+                /*
+                 * Path discovery
+                 */
+                if (dist[w] == UNREACHED) {
+                    dist[w] = dist[v] + 1;
+                    order[visited++] = w;
+                }
+
+                /*
+                 * Path counting
+                 */
+                if (dist[w] == dist[v] + 1) {
+                    sigma[w] += sigma[v];
+                }
+            }
+        }
+    }
+
+    /**
+     * Distance of every node from a source.
+     *
+     * @param source Index of the source node.
+     * @param target Array receiving the distance of each node, by index, or
+     *               {@link #UNREACHED}.
+     */
+    void distances(int source, int[] target) {
+        initialization(source);
+        Arrays.fill(target, UNREACHED);
+
+        for (int i = 0; i < visited; i++) {
+            target[order[i]] = dist[order[i]];
+        }
+
+        reset();
+    }
+
+    /**
+     * Reset the distance, sigma and delta of the nodes reached by the last
+     * traversal.
+     */
+    protected void reset() {
+        int[] offsets = engine.offsets;
+
+        for (int i = 0; i < visited; i++) {
+            int v = order[i];
+            arcs += offsets[v + 1] - offsets[v];
+            dist[v] = UNREACHED;
+            sigma[v] = 0.0;
+            delta[v] = 0.0;
+        }
+
+        visited = 0;
+    }
+}
@@ -0,0 +1,123 @@
+package org.graphstream.algorithm;
+
+import java.util.Arrays;
+
+/**
+ * Bucket queue of node indices keyed by integer distances, as in Dial's
+ * algorithm.
+ *
+ * When all lengths are integers between 1 and C, the distances of the nodes
+ * waiting in Dijkstra's queue all lie in [d, d + C] where d is the last
+ * distance polled. The queue is then a circular array of C + 1 buckets, the
+ * bucket of a node being its distance modulo C + 1, and every operation costs
+ * O(1) plus the scan of empty buckets. Buckets are doubly linked lists stored
+ * in arrays, so nothing is allocated after construction.
+ */
+class BucketQueue implements NodeQueue {
+
+    /**
+     * Distance of each node, by index. Values must be integers.
+     */
+    protected final double[] keys;
+
+    /**
+     * First node of each bucket, or -1.
+     */
+    protected final int[] head;
+
+    /**
+     * Next node in the bucket of each node, or -1.
+     */
+    protected final int[] next;
+
+    /**
+     * Previous node in the bucket of each node, or -1.
+     */
+    protected final int[] previous;
+
+    /**
+     * Bucket of each node in the queue.
+     */
+    protected final int[] bucket;
+
+    /**
+     * Bucket of the last node polled, where the scan for the next node
+     * starts.
+     */
+    protected int current;
+
+    /**
+     * Number of nodes in the queue.
+     */
+    protected int size;
+
+    /**
+     * New empty queue.
+     *
+     * @param keys      Distance of each node, by index.
+     * @param maxLength The largest length of an edge.
+     */
+    BucketQueue(double[] keys, int maxLength) {
+        this.keys = keys;
+        this.head = new int[maxLength + 1];
+        this.next = new int[keys.length];
+        this.previous = new int[keys.length];
+        this.bucket = new int[keys.length];
+
+        Arrays.fill(head, -1);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void add(int v) {
+        int b = (int) ((long) keys[v] % head.length);
+
+        bucket[v] = b;
+        previous[v] = -1;
+        next[v] = head[b];
+
+        if (head[b] >= 0) {
+            previous[head[b]] = v;
+        }
+
+        head[b] = v;
+        size++;
+    }
+
+    public void decrease(int v) {
+        unlink(v);
+        add(v);
+    }
+
+    public int poll() {
+        while (head[current] < 0) {
+            current = current + 1 == head.length ? 0 : current + 1;
+        }
+
+        int v = head[current];
+        unlink(v);
+
+        return v;
+    }
+
+    /**
+     * Remove a node from its bucket.
+     */
+    protected void unlink(int v) {
+        int b = bucket[v];
+
+        if (previous[v] >= 0) {
+            next[previous[v]] = next[v];
+        } else {
+            head[b] = next[v];
+        }
+
+        if (next[v] >= 0) {
+            previous[next[v]] = previous[v];
+        }
+
+        size--;
+    }
+}
@@ -0,0 +1,353 @@
+package org.graphstream.algorithm;
+
+import java.util.*;
+
+/**
+ * Workspace of an engine whose nodes include chains, see
+ * {@link StressEngine#setChains(int[], int[])}.
+ *
+ * Nodes outside of chains are processed as by
+ * {@link MultiplicityBfsWorkspace}. A chain of k nodes between the ends a and
+ * b is processed as a whole when its first node is, with a breadth-first
+ * search from each end. The shortest paths from its i-th node to a node t
+ * outside of it leave through a if i + d(a, t) &lt;= k + 1 - i + d(b, t), and
+ * through b if the converse holds. Grouping the nodes t by d(a, t) - d(b, t)
+ * thus gives the paths leaving each node of the chain on either side, which
+ * go through the nodes of the chain on that side. The accumulation from a
+ * then weights each node t by the multiplicities of the chain nodes whose
+ * paths to t leave through a, and the one from b likewise, which gives the
+ * contribution of the whole chain to the nodes outside of it. Paths between
+ * two nodes of the chain run along it or around it, through the shortest
+ * paths between a and b, and are counted pair by pair.
+ *
+ * A chain thus costs two traversals and the square of its length, whatever
+ * its length.
+ */
+class ChainBfsWorkspace extends MultiplicityBfsWorkspace {
+
+    /**
+     * Distance of every node from the second end of the chain.
+     */
+    protected final int[] otherDist;
+
+    /**
+     * Number of shortest paths from the second end of the chain.
+     */
+    protected final double[] otherSigma;
+
+    /**
+     * Delta values of the accumulation from the second end of the chain.
+     */
+    protected final double[] otherDelta;
+
+    /**
+     * Nodes reached from the second end of the chain, in visit order.
+     */
+    protected final int[] otherOrder;
+
+    /**
+     * Number of nodes reached from the second end of the chain.
+     */
+    protected int otherVisited;
+
+    /**
+     * Weight of each node as the end of the paths leaving the chain through
+     * its first end, and through its second end.
+     */
+    protected final double[] leftTargets, rightTargets;
+
+    /**
+     * Multiplicities of the first nodes of the chain, from none to all.
+     */
+    protected final double[] prefix;
+
+    /**
+     * Weighted shortest paths to the nodes outside of the chain, by
+     * k + 1 - d(a, t) + d(b, t), from the first end, then from the second one.
+     */
+    protected final double[] leftBuckets, rightBuckets;
+
+    /**
+     * Difference of the centrality of each node of the chain with the
+     * previous one, from the paths between nodes of the chain.
+     */
+    protected final double[] inner;
+
+    /**
+     * Weighted shortest paths from each node of the chain to the other nodes.
+     */
+    protected final double[] chainPaths;
+
+    /**
+     * New workspace sized for the graph indexed by the given engine.
+     *
+     * @param engine The engine owning the indexed graph and its chains.
+     */
+    ChainBfsWorkspace(StressEngine engine) {
+        super(engine);
+
+        int n = engine.getNodeCount();
+        int[] starts = engine.chainStarts;
+        int longest = 0;
+
+        for (int c = 0; c + 1 < starts.length; c++) {
+            longest = Math.max(longest, starts[c + 1] - starts[c]);
+        }
+
+        this.otherDist = new int[n];
+        this.otherSigma = new double[n];
+        this.otherDelta = new double[n];
+        this.otherOrder = new int[n];
+        this.leftTargets = new double[n];
+        this.rightTargets = new double[n];
+        this.prefix = new double[longest + 1];
+        this.leftBuckets = new double[2 * longest + 3];
+        this.rightBuckets = new double[2 * longest + 3];
+        this.inner = new double[longest + 2];
+        this.chainPaths = new double[longest + 2];
+
+        Arrays.fill(otherDist, UNREACHED);
+    }
+
+    @Override
+    void computeSources(int from, int to, double[] centrality, double[] edgeCentrality) {
+        int[] starts = engine.chainStarts;
+
+        for (int s = from; s < to; s++) {
+            if (s < starts[0]) {
+                computeSource(s, centrality, edgeCentrality);
+            } else {
+                int c = Arrays.binarySearch(starts, s);
+
+                // Other nodes of the chains are processed with their first one
+                if (c >= 0) {
+                    computeChain(c, centrality);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add the contribution of every node of a chain to a centrality array,
+     * and record their numbers of paths.
+     *
+     * @param c          Index of the chain.
+     * @param centrality The centrality to update, by node index.
+     */
+    protected void computeChain(int c, double[] centrality) {
+        double[] multiplicities = engine.multiplicities;
+        int first = engine.chainStarts[c];
+        int k = engine.chainStarts[c + 1] - first;
+        int a = engine.chainEnds[2 * c];
+        int b = engine.chainEnds[2 * c + 1];
+
+        /*
+         * SEARCHES FROM BOTH ENDS
+         */
+        visited = search(a, dist, sigma, order);
+        otherVisited = search(b, otherDist, otherSigma, otherOrder);
+
+        for (int i = 1; i <= k; i++) {
+            prefix[i] = prefix[i - 1] + multiplicities[first + i - 1];
+        }
+
+        Arrays.fill(leftBuckets, 0, 2 * k + 3, 0.0);
+        Arrays.fill(rightBuckets, 0, 2 * k + 3, 0.0);
+
+        for (int i = 0; i < visited; i++) {
+            int t = order[i];
+
+            if (t < first || t >= first + k) {
+                // Between 0 and 2k + 2 since |d(a, t) - d(b, t)| <= d(a, b) <= k + 1
+                int e = k + 1 - dist[t] + otherDist[t];
+                int lo = Math.max(1, (e + 1) / 2);
+
+                leftBuckets[e] += multiplicities[t] * sigma[t];
+                rightBuckets[e] += multiplicities[t] * otherSigma[t];
+                leftTargets[t] = multiplicities[t] * prefix[Math.min(k, e / 2)];
+                rightTargets[t] = lo > k ? 0.0 : multiplicities[t] * (prefix[k] - prefix[lo - 1]);
+            }
+        }
+
+        // The i-th node leaves through a towards e >= 2i, through b towards e <= 2i
+        for (int e = 2 * k + 1; e >= 0; e--) {
+            leftBuckets[e] += leftBuckets[e + 1];
+        }
+
+        for (int e = 1; e <= 2 * k + 2; e++) {
+            rightBuckets[e] += rightBuckets[e - 1];
+        }
+
+        /*
+         * PATHS INSIDE THE CHAIN
+         */
+        int around = -1;
+        double aroundPaths = 0.0;
+
+        if (a == b) {
+            around = 0;
+            aroundPaths = 1.0;
+        } else if (dist[b] <= k) {
+            around = dist[b];
+            aroundPaths = sigma[b];
+        }
+
+        double aroundWeight = 0.0;
+
+        Arrays.fill(inner, 0, k + 2, 0.0);
+
+        for (int i = 1; i <= k; i++) {
+            chainPaths[i] = leftBuckets[2 * i] + rightBuckets[2 * i];
+        }
+
+        for (int i = 1; i <= k; i++) {
+            for (int j = i + 1; j <= k; j++) {
+                int along = j - i;
+                int length = around >= 0 ? i + around + k + 1 - j : Integer.MAX_VALUE;
+                double pair = multiplicities[first + i - 1] * multiplicities[first + j - 1];
+                double count = (along <= length ? 1.0 : 0.0) + (length <= along ? aroundPaths : 0.0);
+
+                chainPaths[i] += multiplicities[first + j - 1] * count;
+                chainPaths[j] += multiplicities[first + i - 1] * count;
+
+                if (along <= length) {
+                    inner[i + 1] += pair;
+                    inner[j] -= pair;
+                }
+
+                if (length <= along) {
+                    double through = pair * aroundPaths;
+
+                    inner[1] += through;
+                    inner[i] -= through;
+                    inner[j + 1] += through;
+                    inner[k + 1] -= through;
+
+                    if (a == b) {
+                        centrality[a] += pair;
+                    } else {
+                        // a and the nodes between a and b get them from a
+                        centrality[b] += through;
+                        aroundWeight += 2 * pair;
+                    }
+                }
+            }
+        }
+
+        /*
+         * NODES OF THE CHAIN
+         */
+        double left = 0.0;
+        double right = 0.0;
+        double along = 0.0;
+
+        for (int l = k; l >= 1; l--) {
+            centrality[first + l - 1] += left / 2;
+            left += multiplicities[first + l - 1] * leftBuckets[2 * l];
+        }
+
+        for (int l = 1; l <= k; l++) {
+            along += inner[l];
+            centrality[first + l - 1] += right / 2 + along;
+            right += multiplicities[first + l - 1] * rightBuckets[2 * l];
+            engine.paths[first + l - 1] = chainPaths[l];
+        }
+
+        /*
+         * NODES OUTSIDE OF THE CHAIN
+         */
+        if (a != b) {
+            leftTargets[b] += aroundWeight;
+        }
+
+        accumulate(order, visited, dist, sigma, delta, leftTargets, centrality);
+        accumulate(otherOrder, otherVisited, otherDist, otherSigma, otherDelta, rightTargets, centrality);
+
+        for (int i = 0; i < otherVisited; i++) {
+            int v = otherOrder[i];
+            arcs += engine.offsets[v + 1] - engine.offsets[v];
+            otherDist[v] = UNREACHED;
+            otherSigma[v] = 0.0;
+            otherDelta[v] = 0.0;
+            leftTargets[v] = 0.0;
+            rightTargets[v] = 0.0;
+        }
+
+        reset();
+    }
+
+    /**
+     * Breadth-first search counting shortest paths, each node standing for
+     * one copy.
+     *
+     * @param source Index of the source node.
+     * @param dist   Distance of each node, filled for the nodes reached.
+     * @param sigma  Number of shortest paths to each node, filled likewise.
+     * @param order  Receives the nodes reached, in visit order.
+     * @return Number of nodes reached.
+     */
+    protected int search(int source, int[] dist, double[] sigma, int[] order) {
+        int[] offsets = engine.offsets;
+        int[] neighbors = engine.neighbors;
+        int reached = 1;
+
+        dist[source] = 0;
+        sigma[source] = 1.0;
+        order[0] = source;
+
+        for (int head = 0; head < reached; head++) {
+            int v = order[head];
+            int next = dist[v] + 1;
+
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                int w = neighbors[k];
+
+                if (dist[w] == UNREACHED) {
+                    dist[w] = next;
+                    order[reached++] = w;
+                }
+
+                if (dist[w] == next) {
+                    sigma[w] += sigma[v];
+                }
+            }
+        }
+
+        return reached;
+    }
+
+    /**
+     * Accumulate the paths from an end of the chain towards weighted targets,
+     * the end included as inner node of the paths from the chain.
+     *
+     * @param order      Nodes reached from the end, in visit order.
+     * @param reached    Number of nodes reached.
+     * @param dist       Distance of each node from the end.
+     * @param sigma      Number of shortest paths from the end to each node.
+     * @param delta      Delta values, all 0.
+     * @param targets    Weight of each node as the end of a path.
+     * @param centrality The centrality to update, by node index.
+     */
+    protected void accumulate(int[] order, int reached, int[] dist, double[] sigma, double[] delta, double[] targets,
+                              double[] centrality) {
+        int[] offsets = engine.offsets;
+        int[] neighbors = engine.neighbors;
+
+        for (int i = reached - 1; i >= 0; i--) {
+            int v = order[i];
+            int next = dist[v] + 1;
+            double d = 0.0;
+
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                int w = neighbors[k];
+
+                if (dist[w] == next) {
+                    d += targets[w] + delta[w];
+                }
+            }
+
+            delta[v] = d;
+            centrality[v] += sigma[v] * d / 2;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package org.graphstream.algorithm;
+
+import java.util.*;
+
+/**
+ * Decomposition of a snapshot in its connected components.
+ *
+ * Shortest paths never leave the component of their source, following arcs
+ * in either direction, so the stress of each component can be computed on
+ * its own snapshot, with scratch spaces sized for the component, and the
+ * results put side by side. Components are found with a union-find over the
+ * arcs, which works for directed graphs too.
+ *
+ * Nodes, and edges if the snapshot knows them, are numbered from 0 in each
+ * component, in increasing order of their index in the whole graph.
+ */
+class ComponentDecomposition {
+
+    /**
+     * The decomposed graph.
+     */
+    protected final CsrGraph graph;
+
+    /**
+     * Number of components.
+     */
+    protected final int count;
+
+    /**
+     * Nodes of each component, component by component.
+     */
+    protected final int[] nodes;
+
+    /**
+     * First node of each component in {@link #nodes}, followed by the
+     * number of nodes.
+     */
+    protected final int[] nodeOffsets;
+
+    /**
+     * Index of each node in its component.
+     */
+    protected final int[] local;
+
+    /**
+     * Edges of each component, component by component, or null if the graph
+     * does not know its edges.
+     */
+    protected final int[] edges;
+
+    /**
+     * First edge of each component in {@link #edges}, followed by the number
+     * of edges, or null.
+     */
+    protected final int[] edgeOffsets;
+
+    /**
+     * Index of each edge in its component, or null.
+     */
+    protected final int[] localEdge;
+
+    /**
+     * Decompose the given snapshot.
+     *
+     * @param graph The snapshot.
+     */
+    ComponentDecomposition(CsrGraph graph) {
+        int n = graph.getNodeCount();
+        int[] parent = new int[n];
+
+        this.graph = graph;
+
+        for (int v = 0; v < n; v++) {
+            parent[v] = v;
+        }
+
+        for (int v = 0; v < n; v++) {
+            for (int k = 0, d = graph.getDegree(v); k < d; k++) {
+                int a = find(parent, v);
+                int b = find(parent, graph.getNeighbor(v, k));
+
+                if (a != b) {
+                    parent[Math.max(a, b)] = Math.min(a, b);
+                }
+            }
+        }
+
+        /*
+         * Components numbered in the order of their first node
+         */
+        int[] component = new int[n];
+        int c = 0;
+
+        for (int v = 0; v < n; v++) {
+            int r = find(parent, v);
+            component[v] = r == v ? c++ : component[r];
+        }
+
+        this.count = c;
+        this.nodeOffsets = new int[count + 1];
+        this.nodes = new int[n];
+        this.local = new int[n];
+
+        for (int v = 0; v < n; v++) {
+            nodeOffsets[component[v] + 1]++;
+        }
+
+        for (int i = 0; i < count; i++) {
+            nodeOffsets[i + 1] += nodeOffsets[i];
+        }
+
+        int[] next = Arrays.copyOf(nodeOffsets, count);
+
+        for (int v = 0; v < n; v++) {
+            int i = component[v];
+            local[v] = next[i] - nodeOffsets[i];
+            nodes[next[i]++] = v;
+        }
+
+        if (!graph.hasEdges()) {
+            this.edges = null;
+            this.edgeOffsets = null;
+            this.localEdge = null;
+            return;
+        }
+
+        int m = graph.getEdgeCount();
+
+        this.localEdge = new int[m];
+        this.edgeOffsets = new int[count + 1];
+
+        int[] edgeComponent = new int[m];
+        Arrays.fill(edgeComponent, -1);
+
+        for (int v = 0; v < n; v++) {
+            for (int k = 0, d = graph.getDegree(v); k < d; k++) {
+                edgeComponent[graph.getEdge(v, k)] = component[v];
+            }
+        }
+
+        for (int e = 0; e < m; e++) {
+            if (edgeComponent[e] >= 0) {
+                edgeOffsets[edgeComponent[e] + 1]++;
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            edgeOffsets[i + 1] += edgeOffsets[i];
+        }
+
+        this.edges = new int[edgeOffsets[count]];
+        next = Arrays.copyOf(edgeOffsets, count);
+
+        for (int e = 0; e < m; e++) {
+            int i = edgeComponent[e];
+
+            if (i >= 0) {
+                localEdge[e] = next[i] - edgeOffsets[i];
+                edges[next[i]++] = e;
+            }
+        }
+    }
+
+    /**
+     * Root of the set of a node, halving the path to it.
+     */
+    protected static int find(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+
+        return v;
+    }
+
+    /**
+     * Number of components.
+     */
+    int getComponentCount() {
+        return count;
+    }
+
+    /**
+     * Number of nodes of a component.
+     *
+     * @param c The component.
+     */
+    int getSize(int c) {
+        return nodeOffsets[c + 1] - nodeOffsets[c];
+    }
+
+    /**
+     * Number of arcs of a component.
+     *
+     * @param c The component.
+     */
+    long getArcCount(int c) {
+        long arcs = 0;
+
+        for (int i = nodeOffsets[c]; i < nodeOffsets[c + 1]; i++) {
+            arcs += graph.getDegree(nodes[i]);
+        }
+
+        return arcs;
+    }
+
+    /**
+     * Index in the whole graph of a node of a component.
+     *
+     * @param c The component.
+     * @param i Index of the node in the component.
+     */
+    int getNode(int c, int i) {
+        return nodes[nodeOffsets[c] + i];
+    }
+
+    /**
+     * Index in the whole graph of an edge of a component.
+     *
+     * @param c The component.
+     * @param i Index of the edge in the component.
+     */
+    int getEdge(int c, int i) {
+        return edges[edgeOffsets[c] + i];
+    }
+
+    /**
+     * Snapshot of a component, with the lengths and edges of the arcs if the
+     * graph has them.
+     *
+     * @param c The component.
+     */
+    CsrGraph subgraph(int c) {
+        int size = getSize(c);
+        int arcs = (int) getArcCount(c);
+        int[] offsets = new int[size + 1];
+        int[] neighbors = new int[arcs];
+        double[] lengths = graph.isWeighted() ? new double[arcs] : null;
+        int[] subEdges = edges != null ? new int[arcs] : null;
+        int a = 0;
+
+        for (int i = 0; i < size; i++) {
+            int v = getNode(c, i);
+
+            for (int k = 0, d = graph.getDegree(v); k < d; k++) {
+                neighbors[a] = local[graph.getNeighbor(v, k)];
+
+                if (lengths != null) {
+                    lengths[a] = graph.getLength(v, k);
+                }
+
+                if (subEdges != null) {
+                    subEdges[a] = localEdge[graph.getEdge(v, k)];
+                }
+
+                a++;
+            }
+
+            offsets[i + 1] = a;
+        }
+
+        int m = edges != null ? edgeOffsets[c + 1] - edgeOffsets[c] : 0;
+
+        return new CsrGraph(offsets, neighbors, lengths, subEdges, m, (String[]) null);
+    }
+}
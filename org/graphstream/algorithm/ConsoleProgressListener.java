@@ -0,0 +1,101 @@
+package org.graphstream.algorithm;
+
+import java.io.PrintStream;
+
+/**
+ * Listener drawing a progress bar on a console, rewriting the same line at
+ * each report : percentage, sources processed, rate and estimated time left.
+ * This is the listener used by {@link StressCentrality#setShowProgress(boolean)}.
+ */
+public class ConsoleProgressListener implements StressListener {
+
+    /**
+     * Width of the bar, in characters.
+     */
+    protected static final int WIDTH = 50;
+
+    /**
+     * The console.
+     */
+    protected final PrintStream out;
+
+    /**
+     * New listener printing on the standard output.
+     */
+    public ConsoleProgressListener() {
+        this(System.out);
+    }
+
+    /**
+     * New listener printing on the given stream.
+     *
+     * @param out The stream.
+     */
+    public ConsoleProgressListener(PrintStream out) {
+        this.out = out;
+    }
+
+    public void progress(StressProgress progress) {
+        StringBuilder line = new StringBuilder(120);
+
+        line.append('\r');
+        appendBar(line, progress.getProcessedSources(), progress.getTotalSources());
+        line.append(' ').append((long) progress.getSourcesPerSecond()).append(" sources/s");
+
+        long remaining = progress.getRemainingTime();
+
+        if (progress.isFinished()) {
+            line.append(", done in ");
+            appendTime(line, progress.getElapsedTime());
+            line.append('\n');
+        } else if (remaining >= 0) {
+            line.append(", ETA ");
+            appendTime(line, remaining);
+        }
+
+        out.print(line);
+        out.flush();
+    }
+
+    /**
+     * Append a progress bar, like "Progress: 42% [=====>     ] 420/1000".
+     *
+     * @param line    The line.
+     * @param current Number of sources processed.
+     * @param total   Number of sources to process.
+     */
+    static void appendBar(StringBuilder line, long current, long total) {
+        int percent = total > 0 ? (int) (current * 100 / total) : 100;
+        int filled = percent * WIDTH / 100;
+
+        line.append("Progress: ").append(percent).append("% [");
+
+        for (int i = 0; i < WIDTH; i++) {
+            line.append(i < filled ? '=' : i == filled ? '>' : ' ');
+        }
+
+        line.append("] ").append(current).append('/').append(total);
+    }
+
+    /**
+     * Append a duration as hours, minutes and seconds.
+     *
+     * @param line         The line.
+     * @param milliseconds The duration, in milliseconds.
+     */
+    static void appendTime(StringBuilder line, long milliseconds) {
+        long seconds = (milliseconds + 500) / 1000;
+
+        line.append(seconds / 3600).append(':');
+        appendTwoDigits(line, seconds / 60 % 60);
+        line.append(':');
+        appendTwoDigits(line, seconds % 60);
+    }
+
+    /**
+     * Append a number of at most two digits with a leading zero.
+     */
+    protected static void appendTwoDigits(StringBuilder line, long value) {
+        line.append(value < 10 ? "0" : "").append(value);
+    }
+}
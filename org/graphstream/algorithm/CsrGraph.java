@@ -0,0 +1,540 @@
+package org.graphstream.algorithm;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+
+import java.util.*;
+
+/**
+ * Immutable snapshot of a graph in compressed sparse row form.
+ *
+ * Nodes are identified by dense indices. The leaving neighbours of node v are
+ * {@code neighbors[offsets[v]]} to {@code neighbors[offsets[v + 1] - 1]}, an
+ * undirected edge appearing in the rows of both its nodes. Each entry of a
+ * row, an arc, may also carry the length of its edge and the index of the
+ * edge itself. Identifiers of nodes are kept in an array, or as integer
+ * labels for graphs loaded from edge lists, the map from identifiers back to
+ * indices being built on first use.
+ *
+ * A snapshot costs a few primitive arrays, far less than the GraphStream
+ * object graph, and traversals scan contiguous memory without iterators. It
+ * does not follow later changes of the graph, and can be shared by several
+ * computations and threads.
+ */
+public class CsrGraph {
+
+    /**
+     * Number of nodes.
+     */
+    protected final int n;
+
+    /**
+     * Number of edges.
+     */
+    protected final int m;
+
+    /**
+     * First arc of each node, the last value is the number of arcs.
+     */
+    protected final int[] offsets;
+
+    /**
+     * Target of each arc.
+     */
+    protected final int[] neighbors;
+
+    /**
+     * Length of each arc, or null for an unweighted graph.
+     */
+    protected final double[] lengths;
+
+    /**
+     * Index of the edge of each arc, or null if unknown.
+     */
+    protected final int[] edges;
+
+    /**
+     * Identifier of each node, or null if nodes are identified by labels or
+     * indices.
+     */
+    protected final String[] ids;
+
+    /**
+     * Integer label identifying each node, or null.
+     */
+    protected final int[] labels;
+
+    /**
+     * Index of each node, by identifier, built on first use.
+     */
+    protected Map<String, Integer> index;
+
+    /**
+     * Are all lengths integers?
+     */
+    protected final boolean integerLengths;
+
+    /**
+     * The largest length.
+     */
+    protected final double maxLength;
+
+    /**
+     * Snapshot of an unweighted graph.
+     *
+     * @param graph The graph.
+     */
+    public CsrGraph(Graph graph) {
+        this(graph, null);
+    }
+
+    /**
+     * Snapshot of a weighted graph. The length of an edge is stored in the
+     * given attribute, an edge without this attribute having length 1.
+     * Lengths must be positive.
+     *
+     * @param graph           The graph.
+     * @param weightAttribute Name of the attribute storing the length of
+     *                        edges, or null for an unweighted graph.
+     */
+    public CsrGraph(Graph graph, String weightAttribute) {
+        this.n = graph.getNodeCount();
+        this.m = graph.getEdgeCount();
+        this.offsets = new int[n + 1];
+        this.ids = new String[n];
+        this.labels = null;
+
+        long arcs = 0;
+
+        for (int i = 0; i < n; i++) {
+            Node v = graph.getNode(i);
+
+            ids[i] = v.getId();
+            offsets[i] = (int) arcs;
+            arcs += v.getOutDegree();
+
+            if (arcs > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("too many arcs: " + arcs);
+            }
+        }
+
+        offsets[n] = (int) arcs;
+
+        this.neighbors = new int[(int) arcs];
+        this.edges = new int[neighbors.length];
+        this.lengths = weightAttribute != null ? new double[neighbors.length] : null;
+
+        boolean integer = true;
+        double max = 0;
+
+        for (int i = 0; i < n; i++) {
+            Node v = graph.getNode(i);
+            int k = offsets[i];
+            Iterator<Edge> ww = v.getLeavingEdgeIterator();
+
+            while (ww.hasNext()) {
+                Edge e = ww.next();
+
+                if (lengths != null) {
+                    double length = e.hasNumber(weightAttribute) ? e.getNumber(weightAttribute) : 1.0;
+
+                    if (!(length > 0) || Double.isInfinite(length)) {
+                        throw new IllegalArgumentException("edge " + e.getId() + " has invalid length " + length);
+                    }
+
+                    lengths[k] = length;
+                    integer &= length == Math.rint(length) && length <= Integer.MAX_VALUE;
+                    max = Math.max(max, length);
+                }
+
+                edges[k] = e.getIndex();
+                neighbors[k++] = e.getOpposite(v).getIndex();
+            }
+        }
+
+        this.integerLengths = integer;
+        this.maxLength = max;
+    }
+
+    /**
+     * Snapshot from arrays in compressed sparse row form. The arrays are not
+     * copied and must not be modified afterwards.
+     *
+     * @param offsets   First arc of each node, followed by the number of arcs.
+     * @param neighbors Target of each arc.
+     * @param lengths   Positive length of each arc, or null for an unweighted
+     *                  graph.
+     * @param edges     Index of the edge of each arc, or null if unknown.
+     * @param edgeCount Number of edges.
+     * @param ids       Identifier of each node, or null to identify nodes by
+     *                  their index.
+     */
+    public CsrGraph(int[] offsets, int[] neighbors, double[] lengths, int[] edges, int edgeCount, String[] ids) {
+        this(offsets, neighbors, lengths, edges, edgeCount, ids, null);
+    }
+
+    /**
+     * Snapshot from arrays in compressed sparse row form, nodes being
+     * identified by integer labels. The arrays are not copied and must not be
+     * modified afterwards.
+     *
+     * @param offsets   First arc of each node, followed by the number of arcs.
+     * @param neighbors Target of each arc.
+     * @param lengths   Positive length of each arc, or null for an unweighted
+     *                  graph.
+     * @param edges     Index of the edge of each arc, or null if unknown.
+     * @param edgeCount Number of edges.
+     * @param labels    Label of each node, or null to identify nodes by their
+     *                  index.
+     */
+    public CsrGraph(int[] offsets, int[] neighbors, double[] lengths, int[] edges, int edgeCount, int[] labels) {
+        this(offsets, neighbors, lengths, edges, edgeCount, null, labels);
+    }
+
+    /**
+     * Snapshot from arrays, with either identifiers or labels.
+     */
+    protected CsrGraph(int[] offsets, int[] neighbors, double[] lengths, int[] edges, int edgeCount, String[] ids,
+                       int[] labels) {
+        this.n = offsets.length - 1;
+        this.m = edgeCount;
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+        this.lengths = lengths;
+        this.edges = edges;
+        this.ids = ids;
+        this.labels = labels;
+
+        if (n < 0 || offsets[0] != 0 || offsets[n] != neighbors.length) {
+            throw new IllegalArgumentException("offsets do not match " + neighbors.length + " arcs");
+        }
+
+        if ((lengths != null && lengths.length != neighbors.length)
+                || (edges != null && edges.length != neighbors.length) || (ids != null && ids.length != n)
+                || (labels != null && labels.length != n)) {
+            throw new IllegalArgumentException("arrays of different sizes");
+        }
+
+        for (int i = 0; i < n; i++) {
+            if (offsets[i] > offsets[i + 1]) {
+                throw new IllegalArgumentException("offsets decrease at node " + i);
+            }
+        }
+
+        for (int k = 0; k < neighbors.length; k++) {
+            if (neighbors[k] < 0 || neighbors[k] >= n) {
+                throw new IllegalArgumentException("arc " + k + " leads to invalid node " + neighbors[k]);
+            }
+
+            if (edges != null && (edges[k] < 0 || edges[k] >= edgeCount)) {
+                throw new IllegalArgumentException("arc " + k + " has invalid edge " + edges[k]);
+            }
+        }
+
+        boolean integer = true;
+        double max = 0;
+
+        if (lengths != null) {
+            for (int k = 0; k < lengths.length; k++) {
+                double length = lengths[k];
+
+                if (!(length > 0) || Double.isInfinite(length)) {
+                    throw new IllegalArgumentException("arc " + k + " has invalid length " + length);
+                }
+
+                integer &= length == Math.rint(length) && length <= Integer.MAX_VALUE;
+                max = Math.max(max, length);
+            }
+        }
+
+        this.integerLengths = integer;
+        this.maxLength = max;
+    }
+
+    /**
+     * Snapshot whose arcs are stored by a subclass.
+     *
+     * @param n      Number of nodes.
+     * @param m      Number of edges.
+     * @param ids    Identifier of each node, or null.
+     * @param labels Label of each node, or null.
+     */
+    protected CsrGraph(int n, int m, String[] ids, int[] labels) {
+        this.n = n;
+        this.m = m;
+        this.offsets = null;
+        this.neighbors = null;
+        this.lengths = null;
+        this.edges = null;
+        this.ids = ids;
+        this.labels = labels;
+        this.integerLengths = true;
+        this.maxLength = 0;
+    }
+
+    /**
+     * Unweighted snapshot of nodes identified by their index, from the list
+     * of leaving neighbours of each node.
+     *
+     * @param adjacency Leaving neighbours of each node.
+     */
+    static CsrGraph fromAdjacency(int[][] adjacency) {
+        int[] offsets = new int[adjacency.length + 1];
+
+        for (int i = 0; i < adjacency.length; i++) {
+            offsets[i + 1] = offsets[i] + adjacency[i].length;
+        }
+
+        int[] neighbors = new int[offsets[adjacency.length]];
+
+        for (int i = 0; i < adjacency.length; i++) {
+            System.arraycopy(adjacency[i], 0, neighbors, offsets[i], adjacency[i].length);
+        }
+
+        return new CsrGraph(offsets, neighbors, null, null, 0, null, null);
+    }
+
+    /**
+     * Number of nodes.
+     */
+    public int getNodeCount() {
+        return n;
+    }
+
+    /**
+     * Number of edges.
+     */
+    public int getEdgeCount() {
+        return m;
+    }
+
+    /**
+     * Number of arcs, an undirected edge giving two arcs.
+     */
+    public long getArcCount() {
+        return neighbors.length;
+    }
+
+    /**
+     * Number of leaving neighbours of a node.
+     *
+     * @param v Index of the node.
+     */
+    public int getDegree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    /**
+     * A leaving neighbour of a node.
+     *
+     * @param v Index of the node.
+     * @param k Rank of the neighbour, less than the degree of the node.
+     * @return Index of the neighbour.
+     */
+    public int getNeighbor(int v, int k) {
+        return neighbors[offsets[v] + k];
+    }
+
+    /**
+     * Length of the edge toward a leaving neighbour of a node, 1 for an
+     * unweighted graph.
+     *
+     * @param v Index of the node.
+     * @param k Rank of the neighbour, less than the degree of the node.
+     */
+    public double getLength(int v, int k) {
+        return lengths != null ? lengths[offsets[v] + k] : 1.0;
+    }
+
+    /**
+     * Index of the edge toward a leaving neighbour of a node, or -1 if edges
+     * are unknown.
+     *
+     * @param v Index of the node.
+     * @param k Rank of the neighbour, less than the degree of the node.
+     */
+    public int getEdge(int v, int k) {
+        return edges != null ? edges[offsets[v] + k] : -1;
+    }
+
+    /**
+     * Identifier of a node.
+     *
+     * @param v Index of the node.
+     */
+    public String getId(int v) {
+        if (ids != null) {
+            return ids[v];
+        }
+
+        return Integer.toString(labels != null ? labels[v] : v);
+    }
+
+    /**
+     * Integer label of a node, its index if nodes have no label.
+     *
+     * @param v Index of the node.
+     */
+    public int getLabel(int v) {
+        return labels != null ? labels[v] : v;
+    }
+
+    /**
+     * Index of a node.
+     *
+     * @param id Identifier of the node.
+     * @return The index of the node, or -1 if there is no such node.
+     */
+    public int getIndex(String id) {
+        if (ids == null && labels == null) {
+            try {
+                int v = Integer.parseInt(id);
+                return v >= 0 && v < n && Integer.toString(v).equals(id) ? v : -1;
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+
+        Integer v = getIndexMap().get(id);
+
+        return v != null ? v : -1;
+    }
+
+    /**
+     * The map from identifiers to indices, built on first use.
+     */
+    protected synchronized Map<String, Integer> getIndexMap() {
+        if (index == null) {
+            Map<String, Integer> map = new HashMap<String, Integer>(n * 2);
+
+            for (int i = 0; i < n; i++) {
+                map.put(getId(i), i);
+            }
+
+            index = map;
+        }
+
+        return index;
+    }
+
+    /**
+     * Does each arc have a length?
+     */
+    public boolean isWeighted() {
+        return lengths != null;
+    }
+
+    /**
+     * Are the edges of the arcs known?
+     */
+    public boolean hasEdges() {
+        return edges != null;
+    }
+
+    /**
+     * Does every arc (v, w) have a reverse arc (w, v), as many times, so that
+     * the snapshot is the one of an undirected graph? Lengths are not
+     * compared.
+     */
+    public boolean isSymmetric() {
+        long arcs = getArcCount();
+
+        if (arcs > Integer.MAX_VALUE) {
+            return false;
+        }
+
+        int[] in = new int[n + 1];
+        int maxDegree = 0;
+
+        for (int v = 0; v < n; v++) {
+            int degree = getDegree(v);
+
+            for (int k = 0; k < degree; k++) {
+                in[getNeighbor(v, k) + 1]++;
+            }
+
+            maxDegree = Math.max(maxDegree, degree);
+        }
+
+        for (int v = 0; v < n; v++) {
+            if (in[v + 1] != getDegree(v)) {
+                return false;
+            }
+        }
+
+        CsrGraph reverse = reverse();
+        int[] row = new int[maxDegree];
+
+        for (int v = 0; v < n; v++) {
+            int degree = getDegree(v);
+
+            for (int k = 0; k < degree; k++) {
+                row[k] = getNeighbor(v, k);
+            }
+
+            Arrays.sort(row, 0, degree);
+
+            for (int k = 0; k < degree; k++) {
+                if (row[k] != reverse.getNeighbor(v, k)) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Unweighted snapshot of the reversed graph : the neighbours of each node
+     * are the sources of the arcs entering it, in increasing order, as many
+     * times as the arcs. Nodes keep their index.
+     *
+     * @throws IllegalStateException If the graph has more than
+     *                               {@link Integer#MAX_VALUE} arcs.
+     */
+    public CsrGraph reverse() {
+        long arcs = getArcCount();
+
+        if (arcs > Integer.MAX_VALUE) {
+            throw new IllegalStateException("too many arcs to reverse: " + arcs);
+        }
+
+        int[] in = new int[n + 1];
+
+        for (int v = 0; v < n; v++) {
+            for (int k = 0, degree = getDegree(v); k < degree; k++) {
+                in[getNeighbor(v, k) + 1]++;
+            }
+        }
+
+        for (int v = 0; v < n; v++) {
+            in[v + 1] += in[v];
+        }
+
+        int[] sources = new int[(int) arcs];
+        int[] next = Arrays.copyOf(in, n);
+
+        for (int v = 0; v < n; v++) {
+            for (int k = 0, degree = getDegree(v); k < degree; k++) {
+                sources[next[getNeighbor(v, k)]++] = v;
+            }
+        }
+
+        return new CsrGraph(in, sources, null, null, 0, null, null);
+    }
+
+    /**
+     * Are all lengths integers? True for an unweighted graph.
+     */
+    public boolean hasIntegerLengths() {
+        return integerLengths;
+    }
+
+    /**
+     * The largest length, 0 for an unweighted graph.
+     */
+    public double getMaxLength() {
+        return maxLength;
+    }
+}
@@ -0,0 +1,206 @@
+package org.graphstream.algorithm;
+
+import java.util.*;
+
+/**
+ * Workspace running one Dijkstra search per source on a weighted graph.
+ *
+ * Shortest paths are counted as in "On variants of shortest-path betweenness
+ * centrality and their generic computation", Ulrik Brandes, 2008 : when an
+ * edge (v, w) gives w a shorter distance, sigma[w] is replaced by sigma[v],
+ * and when it gives the same distance, sigma[v] is added to sigma[w]. Nodes
+ * are recorded in the order they are settled, which is an order of
+ * non-decreasing distance, and accumulation walks it backwards. The
+ * successors of v in the shortest-path DAG are its neighbours w with
+ * {@code dist[w] == dist[v] + length(v, w)}, computed exactly as during the
+ * search so that ties are recognized the same way.
+ *
+ * The queue is an {@link IndexedHeap}, or a {@link BucketQueue} (Dial's
+ * algorithm) when all lengths are small integers.
+ */
+class DijkstraWorkspace extends StressWorkspace {
+
+    /**
+     * Largest length for which a bucket queue is used.
+     */
+    static final int MAX_BUCKETS = 1 << 16;
+
+    /**
+     * The distance value.
+     */
+    protected final double[] dist;
+
+    /**
+     * The sigma value.
+     */
+    protected final double[] sigma;
+
+    /**
+     * The delta value.
+     */
+    protected final double[] delta;
+
+    /**
+     * Nodes settled by the current search, in settle order.
+     */
+    protected final int[] order;
+
+    /**
+     * Number of nodes settled by the current search.
+     */
+    protected int visited;
+
+    /**
+     * Queue of the nodes reached but not settled.
+     */
+    protected final NodeQueue queue;
+
+    /**
+     * New workspace sized for the graph indexed by the given engine.
+     *
+     * @param engine  The engine owning the indexed graph.
+     * @param buckets Use a bucket queue? Lengths must then be integers not
+     *                larger than {@link #MAX_BUCKETS}.
+     */
+    DijkstraWorkspace(StressEngine engine, boolean buckets) {
+        super(engine);
+
+        int n = engine.getNodeCount();
+
+        this.dist = new double[n];
+        this.sigma = new double[n];
+        this.delta = new double[n];
+        this.order = new int[n];
+        this.queue = buckets ? new BucketQueue(dist, (int) engine.getGraph().getMaxLength()) : new IndexedHeap(dist);
+
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+    }
+
+    @Override
+    void computeSources(int from, int to, double[] centrality, double[] edgeCentrality) {
+        for (int s = from; s < to; s++) {
+            computeSource(s, centrality, edgeCentrality);
+        }
+    }
+
+    /**
+     * Add the contribution of the given source to centrality arrays.
+     *
+     * @param s              Index of the source node.
+     * @param centrality     The centrality to update, by node index.
+     * @param edgeCentrality The centrality to update, by edge index, or null.
+     */
+    void computeSource(int s, double[] centrality, double[] edgeCentrality) {
+        /*
+         * INITIALIZATION
+         */
+        initialization(s);
+
+        /*
+         * ACCUMULATION
+         */
+        int[] offsets = engine.offsets;
+        int[] neighbors = engine.neighbors;
+        double[] lengths = engine.lengths;
+        int[] edgeIds = engine.edgeIds;
+        double[] targets = this.targets;
+
+        for (int i = visited - 1; i >= 0; i--) {
+            int v = order[i];
+            double d = 0.0;
+
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                int w = neighbors[k];
+
+                if (dist[w] == dist[v] + lengths[k]) {
+                    double c = (targets != null ? targets[w] : 1.0) + delta[w];
+                    d += c;
+
+                    if (edgeCentrality != null) {
+                        edgeCentrality[edgeIds[k]] += sigma[v] * c / 2;
+                    }
+                }
+            }
+
+            delta[v] = d;
+
+            if (v != s) {
+                centrality[v] += sigma[v] * d / 2;
+            }
+        }
+
+        reset();
+    }
+
+    /**
+     * Compute single-source multiple-targets shortest paths on a weighted
+     * graph, up to the maximum distance of the engine. Settled nodes are
+     * stored in {@link #order}.
+     *
+     * @param source Index of the source node.
+     */
+    protected void initialization(int source) {
+        int[] offsets = engine.offsets;
+        int[] neighbors = engine.neighbors;
+        double[] lengths = engine.lengths;
+        double limit = engine.maxDistance;
+
+        dist[source] = 0.0;
+        sigma[source] = 1.0;
+        queue.add(source);
+
+        while (!queue.isEmpty()) {
+            int v = queue.poll();
+
+            order[visited++] = v;
+
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                int w = neighbors[k];
+                double alt = dist[v] + lengths[k];
+
+                if (alt > limit) {
+                    continue;
+                }
+
+                if (alt < dist[w]) {
+                    /*
+                     * Path discovery
+                     */
+                    boolean reached = dist[w] != Double.POSITIVE_INFINITY;
+
+                    dist[w] = alt;
+                    sigma[w] = sigma[v];
+
+                    if (reached) {
+                        queue.decrease(w);
+                    } else {
+                        queue.add(w);
+                    }
+                } else if (alt == dist[w]) {
+                    /*
+                     * Path counting
+                     */
+                    sigma[w] += sigma[v];
+                }
+            }
+        }
+    }
+
+    /**
+     * Reset the distance, sigma and delta of the nodes settled by the last
+     * search.
+     */
+    protected void reset() {
+        int[] offsets = engine.offsets;
+
+        for (int i = 0; i < visited; i++) {
+            int v = order[i];
+            arcs += offsets[v + 1] - offsets[v];
+            dist[v] = Double.POSITIVE_INFINITY;
+            sigma[v] = 0.0;
+            delta[v] = 0.0;
+        }
+
+        visited = 0;
+    }
+}
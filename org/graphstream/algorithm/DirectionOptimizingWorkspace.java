@@ -0,0 +1,199 @@
+package org.graphstream.algorithm;
+
+/**
+ * Workspace running one direction-optimizing breadth-first search per
+ * source, as described in "Direction-Optimizing Breadth-First Search",
+ * Scott Beamer, Krste Asanovic and David Patterson, 2012.
+ *
+ * Levels are discovered either top-down, scanning the leaving arcs of the
+ * frontier like {@link BfsWorkspace}, or bottom-up, each node not reached
+ * yet scanning its entering arcs for parents in the frontier, held in a
+ * bitmap. Once the frontier covers a large part of the graph, which happens
+ * after a few levels in low-diameter graphs, most of its leaving arcs lead to
+ * nodes already reached, and bottom-up steps inspect far fewer arcs. Unlike
+ * plain searches, a bottom-up step cannot stop at the first parent found :
+ * each node collects the sigma of all its parents, so sigma and the visit
+ * order by level are the ones of a top-down search, and the accumulation is
+ * the same.
+ *
+ * A level is discovered bottom-up when the arcs leaving the frontier,
+ * multiplied by alpha, outnumber the arcs entering the nodes not reached
+ * yet, and top-down again once the frontier, multiplied by beta, holds fewer
+ * nodes than the graph, see
+ * {@link StressEngine#setDirectionSwitch(double, double)}. Entering arcs are
+ * read from {@link StressEngine#getReverse()}.
+ */
+class DirectionOptimizingWorkspace extends BfsWorkspace {
+
+    /**
+     * Entering neighbours of each node.
+     */
+    protected final CsrGraph reverse;
+
+    /**
+     * Bitmap of the nodes of the frontier during bottom-up steps.
+     */
+    protected final long[] frontier;
+
+    /**
+     * Number of arcs inspected by the current traversal.
+     */
+    protected long inspected = 0;
+
+    /**
+     * New workspace sized for the graph indexed by the given engine.
+     *
+     * @param engine The engine owning the indexed graph.
+     */
+    DirectionOptimizingWorkspace(StressEngine engine) {
+        super(engine);
+        this.reverse = engine.getReverse();
+        this.frontier = new long[(engine.n + 63) >>> 6];
+    }
+
+    @Override
+    protected void initialization(int source) {
+        int[] offsets = engine.offsets;
+        int[] inOffsets = reverse.offsets;
+        double alpha = engine.directionAlpha;
+        double beta = engine.directionBeta;
+        int n = engine.n;
+        int limit = engine.maxHops;
+        // Arcs entering the nodes not reached yet
+        long unexplored = inOffsets[n] - (inOffsets[source + 1] - inOffsets[source]);
+        long frontierArcs = offsets[source + 1] - offsets[source];
+        boolean bottomUp = false;
+
+        dist[source] = 0;
+        sigma[source] = 1.0;
+        order[0] = source;
+        visited = 1;
+
+        for (int start = 0, end = 1, level = 0; start < end && level < limit; start = end, end = visited, level++) {
+            if (!bottomUp && frontierArcs * alpha > unexplored) {
+                bottomUp = true;
+            } else if (bottomUp && (end - start) * beta < n) {
+                bottomUp = false;
+            }
+
+            if (bottomUp) {
+                bottomUpStep(level, start, end);
+            } else {
+                topDownStep(start, end);
+            }
+
+            frontierArcs = 0;
+
+            for (int i = end; i < visited; i++) {
+                int w = order[i];
+                frontierArcs += offsets[w + 1] - offsets[w];
+                unexplored -= inOffsets[w + 1] - inOffsets[w];
+            }
+        }
+    }
+
+    /**
+     * Discover the next level from the leaving arcs of the frontier.
+     *
+     * @param start First entry of the frontier in {@link #order}.
+     * @param end   Entry following the frontier.
+     */
+    protected void topDownStep(int start, int end) {
+        int[] offsets = engine.offsets;
+        int[] neighbors = engine.neighbors;
+
+        for (int head = start; head < end; head++) {
+            int v = order[head];
+            int next = dist[v] + 1;
+
+            inspected += offsets[v + 1] - offsets[v];
+
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                int w = neighbors[k];
+
+                /*
+                 * Path discovery
+                 */
+                if (dist[w] == UNREACHED) {
+                    dist[w] = next;
+                    order[visited++] = w;
+                }
+
+                /*
+                 * Path counting
+                 */
+                if (dist[w] == next) {
+                    sigma[w] += sigma[v];
+                }
+            }
+        }
+    }
+
+    /**
+     * Discover the next level from the entering arcs of the nodes not
+     * reached yet.
+     *
+     * @param level Distance of the frontier from the source.
+     * @param start First entry of the frontier in {@link #order}.
+     * @param end   Entry following the frontier.
+     */
+    protected void bottomUpStep(int level, int start, int end) {
+        int[] inOffsets = reverse.offsets;
+        int[] inNeighbors = reverse.neighbors;
+        int n = engine.n;
+
+        for (int i = start; i < end; i++) {
+            int v = order[i];
+            frontier[v >>> 6] |= 1L << v;
+        }
+
+        for (int w = 0; w < n; w++) {
+            if (dist[w] != UNREACHED) {
+                continue;
+            }
+
+            double s = 0.0;
+            boolean found = false;
+
+            inspected += inOffsets[w + 1] - inOffsets[w];
+
+            for (int k = inOffsets[w]; k < inOffsets[w + 1]; k++) {
+                int v = inNeighbors[k];
+
+                /*
+                 * Path counting, from every parent
+                 */
+                if ((frontier[v >>> 6] & (1L << v)) != 0) {
+                    s += sigma[v];
+                    found = true;
+                }
+            }
+
+            /*
+             * Path discovery
+             */
+            if (found) {
+                dist[w] = level + 1;
+                sigma[w] = s;
+                order[visited++] = w;
+            }
+        }
+
+        for (int i = start; i < end; i++) {
+            frontier[order[i] >>> 6] = 0;
+        }
+    }
+
+    /**
+     * Reset the nodes reached by the last traversal, counting the arcs it
+     * actually inspected.
+     */
+    @Override
+    protected void reset() {
+        long counted = arcs;
+
+        super.reset();
+        arcs = counted + inspected;
+        inspected = 0;
+    }
+}
@@ -0,0 +1,797 @@
+package org.graphstream.algorithm;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Load edge lists straight into a {@link CsrGraph}, without GraphStream nodes
+ * and edges.
+ *
+ * Files are memory-mapped with {@link FileChannel#map} and cut into chunks
+ * parsed in parallel. Three formats are read :
+ * <ul>
+ * <li>text edge lists, one edge per line as two non-negative integer labels
+ * separated by spaces, tabs, commas or a dash ("1-22"), optionally followed
+ * by the length of the edge. Empty lines and lines starting with '#' or '%'
+ * are ignored;</li>
+ * <li>binary edge lists, a sequence of little-endian 32-bit (source, target)
+ * label pairs;</li>
+ * <li>binary caches written by {@link #writeCache(CsrGraph, Path)}, holding
+ * the arrays of a snapshot so that later runs only have to map them.</li>
+ * </ul>
+ *
+ * Labels need not be dense : nodes are indexed by increasing label and the
+ * labels are kept in the snapshot. Edges are indexed in file order.
+ *
+ * Snapshots are loaded on the heap, so a graph must have fewer than 2^31
+ * arcs and fit in the heap of the process loading it. A process with a
+ * smaller heap can then map its binary cache with
+ * {@link OffHeapCsrGraph#map(Path)}.
+ */
+public class EdgeListLoader {
+
+    /**
+     * First bytes of a binary cache.
+     */
+    public static final int MAGIC = 0x31525343;
+
+    /**
+     * Flags of the optional sections of a binary cache.
+     */
+    protected static final int LENGTHS = 1, EDGES = 2, LABELS = 4, IDS = 8;
+
+    /**
+     * Size of the header of a binary cache.
+     */
+    protected static final int HEADER = 20;
+
+    /**
+     * Largest region mapped at once.
+     */
+    protected static final int WINDOW = 1 << 30;
+
+    /**
+     * Longest line of a text edge list.
+     */
+    protected static final int MAX_LINE = 1 << 16;
+
+    /**
+     * Are edges directed?
+     */
+    protected boolean directed = false;
+
+    /**
+     * Read the length of edges from text edge lists?
+     */
+    protected boolean weighted = false;
+
+    /**
+     * Size of the chunks parsed in parallel, in bytes.
+     */
+    protected int chunkSize = 1 << 26;
+
+    /**
+     * Executor parsing the chunks, the common fork/join pool if null.
+     */
+    protected ExecutorService executor = null;
+
+    /**
+     * Load edges as directed from the first to the second label. By default
+     * edges are undirected.
+     *
+     * @param directed If it is true, edges are directed.
+     */
+    public void setDirected(boolean directed) {
+        this.directed = directed;
+    }
+
+    /**
+     * Read the length of each edge from the third column of text edge lists,
+     * edges without it having length 1. By default graphs are unweighted.
+     *
+     * @param weighted If it is true, lengths are read.
+     */
+    public void setWeighted(boolean weighted) {
+        this.weighted = weighted;
+    }
+
+    /**
+     * Specify the size of the chunks parsed in parallel. By default 64 MB.
+     *
+     * @param chunkSize Size of the chunks in bytes.
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 8 || chunkSize > WINDOW) {
+            throw new IllegalArgumentException("invalid chunk size: " + chunkSize);
+        }
+
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Specify the executor parsing the chunks. By default the common
+     * fork/join pool is used.
+     *
+     * @param executor The executor, or null for the common pool.
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Load a text edge list or a binary cache, recognized by its first bytes.
+     * A malformed line fails the loading with an {@link IOException} giving
+     * its line number.
+     *
+     * @param path The file.
+     * @return The snapshot of the graph.
+     */
+    public CsrGraph load(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            if (channel.size() >= HEADER) {
+                ByteBuffer magic = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+                channel.read(magic, 0);
+
+                if (magic.getInt(0) == MAGIC) {
+                    return readCache(channel);
+                }
+            }
+
+            return build(parse(channel, false));
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Load a binary edge list.
+     *
+     * @param path The file.
+     * @return The snapshot of the graph.
+     */
+    public CsrGraph loadBinary(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            if (channel.size() % 8 != 0) {
+                throw new IOException(path + " is not a list of 32-bit pairs");
+            }
+
+            return build(parse(channel, true));
+        } finally {
+            channel.close();
+        }
+    }
+
+    /*
+     * PARSING
+     */
+
+    /**
+     * Edges parsed from a chunk, in file order.
+     */
+    protected static class Chunk {
+
+        int[] sources = new int[1024];
+
+        int[] targets = new int[1024];
+
+        double[] lengths;
+
+        int count;
+
+        Chunk(boolean weighted) {
+            lengths = weighted ? new double[1024] : null;
+        }
+
+        void add(int source, int target, double length) {
+            if (count == sources.length) {
+                sources = Arrays.copyOf(sources, count * 2);
+                targets = Arrays.copyOf(targets, count * 2);
+
+                if (lengths != null) {
+                    lengths = Arrays.copyOf(lengths, count * 2);
+                }
+            }
+
+            sources[count] = source;
+            targets[count] = target;
+
+            if (lengths != null) {
+                lengths[count] = length;
+            }
+
+            count++;
+        }
+    }
+
+    /**
+     * Parse every chunk of a file in parallel.
+     *
+     * @param channel The file.
+     * @param binary  Is it a binary edge list?
+     * @return The chunks, in file order.
+     */
+    protected List<Chunk> parse(final FileChannel channel, final boolean binary) throws IOException {
+        long size = channel.size();
+        int step = binary ? chunkSize & ~7 : chunkSize;
+        ExecutorService executor = this.executor != null ? this.executor : ForkJoinPool.commonPool();
+        List<Future<Chunk>> futures = new ArrayList<Future<Chunk>>();
+
+        for (long start = 0; start < size; start += step) {
+            final long from = start;
+            final long to = Math.min(size, start + step);
+
+            futures.add(executor.submit(new Callable<Chunk>() {
+                public Chunk call() throws IOException {
+                    return binary ? parseBinary(channel, from, to) : parseText(channel, from, to);
+                }
+            }));
+        }
+
+        List<Chunk> chunks = new ArrayList<Chunk>(futures.size());
+
+        try {
+            for (Future<Chunk> future : futures) {
+                chunks.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while parsing", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+
+            // The common pool wraps the exceptions of callables, at times twice
+            for (Throwable wrapped = cause; wrapped != null; wrapped = wrapped.getCause()) {
+                if (wrapped instanceof IOException) {
+                    cause = wrapped;
+                    break;
+                }
+            }
+
+            if (cause instanceof FormatException) {
+                FormatException format = (FormatException) cause;
+
+                throw new IOException(format.reason + " at line " + lineOf(channel, format.position)
+                        + " (byte " + format.position + ")", format);
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw new IOException(cause);
+        } finally {
+            for (Future<Chunk> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        return chunks;
+    }
+
+    /**
+     * Parse the pairs of a chunk of a binary edge list.
+     */
+    protected Chunk parseBinary(FileChannel channel, long from, long to) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        Chunk chunk = new Chunk(false);
+        int count = (int) ((to - from) / 8);
+
+        chunk.sources = new int[count];
+        chunk.targets = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            chunk.sources[i] = checkLabel(buffer.getInt(), from + 8L * i);
+            chunk.targets[i] = checkLabel(buffer.getInt(), from + 8L * i + 4);
+        }
+
+        chunk.count = count;
+
+        return chunk;
+    }
+
+    /**
+     * Parse the lines starting in a chunk of a text edge list. The line
+     * running over the start of the chunk belongs to the previous chunk.
+     */
+    protected Chunk parseText(FileChannel channel, long from, long to) throws IOException {
+        long size = channel.size();
+        long mapFrom = Math.max(0, from - 1);
+        long mapTo = Math.min(size, to + MAX_LINE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapFrom, mapTo - mapFrom);
+        int limit = buffer.limit();
+        int end = (int) (to - mapFrom);
+        int i = (int) (from - mapFrom);
+        Chunk chunk = new Chunk(weighted);
+
+        if (from > 0) {
+            // Skip the end of the line started in the previous chunk
+            while (i < limit && buffer.get(i - 1) != '\n') {
+                i++;
+            }
+        }
+
+        StringBuilder number = new StringBuilder();
+
+        while (i < end) {
+            int lineStart = i;
+            int c = i < limit ? buffer.get(i) : '\n';
+
+            while (c == ' ' || c == '\t' || c == '\r') {
+                c = ++i < limit ? buffer.get(i) : '\n';
+            }
+
+            if (c == '\n' || c == '#' || c == '%') {
+                while (i < limit && buffer.get(i) != '\n') {
+                    i++;
+                }
+
+                i++;
+                continue;
+            }
+
+            long source = 0, target = 0;
+            int digits = 0;
+
+            while (c >= '0' && c <= '9') {
+                source = source * 10 + (c - '0');
+                digits++;
+                c = ++i < limit ? buffer.get(i) : '\n';
+            }
+
+            while (c == ' ' || c == '\t' || c == ',' || c == '-') {
+                c = ++i < limit ? buffer.get(i) : '\n';
+            }
+
+            int targetDigits = 0;
+
+            while (c >= '0' && c <= '9') {
+                target = target * 10 + (c - '0');
+                targetDigits++;
+                c = ++i < limit ? buffer.get(i) : '\n';
+            }
+
+            if (digits == 0 || targetDigits == 0 || digits > 10 || targetDigits > 10
+                    || source > Integer.MAX_VALUE || target > Integer.MAX_VALUE) {
+                throw new FormatException("invalid edge", mapFrom + lineStart);
+            }
+
+            double length = 1.0;
+
+            while (c == ' ' || c == '\t' || c == ',') {
+                c = ++i < limit ? buffer.get(i) : '\n';
+            }
+
+            if (weighted && c != '\n' && c != '\r') {
+                number.setLength(0);
+
+                while (c != ' ' && c != '\t' && c != ',' && c != '\r' && c != '\n') {
+                    number.append((char) c);
+                    c = ++i < limit ? buffer.get(i) : '\n';
+                }
+
+                try {
+                    length = Double.parseDouble(number.toString());
+                } catch (NumberFormatException e) {
+                    throw new FormatException("invalid length", mapFrom + lineStart);
+                }
+            }
+
+            while (i < limit && buffer.get(i) != '\n') {
+                i++;
+            }
+
+            if (i == limit && mapTo < size) {
+                throw new FormatException("line longer than " + MAX_LINE + " bytes", mapFrom + lineStart);
+            }
+
+            chunk.add((int) source, (int) target, length);
+            i++;
+        }
+
+        return chunk;
+    }
+
+    /**
+     * Number of the line of a text edge list holding a byte, from 1.
+     *
+     * @param channel  The file.
+     * @param position Position of the byte.
+     */
+    protected static long lineOf(FileChannel channel, long position) throws IOException {
+        long line = 1;
+
+        for (long start = 0; start < position; start += WINDOW) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                    Math.min(WINDOW, position - start));
+
+            while (buffer.hasRemaining()) {
+                if (buffer.get() == '\n') {
+                    line++;
+                }
+            }
+        }
+
+        return line;
+    }
+
+    /**
+     * Malformed line of a text edge list. It is reported by
+     * {@link #parse(FileChannel, boolean)} with its line number, which a
+     * chunk does not know.
+     */
+    protected static class FormatException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * What is wrong with the line.
+         */
+        protected final String reason;
+
+        /**
+         * Position of the start of the line.
+         */
+        protected final long position;
+
+        FormatException(String reason, long position) {
+            super(reason + " at byte " + position);
+            this.reason = reason;
+            this.position = position;
+        }
+    }
+
+    /**
+     * Check a label read from a binary edge list.
+     */
+    protected static int checkLabel(int label, long position) throws IOException {
+        if (label < 0) {
+            throw new IOException("negative label at byte " + position);
+        }
+
+        return label;
+    }
+
+    /*
+     * BUILDING
+     */
+
+    /**
+     * Build the snapshot from the parsed edges. Labels are replaced by dense
+     * indices in increasing label order.
+     *
+     * @param chunks The parsed edges, in file order.
+     */
+    protected CsrGraph build(List<Chunk> chunks) {
+        long edgeCount = 0;
+        int maxLabel = -1;
+
+        for (Chunk chunk : chunks) {
+            edgeCount += chunk.count;
+
+            for (int i = 0; i < chunk.count; i++) {
+                maxLabel = Math.max(maxLabel, Math.max(chunk.sources[i], chunk.targets[i]));
+            }
+        }
+
+        if (edgeCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("too many edges: " + edgeCount);
+        }
+
+        /*
+         * Dense indices : the rank of each label among the labels present,
+         * from a bit set and the number of bits set before each word.
+         */
+        long[] present = new long[(int) (((long) maxLabel + 64) >>> 6)];
+
+        for (Chunk chunk : chunks) {
+            for (int i = 0; i < chunk.count; i++) {
+                present[chunk.sources[i] >>> 6] |= 1L << chunk.sources[i];
+                present[chunk.targets[i] >>> 6] |= 1L << chunk.targets[i];
+            }
+        }
+
+        int[] rank = new int[present.length];
+        int n = 0;
+
+        for (int w = 0; w < present.length; w++) {
+            rank[w] = n;
+            n += Long.bitCount(present[w]);
+        }
+
+        int[] labels = new int[n];
+        boolean identity = n == maxLabel + 1;
+
+        for (int w = 0, v = 0; w < present.length; w++) {
+            for (long bits = present[w]; bits != 0; bits &= bits - 1) {
+                labels[v++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+            }
+        }
+
+        /*
+         * Compressed sparse rows
+         */
+        int[] offsets = new int[n + 1];
+        long arcs = 0;
+
+        for (Chunk chunk : chunks) {
+            for (int i = 0; i < chunk.count; i++) {
+                int u = index(chunk.sources[i], present, rank);
+                int v = index(chunk.targets[i], present, rank);
+
+                chunk.sources[i] = u;
+                chunk.targets[i] = v;
+                offsets[u + 1]++;
+                arcs++;
+
+                if (!directed && u != v) {
+                    offsets[v + 1]++;
+                    arcs++;
+                }
+            }
+        }
+
+        if (arcs > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("too many arcs: " + arcs);
+        }
+
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        int[] cursor = Arrays.copyOf(offsets, n);
+        int[] neighbors = new int[(int) arcs];
+        int[] edges = new int[neighbors.length];
+        double[] lengths = weighted ? new double[neighbors.length] : null;
+        int e = 0;
+
+        for (Chunk chunk : chunks) {
+            for (int i = 0; i < chunk.count; i++, e++) {
+                int u = chunk.sources[i];
+                int v = chunk.targets[i];
+                int k = cursor[u]++;
+
+                neighbors[k] = v;
+                edges[k] = e;
+
+                if (lengths != null) {
+                    lengths[k] = chunk.lengths != null ? chunk.lengths[i] : 1.0;
+                }
+
+                if (!directed && u != v) {
+                    k = cursor[v]++;
+                    neighbors[k] = u;
+                    edges[k] = e;
+
+                    if (lengths != null) {
+                        lengths[k] = chunk.lengths != null ? chunk.lengths[i] : 1.0;
+                    }
+                }
+            }
+        }
+
+        return new CsrGraph(offsets, neighbors, lengths, edges, (int) edgeCount, identity ? null : labels);
+    }
+
+    /**
+     * Dense index of a label.
+     */
+    protected static int index(int label, long[] present, int[] rank) {
+        int w = label >>> 6;
+
+        return rank[w] + Long.bitCount(present[w] & ((1L << label) - 1));
+    }
+
+    /*
+     * BINARY CACHE
+     */
+
+    /**
+     * Write a snapshot as a binary cache, which {@link #load(Path)} maps back.
+     * Values are little-endian : a header of five 32-bit integers (magic,
+     * flags, nodes, arcs, edges), then the 32-bit offsets, the neighbours,
+     * and the optional edges, labels, lengths and identifiers sections. The
+     * format is thus limited to snapshots of fewer than 2^31 arcs.
+     *
+     * @param graph The snapshot.
+     * @param path  The file, replaced if it exists.
+     */
+    public static void writeCache(CsrGraph graph, Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        try {
+            int flags = (graph.lengths != null ? LENGTHS : 0) | (graph.edges != null ? EDGES : 0)
+                    | (graph.labels != null ? LABELS : 0) | (graph.ids != null ? IDS : 0);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+
+            buffer.putInt(MAGIC).putInt(flags).putInt(graph.n).putInt(graph.neighbors.length).putInt(graph.m);
+            writeInts(channel, buffer, graph.offsets);
+            writeInts(channel, buffer, graph.neighbors);
+
+            if (graph.edges != null) {
+                writeInts(channel, buffer, graph.edges);
+            }
+
+            if (graph.labels != null) {
+                writeInts(channel, buffer, graph.labels);
+            }
+
+            if (graph.lengths != null) {
+                for (double length : graph.lengths) {
+                    if (buffer.remaining() < 8) {
+                        flush(channel, buffer);
+                    }
+
+                    buffer.putDouble(length);
+                }
+            }
+
+            if (graph.ids != null) {
+                Charset utf8 = Charset.forName("UTF-8");
+
+                for (String id : graph.ids) {
+                    byte[] bytes = id.getBytes(utf8);
+
+                    if (buffer.remaining() < 4 + bytes.length) {
+                        flush(channel, buffer);
+                    }
+
+                    if (buffer.remaining() < 4 + bytes.length) {
+                        throw new IOException("identifier too long: " + id.substring(0, 32));
+                    }
+
+                    buffer.putInt(bytes.length).put(bytes);
+                }
+            }
+
+            flush(channel, buffer);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Write an array of integers through a buffer.
+     */
+    protected static void writeInts(FileChannel channel, ByteBuffer buffer, int[] values) throws IOException {
+        for (int offset = 0; offset < values.length; ) {
+            if (buffer.remaining() < 4) {
+                flush(channel, buffer);
+            }
+
+            int count = Math.min(values.length - offset, buffer.remaining() / 4);
+
+            buffer.asIntBuffer().put(values, offset, count);
+            buffer.position(buffer.position() + count * 4);
+            offset += count;
+        }
+    }
+
+    /**
+     * Write the content of a buffer and clear it.
+     */
+    protected static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+
+    /**
+     * Read a binary cache.
+     *
+     * @param channel The file.
+     */
+    protected static CsrGraph readCache(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+
+        while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+        }
+
+        int flags = header.getInt(4);
+        int n = header.getInt(8);
+        int arcs = header.getInt(12);
+        int m = header.getInt(16);
+
+        if (n < 0 || arcs < 0 || m < 0) {
+            throw new IOException("corrupted cache header");
+        }
+
+        long position = HEADER;
+        int[] offsets = new int[n + 1];
+        int[] neighbors = new int[arcs];
+        int[] edges = (flags & EDGES) != 0 ? new int[arcs] : null;
+        int[] labels = (flags & LABELS) != 0 ? new int[n] : null;
+        double[] lengths = (flags & LENGTHS) != 0 ? new double[arcs] : null;
+        String[] ids = (flags & IDS) != 0 ? new String[n] : null;
+
+        position = readInts(channel, position, offsets);
+        position = readInts(channel, position, neighbors);
+
+        if (edges != null) {
+            position = readInts(channel, position, edges);
+        }
+
+        if (labels != null) {
+            position = readInts(channel, position, labels);
+        }
+
+        if (lengths != null) {
+            for (int offset = 0; offset < arcs; ) {
+                int count = Math.min(arcs - offset, WINDOW / 8);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, count * 8L);
+
+                buffer.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(lengths, offset, count);
+                position += count * 8L;
+                offset += count;
+            }
+        }
+
+        if (ids != null) {
+            readIds(channel, position, ids);
+        }
+
+        return new CsrGraph(offsets, neighbors, lengths, edges, m, ids, labels);
+    }
+
+    /**
+     * Read the identifiers section of a binary cache, mapping it by windows.
+     *
+     * @param channel  The file.
+     * @param position Position of the section.
+     * @param ids      Array receiving the identifiers.
+     */
+    protected static void readIds(FileChannel channel, long position, String[] ids) throws IOException {
+        MappedByteBuffer buffer = null;
+        Charset utf8 = Charset.forName("UTF-8");
+
+        for (int i = 0; i < ids.length; i++) {
+            if (buffer == null || buffer.remaining() < 4 || buffer.remaining() < 4 + buffer.getInt(buffer.position())) {
+                position += buffer != null ? buffer.position() : 0;
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW, channel.size() - position));
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+            }
+
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            ids[i] = new String(bytes, utf8);
+        }
+    }
+
+    /**
+     * Read an array of integers from a file, mapping it by windows.
+     *
+     * @return The position following the array.
+     */
+    protected static long readInts(FileChannel channel, long position, int[] values) throws IOException {
+        for (int offset = 0; offset < values.length; ) {
+            int count = Math.min(values.length - offset, WINDOW / 4);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, count * 4L);
+
+            buffer.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(values, offset, count);
+            position += count * 4L;
+            offset += count;
+        }
+
+        return position;
+    }
+}
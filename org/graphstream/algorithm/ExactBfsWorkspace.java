@@ -0,0 +1,175 @@
+package org.graphstream.algorithm;
+
+import java.util.*;
+
+/**
+ * Workspace running one breadth-first search per source with exact counts.
+ *
+ * This is the traversal of {@link BfsWorkspace}, with sigma, delta and the
+ * centrality held in {@link WideCounts} instead of doubles : counts stay in
+ * longs while they fit and only the nodes whose counts overflow are promoted
+ * to arbitrary precision. The centrality accumulated is twice the stress, so
+ * that it stays an integer.
+ */
+class ExactBfsWorkspace {
+
+    /**
+     * The engine owning the indexed graph.
+     */
+    protected final StressEngine engine;
+
+    /**
+     * The distance value.
+     */
+    protected final int[] dist;
+
+    /**
+     * The sigma value.
+     */
+    protected final WideCounts sigma;
+
+    /**
+     * The delta value.
+     */
+    protected final WideCounts delta;
+
+    /**
+     * Nodes reached by the current traversal, in visit order.
+     */
+    protected final int[] order;
+
+    /**
+     * Number of nodes reached by the current traversal.
+     */
+    protected int visited;
+
+    /**
+     * New workspace sized for the graph indexed by the given engine.
+     *
+     * @param engine The engine owning the indexed graph.
+     */
+    ExactBfsWorkspace(StressEngine engine) {
+        int n = engine.getNodeCount();
+
+        this.engine = engine;
+        this.dist = new int[n];
+        this.sigma = new WideCounts(n);
+        this.delta = new WideCounts(n);
+        this.order = new int[n];
+
+        Arrays.fill(dist, StressWorkspace.UNREACHED);
+    }
+
+    /**
+     * Add the contribution of a range of sources to a centrality array.
+     *
+     * @param from       Index of the first source.
+     * @param to         Index following the last source.
+     * @param centrality Twice the centrality to update, by node index.
+     */
+    void computeSources(int from, int to, WideCounts centrality) {
+        for (int s = from; s < to; s++) {
+            computeSource(s, centrality);
+        }
+    }
+
+    /**
+     * Add the contribution of the given source to a centrality array.
+     *
+     * @param s          Index of the source node.
+     * @param centrality Twice the centrality to update, by node index.
+     */
+    void computeSource(int s, WideCounts centrality) {
+        /*
+         * INITIALIZATION
+         */
+        initialization(s);
+
+        /*
+         * ACCUMULATION
+         */
+        int[] offsets = engine.offsets;
+        int[] neighbors = engine.neighbors;
+
+        for (int i = visited - 1; i >= 0; i--) {
+            int v = order[i];
+            int next = dist[v] + 1;
+
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                int w = neighbors[k];
+
+                if (dist[w] == next) {
+                    delta.add(v, 1);
+                    delta.add(v, delta, w);
+                }
+            }
+
+            if (v != s) {
+                centrality.addProduct(v, sigma, v, delta, v);
+            }
+        }
+
+        reset();
+    }
+
+    /**
+     * Compute single-source multiple-targets shortest paths, up to the
+     * maximum distance of the engine. Reached nodes are stored in
+     * {@link #order}, in visit order.
+     *
+     * @param source Index of the source node.
+     */
+    protected void initialization(int source) {
+        int[] offsets = engine.offsets;
+        int[] neighbors = engine.neighbors;
+        int limit = engine.maxHops;
+
+        dist[source] = 0;
+        sigma.set(source, 1);
+        order[0] = source;
+        visited = 1;
+
+        for (int head = 0; head < visited; head++) {
+            int v = order[head];
+
+            if (dist[v] == limit) {
+                break;
+            }
+            int next = dist[v] + 1;
+
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                int w = neighbors[k];
+
+                /*
+                 * Path discovery
+                 */
+                if (dist[w] == StressWorkspace.UNREACHED) {
+                    dist[w] = next;
+                    order[visited++] = w;
+                }
+
+                /*
+                 * Path counting
+                 */
+                if (dist[w] == next) {
+                    sigma.add(w, sigma, v);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reset the distance, sigma and delta of the nodes reached by the last
+     * traversal.
+     */
+    protected void reset() {
+        for (int i = 0; i < visited; i++) {
+            int v = order[i];
+            dist[v] = StressWorkspace.UNREACHED;
+            sigma.set(v, 0);
+            delta.set(v, 0);
+        }
+
+        visited = 0;
+    }
+}
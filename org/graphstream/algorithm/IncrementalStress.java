@@ -0,0 +1,406 @@
+package org.graphstream.algorithm;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+
+import java.util.*;
+
+/**
+ * Stress centrality maintained across modifications of a graph.
+ *
+ * The structure keeps its own copy of the graph, indexed like a
+ * {@link StressEngine}, together with the centrality computed on it. Changes
+ * received from graph events are buffered and applied by {@link #update()}.
+ *
+ * A source s is only affected by a batch of edge changes if one of them is,
+ * in the graph before the batch, an edge of the shortest-path DAG of s or
+ * would become one. For an undirected edge (u, v) this means that u and v are
+ * at different distances from s, for a directed edge u -> v that u is
+ * reachable and v is not closer than u. The distances of every source to u
+ * and v are given by two backward breadth-first searches from u and v. Only
+ * affected sources are recomputed : their contribution is removed on the old
+ * graph, the changes are applied, and their contribution is added on the new
+ * graph.
+ *
+ * Removed nodes leave an isolated slot in the index, reused by the next added
+ * node, so indices of the other nodes never change.
+ */
+class IncrementalStress {
+
+    /**
+     * Identifier of each node, by index, null for free slots.
+     */
+    protected final List<String> ids = new ArrayList<String>();
+
+    /**
+     * Index of each node, by identifier.
+     */
+    protected final Map<String, Integer> index = new HashMap<String, Integer>();
+
+    /**
+     * Free slots of the index.
+     */
+    protected final Deque<Integer> free = new ArrayDeque<Integer>();
+
+    /**
+     * Endpoints of each edge, by identifier, as {source, target, directed}.
+     */
+    protected final Map<String, int[]> edges = new HashMap<String, int[]>();
+
+    /**
+     * Leaving neighbours of each node.
+     */
+    protected int[][] out;
+
+    /**
+     * Entering neighbours of each node.
+     */
+    protected int[][] in;
+
+    /**
+     * The centrality of each node.
+     */
+    protected double[] centrality;
+
+    /**
+     * Buffered edge changes, as {source, target, directed, added}.
+     */
+    protected final List<int[]> changes = new ArrayList<int[]>();
+
+    /**
+     * Nodes removed since the last update, their slot is freed once their
+     * edges are removed.
+     */
+    protected final List<Integer> removed = new ArrayList<Integer>();
+
+    /**
+     * Fraction of the sources above which the centrality is recomputed from
+     * scratch.
+     */
+    protected double threshold;
+
+    /**
+     * New structure from a graph and the centrality computed on it.
+     *
+     * @param graph      The graph.
+     * @param centrality The centrality of each node, by index.
+     * @param threshold  Fraction of affected sources above which updating is
+     *                   abandoned for a full computation.
+     */
+    IncrementalStress(Graph graph, double[] centrality, double threshold) {
+        int n = graph.getNodeCount();
+        int[] outDegree = new int[n];
+        int[] inDegree = new int[n];
+
+        this.threshold = threshold;
+        this.centrality = Arrays.copyOf(centrality, n);
+
+        for (int i = 0; i < n; i++) {
+            String id = graph.getNode(i).getId();
+            ids.add(id);
+            index.put(id, i);
+        }
+
+        for (Edge e : graph.getEachEdge()) {
+            int u = e.getSourceNode().getIndex();
+            int v = e.getTargetNode().getIndex();
+
+            edges.put(e.getId(), new int[]{u, v, e.isDirected() ? 1 : 0});
+            outDegree[u]++;
+            inDegree[v]++;
+
+            if (!e.isDirected() && u != v) {
+                outDegree[v]++;
+                inDegree[u]++;
+            }
+        }
+
+        this.out = new int[n][];
+        this.in = new int[n][];
+
+        for (int i = 0; i < n; i++) {
+            out[i] = new int[outDegree[i]];
+            in[i] = new int[inDegree[i]];
+            outDegree[i] = 0;
+            inDegree[i] = 0;
+        }
+
+        for (int[] e : edges.values()) {
+            out[e[0]][outDegree[e[0]]++] = e[1];
+            in[e[1]][inDegree[e[1]]++] = e[0];
+
+            if (e[2] == 0 && e[0] != e[1]) {
+                out[e[1]][outDegree[e[1]]++] = e[0];
+                in[e[0]][inDegree[e[0]]++] = e[1];
+            }
+        }
+    }
+
+    /**
+     * Number of slots of the index.
+     */
+    int size() {
+        return out.length;
+    }
+
+    /**
+     * Identifier of the node of a slot, null if free.
+     *
+     * @param i The slot.
+     */
+    String getId(int i) {
+        return ids.get(i);
+    }
+
+    /**
+     * Are there buffered changes?
+     */
+    boolean hasChanges() {
+        return !changes.isEmpty() || !removed.isEmpty();
+    }
+
+    /**
+     * Register a new node. It is isolated, so it changes no shortest path and
+     * is added immediately.
+     *
+     * @param id Identifier of the node.
+     */
+    void nodeAdded(String id) {
+        Integer slot = free.poll();
+
+        if (slot == null) {
+            slot = out.length;
+            out = Arrays.copyOf(out, slot + 1);
+            in = Arrays.copyOf(in, slot + 1);
+            centrality = Arrays.copyOf(centrality, slot + 1);
+            out[slot] = new int[0];
+            in[slot] = new int[0];
+            ids.add(id);
+        } else {
+            ids.set(slot, id);
+        }
+
+        index.put(id, slot);
+    }
+
+    /**
+     * Register the removal of a node. Its edges have been removed before.
+     *
+     * @param id Identifier of the node.
+     */
+    void nodeRemoved(String id) {
+        Integer slot = index.remove(id);
+
+        if (slot != null) {
+            removed.add(slot);
+        }
+    }
+
+    /**
+     * Buffer the addition of an edge.
+     *
+     * @param id       Identifier of the edge.
+     * @param from     Identifier of the source node.
+     * @param to       Identifier of the target node.
+     * @param directed Is the edge directed?
+     */
+    void edgeAdded(String id, String from, String to, boolean directed) {
+        int[] e = {index.get(from), index.get(to), directed ? 1 : 0};
+
+        edges.put(id, e);
+        changes.add(new int[]{e[0], e[1], e[2], 1});
+    }
+
+    /**
+     * Buffer the removal of an edge.
+     *
+     * @param id Identifier of the edge.
+     */
+    void edgeRemoved(String id) {
+        int[] e = edges.remove(id);
+
+        if (e != null) {
+            changes.add(new int[]{e[0], e[1], e[2], 0});
+        }
+    }
+
+    /**
+     * Apply the buffered changes, updating the centrality of the affected
+     * sources.
+     *
+     * @return False if too many sources are affected : the changes are then
+     * applied to the graph copy but the centrality is not updated and must be
+     * recomputed from scratch.
+     */
+    boolean update() {
+        int n = out.length;
+        int live = index.size();
+        boolean incremental = changes.size() * 2 < threshold * live;
+        boolean[] affected = new boolean[n];
+        int count = 0;
+
+        if (incremental) {
+            BfsWorkspace backward = new BfsWorkspace(new StressEngine(in));
+            int[] du = new int[n];
+            int[] dv = new int[n];
+
+            for (int[] change : changes) {
+                if (!incremental) {
+                    break;
+                }
+
+                backward.distances(change[0], du);
+                backward.distances(change[1], dv);
+
+                for (int s = 0; s < n && incremental; s++) {
+                    if (!affected[s] && isAffected(du[s], dv[s], change[2] == 1)) {
+                        affected[s] = true;
+                        incremental = ++count <= threshold * live;
+                    }
+                }
+            }
+        }
+
+        double[] before = null;
+        StressEngine engine = null;
+
+        if (incremental) {
+            engine = new StressEngine(out);
+            before = new double[n];
+
+            for (int s = 0; s < n; s++) {
+                if (affected[s]) {
+                    engine.computeSource(s, before);
+                }
+            }
+        }
+
+        for (int[] change : changes) {
+            if (change[3] == 1) {
+                link(change[0], change[1], change[2] == 1);
+            } else {
+                unlink(change[0], change[1], change[2] == 1);
+            }
+        }
+
+        for (int slot : removed) {
+            ids.set(slot, null);
+            free.add(slot);
+            centrality[slot] = 0.0;
+        }
+
+        changes.clear();
+        removed.clear();
+
+        if (incremental) {
+            double[] after = new double[n];
+
+            engine = new StressEngine(out);
+
+            for (int s = 0; s < n; s++) {
+                if (affected[s]) {
+                    engine.computeSource(s, after);
+                }
+            }
+
+            for (int i = 0; i < n; i++) {
+                if (ids.get(i) != null) {
+                    centrality[i] += after[i] - before[i];
+                }
+            }
+        }
+
+        return incremental;
+    }
+
+    /**
+     * Could a change of an edge modify the shortest-path DAG of a source?
+     *
+     * @param du       Distance from the source to the first endpoint.
+     * @param dv       Distance from the source to the second endpoint.
+     * @param directed Is the edge directed from the first endpoint?
+     */
+    protected static boolean isAffected(int du, int dv, boolean directed) {
+        if (directed) {
+            return du != StressWorkspace.UNREACHED && (dv == StressWorkspace.UNREACHED || dv > du);
+        }
+
+        return du != dv;
+    }
+
+    /**
+     * Add an edge to the graph copy.
+     */
+    protected void link(int u, int v, boolean directed) {
+        out[u] = append(out[u], v);
+        in[v] = append(in[v], u);
+
+        if (!directed && u != v) {
+            out[v] = append(out[v], u);
+            in[u] = append(in[u], v);
+        }
+    }
+
+    /**
+     * Remove an edge from the graph copy.
+     */
+    protected void unlink(int u, int v, boolean directed) {
+        out[u] = remove(out[u], v);
+        in[v] = remove(in[v], u);
+
+        if (!directed && u != v) {
+            out[v] = remove(out[v], u);
+            in[u] = remove(in[u], v);
+        }
+    }
+
+    /**
+     * Copy of an array with a value appended.
+     */
+    protected static int[] append(int[] array, int value) {
+        int[] copy = Arrays.copyOf(array, array.length + 1);
+        copy[array.length] = value;
+
+        return copy;
+    }
+
+    /**
+     * Copy of an array without one occurrence of a value.
+     */
+    protected static int[] remove(int[] array, int value) {
+        for (int i = 0; i < array.length; i++) {
+            if (array[i] == value) {
+                int[] copy = Arrays.copyOf(array, array.length - 1);
+
+                if (i < copy.length) {
+                    copy[i] = array[array.length - 1];
+                }
+
+                return copy;
+            }
+        }
+
+        return array;
+    }
+
+    /**
+     * Write the centrality of every node as an attribute of the graph.
+     *
+     * @param graph     The graph.
+     * @param attribute Name of the attribute.
+     */
+    void store(Graph graph, String attribute) {
+        for (int i = 0; i < ids.size(); i++) {
+            String id = ids.get(i);
+
+            if (id != null) {
+                Node node = graph.getNode(id);
+
+                if (node != null) {
+                    node.setAttribute(attribute, centrality[i]);
+                }
+            }
+        }
+    }
+}
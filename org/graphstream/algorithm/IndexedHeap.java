@@ -0,0 +1,122 @@
+package org.graphstream.algorithm;
+
+/**
+ * Binary min-heap of node indices keyed by a distance array.
+ *
+ * The position of each node in the heap is stored, so lowering the distance
+ * of a node moves it in place instead of adding a second, stale, entry.
+ * Nothing is allocated after construction.
+ */
+class IndexedHeap implements NodeQueue {
+
+    /**
+     * Distance of each node, by index.
+     */
+    protected final double[] keys;
+
+    /**
+     * The heap of node indices.
+     */
+    protected final int[] heap;
+
+    /**
+     * Position of each node in the heap.
+     */
+    protected final int[] position;
+
+    /**
+     * Number of nodes in the heap.
+     */
+    protected int size;
+
+    /**
+     * New empty heap.
+     *
+     * @param keys Distance of each node, by index.
+     */
+    IndexedHeap(double[] keys) {
+        this.keys = keys;
+        this.heap = new int[keys.length];
+        this.position = new int[keys.length];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void add(int v) {
+        heap[size] = v;
+        position[v] = size;
+        siftUp(size++);
+    }
+
+    public void decrease(int v) {
+        siftUp(position[v]);
+    }
+
+    public int poll() {
+        int top = heap[0];
+
+        if (--size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            position[last] = 0;
+            siftDown(0);
+        }
+
+        return top;
+    }
+
+    /**
+     * Move the node at the given position up to its place.
+     */
+    protected void siftUp(int i) {
+        int v = heap[i];
+        double key = keys[v];
+
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            int p = heap[parent];
+
+            if (keys[p] <= key) {
+                break;
+            }
+
+            heap[i] = p;
+            position[p] = i;
+            i = parent;
+        }
+
+        heap[i] = v;
+        position[v] = i;
+    }
+
+    /**
+     * Move the node at the given position down to its place.
+     */
+    protected void siftDown(int i) {
+        int v = heap[i];
+        double key = keys[v];
+        int half = size >>> 1;
+
+        while (i < half) {
+            int child = 2 * i + 1;
+            int c = heap[child];
+
+            if (child + 1 < size && keys[heap[child + 1]] < keys[c]) {
+                c = heap[++child];
+            }
+
+            if (key <= keys[c]) {
+                break;
+            }
+
+            heap[i] = c;
+            position[c] = i;
+            i = child;
+        }
+
+        heap[i] = v;
+        position[v] = i;
+    }
+}
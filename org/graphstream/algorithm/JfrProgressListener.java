@@ -0,0 +1,88 @@
+package org.graphstream.algorithm;
+
+import jdk.jfr.*;
+
+import java.util.*;
+
+/**
+ * Listener emitting Java Flight Recorder events, so that the progress of a
+ * computation shows up in a recording next to the garbage collections and
+ * the allocations it causes. Each report commits a
+ * {@link ProgressEvent}, then a {@link WorkerEvent} per worker thread.
+ * Events are only built when they are enabled in the recording, like with
+ * the default settings.
+ */
+public class JfrProgressListener implements StressListener {
+
+    /**
+     * Progress of a computation.
+     */
+    @Name("org.graphstream.StressProgress")
+    @Label("Stress Progress")
+    @Category({"GraphStream", "Stress Centrality"})
+    @Description("Progress of a stress centrality computation")
+    @StackTrace(false)
+    public static class ProgressEvent extends Event {
+        @Label("Processed Sources")
+        long processedSources;
+
+        @Label("Total Sources")
+        long totalSources;
+
+        @Label("Sources per Second")
+        double sourcesPerSecond;
+
+        @Label("Traversed Arcs")
+        long traversedArcs;
+
+        @Label("Remaining Time")
+        @Timespan(Timespan.MILLISECONDS)
+        long remainingTime;
+
+        @Label("Finished")
+        boolean finished;
+    }
+
+    /**
+     * Utilization of a worker thread of a computation.
+     */
+    @Name("org.graphstream.StressWorker")
+    @Label("Stress Worker")
+    @Category({"GraphStream", "Stress Centrality"})
+    @Description("Share of the time a worker thread spent processing sources")
+    @StackTrace(false)
+    public static class WorkerEvent extends Event {
+        @Label("Worker")
+        String worker;
+
+        @Label("Utilization")
+        @Percentage
+        double utilization;
+    }
+
+    public void progress(StressProgress progress) {
+        ProgressEvent event = new ProgressEvent();
+
+        if (event.isEnabled()) {
+            event.processedSources = progress.getProcessedSources();
+            event.totalSources = progress.getTotalSources();
+            event.sourcesPerSecond = progress.getSourcesPerSecond();
+            event.traversedArcs = progress.getTraversedArcs();
+            event.remainingTime = progress.getRemainingTime();
+            event.finished = progress.isFinished();
+            event.commit();
+        }
+
+        for (Map.Entry<String, Double> entry : progress.getWorkerUtilization().entrySet()) {
+            WorkerEvent worker = new WorkerEvent();
+
+            if (!worker.isEnabled()) {
+                break;
+            }
+
+            worker.worker = entry.getKey();
+            worker.utilization = entry.getValue();
+            worker.commit();
+        }
+    }
+}
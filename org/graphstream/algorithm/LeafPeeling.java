@@ -0,0 +1,367 @@
+package org.graphstream.algorithm;
+
+import java.util.*;
+
+/**
+ * Reduction of an undirected graph by repeated removal of its leaves, and
+ * contraction of its chains.
+ *
+ * Nodes of degree 1 are removed, then the nodes this leaves with degree 1,
+ * and so on, so that every tree hanging from the rest of the graph is cut
+ * down to its root. The remaining nodes form the core, where each root stands
+ * for itself and the nodes of its trees. Paths between nodes of trees are
+ * unique up to their root, so the stress of every node of the original graph
+ * derives from a computation on the core alone, with one traversal per core
+ * node instead of one per node :
+ *
+ * <ul>
+ * <li>a core node v gets its stress on the core, where a path between two
+ * roots counts for all the pairs of their trees, plus (w(v) - 1) S(v) for the
+ * paths from its tree to the rest of the graph, plus the pairs of its tree
+ * joined through it;</li>
+ * <li>a tree node u of root r, with s nodes below it, gets
+ * s (S(r) + w(r) - 1 - s) plus the pairs of its subtree joined through
+ * it,</li>
+ * </ul>
+ *
+ * where w(r) is the number of nodes of the tree of r, r included, and S(r)
+ * the number of shortest paths from r to the nodes of the other trees. Both
+ * are computed by a {@link StressEngine} with multiplicities.
+ *
+ * Chains of the core, paths of at least {@link #MIN_CHAIN} nodes of degree 2
+ * between two other nodes, are then contracted : the shortest paths from a
+ * node of a chain leave it through one of its ends depending on the distances
+ * from both ends, so a whole chain is processed with one traversal from each
+ * end instead of one per node, see {@link ChainBfsWorkspace}. A cycle of the
+ * core without any other node is a chain whose ends are the same node.
+ */
+class LeafPeeling implements StressReduction {
+
+    /**
+     * Number of nodes of the shortest chain contracted. Shorter chains would
+     * not save any traversal.
+     */
+    static final int MIN_CHAIN = 3;
+
+    /**
+     * The original graph.
+     */
+    protected final CsrGraph graph;
+
+    /**
+     * Number of nodes of the original graph.
+     */
+    protected final int n;
+
+    /**
+     * Index of each node in the core, or -1 for removed nodes.
+     */
+    protected final int[] coreIndex;
+
+    /**
+     * Original index of each core node, nodes outside of chains first, then
+     * the nodes of each chain in path order.
+     */
+    protected final int[] coreNodes;
+
+    /**
+     * Core index of the first node of each chain, then the number of core
+     * nodes.
+     */
+    protected final int[] chainStarts;
+
+    /**
+     * Core index of the two ends of each chain.
+     */
+    protected final int[] chainEnds;
+
+    /**
+     * Node each removed node was attached to when removed, or -1.
+     */
+    protected final int[] parent;
+
+    /**
+     * Core node whose tree holds each node.
+     */
+    protected final int[] root;
+
+    /**
+     * Number of nodes of the subtree of each node, the node included.
+     */
+    protected final int[] size;
+
+    /**
+     * Number of pairs of nodes of the subtree of each node whose path goes
+     * through it.
+     */
+    protected final double[] pairs;
+
+    /**
+     * Reduce the given undirected snapshot.
+     *
+     * @param graph A symmetric snapshot, see {@link CsrGraph#isSymmetric()}.
+     */
+    LeafPeeling(CsrGraph graph) {
+        this.graph = graph;
+        this.n = graph.getNodeCount();
+        this.parent = new int[n];
+        this.root = new int[n];
+        this.size = new int[n];
+        this.pairs = new double[n];
+
+        int[] degree = new int[n];
+        int[] queue = new int[n];
+        // Removed nodes, in removal order
+        int[] order = new int[n];
+        int tail = 0;
+        int count = 0;
+
+        Arrays.fill(parent, -1);
+
+        for (int v = 0; v < n; v++) {
+            degree[v] = graph.getDegree(v);
+            size[v] = 1;
+
+            if (degree[v] == 1) {
+                queue[tail++] = v;
+            }
+        }
+
+        /*
+         * PEELING
+         */
+        for (int head = 0; head < tail; head++) {
+            int x = queue[head];
+
+            if (degree[x] != 1) {
+                continue;
+            }
+
+            int p = -1;
+
+            for (int k = 0, d = graph.getDegree(x); k < d && p < 0; k++) {
+                int w = graph.getNeighbor(x, k);
+
+                if (w != x && parent[w] < 0 && degree[w] > 0) {
+                    p = w;
+                }
+            }
+
+            if (p < 0) {
+                continue;
+            }
+
+            parent[x] = p;
+            degree[x] = 0;
+            order[count++] = x;
+            pairs[p] += (double) (size[p] - 1) * size[x];
+            size[p] += size[x];
+
+            if (--degree[p] == 1) {
+                queue[tail++] = p;
+            }
+        }
+
+        for (int v = 0; v < n; v++) {
+            if (parent[v] < 0) {
+                root[v] = v;
+            }
+        }
+
+        for (int i = count - 1; i >= 0; i--) {
+            root[order[i]] = root[parent[order[i]]];
+        }
+
+        /*
+         * CHAINS
+         */
+        // The two core neighbours of each node that may belong to a chain
+        int[] links = new int[2 * n];
+        // 1 for the nodes of chains, 2 for the nodes of chains too short
+        int[] state = new int[n];
+        int[] chainNodes = new int[n];
+        int[] starts = new int[n + 1];
+        int[] ends = new int[2 * n];
+        int chains = 0;
+        int linked = 0;
+
+        Arrays.fill(links, -1);
+
+        for (int v = 0; v < n; v++) {
+            if (parent[v] < 0) {
+                int neighbors = 0;
+                boolean simple = true;
+
+                for (int k = 0, d = graph.getDegree(v); k < d && simple; k++) {
+                    int w = graph.getNeighbor(v, k);
+
+                    if (parent[w] < 0) {
+                        simple = w != v && neighbors < 2;
+
+                        if (simple) {
+                            links[2 * v + neighbors++] = w;
+                        }
+                    }
+                }
+
+                if (!simple || neighbors != 2 || links[2 * v] == links[2 * v + 1]) {
+                    links[2 * v] = links[2 * v + 1] = -1;
+                }
+            }
+        }
+
+        for (int pass = 0; pass < 2; pass++) {
+            for (int x = 0; x < n; x++) {
+                if (parent[x] >= 0 || (pass == 0 ? links[2 * x] >= 0 : links[2 * x] < 0 || state[x] != 0)) {
+                    continue;
+                }
+
+                // Left in the second pass, a cycle of nodes of degree 2 ends at x
+                links[2 * x] = links[2 * x + 1] = -1;
+
+                for (int k = 0, d = graph.getDegree(x); k < d; k++) {
+                    int y = graph.getNeighbor(x, k);
+
+                    if (parent[y] >= 0 || links[2 * y] < 0 || state[y] != 0) {
+                        continue;
+                    }
+
+                    int start = linked;
+                    int previous = x;
+
+                    while (links[2 * y] >= 0) {
+                        int next = links[2 * y] != previous ? links[2 * y] : links[2 * y + 1];
+
+                        chainNodes[linked++] = y;
+                        previous = y;
+                        y = next;
+                    }
+
+                    boolean kept = linked - start >= MIN_CHAIN;
+
+                    for (int i = start; i < linked; i++) {
+                        state[chainNodes[i]] = kept ? 1 : 2;
+                    }
+
+                    if (kept) {
+                        starts[chains] = start;
+                        ends[2 * chains] = x;
+                        ends[2 * chains + 1] = y;
+                        chains++;
+                    } else {
+                        linked = start;
+                    }
+                }
+            }
+        }
+
+        this.coreIndex = new int[n];
+        this.coreNodes = new int[n - count];
+        this.chainStarts = new int[chains + 1];
+        this.chainEnds = new int[2 * chains];
+
+        int others = coreNodes.length - linked;
+
+        for (int v = 0, c = 0; v < n; v++) {
+            coreIndex[v] = -1;
+
+            if (parent[v] < 0 && state[v] != 1) {
+                coreIndex[v] = c;
+                coreNodes[c++] = v;
+            }
+        }
+
+        for (int i = 0; i < linked; i++) {
+            coreIndex[chainNodes[i]] = others + i;
+            coreNodes[others + i] = chainNodes[i];
+        }
+
+        for (int c = 0; c < chains; c++) {
+            chainStarts[c] = others + starts[c];
+            chainEnds[2 * c] = coreIndex[ends[2 * c]];
+            chainEnds[2 * c + 1] = coreIndex[ends[2 * c + 1]];
+        }
+
+        chainStarts[chains] = coreNodes.length;
+    }
+
+    /**
+     * Number of traversals on the core, one per node outside of chains and
+     * two per chain.
+     */
+    public int getReducedSize() {
+        int chains = chainEnds.length / 2;
+
+        return chainStarts[0] + 2 * chains;
+    }
+
+    /**
+     * A new engine on the core, each core node standing for the nodes of its
+     * tree, and each chain processed as a whole.
+     */
+    public StressEngine newReducedEngine() {
+        int c = coreNodes.length;
+        int[] offsets = new int[c + 1];
+
+        for (int i = 0; i < c; i++) {
+            int v = coreNodes[i];
+            int arcs = 0;
+
+            for (int k = 0, d = graph.getDegree(v); k < d; k++) {
+                if (coreIndex[graph.getNeighbor(v, k)] >= 0) {
+                    arcs++;
+                }
+            }
+
+            offsets[i + 1] = offsets[i] + arcs;
+        }
+
+        int[] neighbors = new int[offsets[c]];
+        double[] multiplicities = new double[c];
+
+        for (int i = 0; i < c; i++) {
+            int v = coreNodes[i];
+            int a = offsets[i];
+
+            for (int k = 0, d = graph.getDegree(v); k < d; k++) {
+                int w = coreIndex[graph.getNeighbor(v, k)];
+
+                if (w >= 0) {
+                    neighbors[a++] = w;
+                }
+            }
+
+            multiplicities[i] = size[v];
+        }
+
+        StressEngine engine = new StressEngine(new CsrGraph(offsets, neighbors, null, null, 0, (String[]) null),
+                false);
+        engine.setMultiplicities(multiplicities);
+
+        if (chainEnds.length > 0) {
+            engine.setChains(chainStarts, chainEnds);
+        }
+
+        return engine;
+    }
+
+    public double[] expand(StressEngine engine) {
+        double[] coreCentrality = engine.getCentrality();
+        double[] paths = engine.getPaths();
+        double[] centrality = new double[n];
+
+        for (int v = 0; v < n; v++) {
+            int r = root[v];
+            double reach = paths[coreIndex[r]];
+
+            if (v == r) {
+                centrality[v] = coreCentrality[coreIndex[v]] + (size[v] - 1) * reach + pairs[v];
+            } else {
+                double below = size[v] - 1;
+                centrality[v] = below * (reach + size[r] - 1 - below) + pairs[v];
+            }
+        }
+
+        return centrality;
+    }
+}
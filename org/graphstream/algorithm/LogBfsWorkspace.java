@@ -0,0 +1,203 @@
+package org.graphstream.algorithm;
+
+import java.util.*;
+
+/**
+ * Workspace running one breadth-first search per source with counts in log
+ * space.
+ *
+ * This is the traversal of {@link BfsWorkspace}, holding the natural
+ * logarithm of sigma, delta and the centrality instead of their values, so
+ * that counts far beyond the range of doubles keep a relative precision close
+ * to the one of a double. Sums are computed with {@link #logAdd(double, double)}
+ * and the logarithm of zero is negative infinity.
+ */
+class LogBfsWorkspace {
+
+    /**
+     * Logarithm of 2.
+     */
+    static final double LOG_2 = Math.log(2.0);
+
+    /**
+     * The engine owning the indexed graph.
+     */
+    protected final StressEngine engine;
+
+    /**
+     * The distance value.
+     */
+    protected final int[] dist;
+
+    /**
+     * Logarithm of the sigma value.
+     */
+    protected final double[] logSigma;
+
+    /**
+     * Logarithm of the delta value.
+     */
+    protected final double[] logDelta;
+
+    /**
+     * Nodes reached by the current traversal, in visit order.
+     */
+    protected final int[] order;
+
+    /**
+     * Number of nodes reached by the current traversal.
+     */
+    protected int visited;
+
+    /**
+     * New workspace sized for the graph indexed by the given engine.
+     *
+     * @param engine The engine owning the indexed graph.
+     */
+    LogBfsWorkspace(StressEngine engine) {
+        int n = engine.getNodeCount();
+
+        this.engine = engine;
+        this.dist = new int[n];
+        this.logSigma = new double[n];
+        this.logDelta = new double[n];
+        this.order = new int[n];
+
+        Arrays.fill(dist, StressWorkspace.UNREACHED);
+        Arrays.fill(logSigma, Double.NEGATIVE_INFINITY);
+        Arrays.fill(logDelta, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Logarithm of the sum of two values given by their logarithm.
+     *
+     * @param a Logarithm of the first value.
+     * @param b Logarithm of the second value.
+     */
+    static double logAdd(double a, double b) {
+        if (a < b) {
+            double t = a;
+            a = b;
+            b = t;
+        }
+
+        return b == Double.NEGATIVE_INFINITY ? a : a + Math.log1p(Math.exp(b - a));
+    }
+
+    /**
+     * Add the contribution of a range of sources to a centrality array.
+     *
+     * @param from          Index of the first source.
+     * @param to            Index following the last source.
+     * @param logCentrality Logarithm of the centrality to update, by node
+     *                      index.
+     */
+    void computeSources(int from, int to, double[] logCentrality) {
+        for (int s = from; s < to; s++) {
+            computeSource(s, logCentrality);
+        }
+    }
+
+    /**
+     * Add the contribution of the given source to a centrality array.
+     *
+     * @param s             Index of the source node.
+     * @param logCentrality Logarithm of the centrality to update, by node
+     *                      index.
+     */
+    void computeSource(int s, double[] logCentrality) {
+        /*
+         * INITIALIZATION
+         */
+        initialization(s);
+
+        /*
+         * ACCUMULATION
+         */
+        int[] offsets = engine.offsets;
+        int[] neighbors = engine.neighbors;
+
+        for (int i = visited - 1; i >= 0; i--) {
+            int v = order[i];
+            int next = dist[v] + 1;
+            double d = Double.NEGATIVE_INFINITY;
+
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                int w = neighbors[k];
+
+                if (dist[w] == next) {
+                    d = logAdd(d, logAdd(0.0, logDelta[w]));
+                }
+            }
+
+            logDelta[v] = d;
+
+            if (v != s && d != Double.NEGATIVE_INFINITY) {
+                logCentrality[v] = logAdd(logCentrality[v], logSigma[v] + d - LOG_2);
+            }
+        }
+
+        reset();
+    }
+
+    /**
+     * Compute single-source multiple-targets shortest paths, up to the
+     * maximum distance of the engine. Reached nodes are stored in
+     * {@link #order}, in visit order.
+     *
+     * @param source Index of the source node.
+     */
+    protected void initialization(int source) {
+        int[] offsets = engine.offsets;
+        int[] neighbors = engine.neighbors;
+        int limit = engine.maxHops;
+
+        dist[source] = 0;
+        logSigma[source] = 0.0;
+        order[0] = source;
+        visited = 1;
+
+        for (int head = 0; head < visited; head++) {
+            int v = order[head];
+
+            if (dist[v] == limit) {
+                break;
+            }
+            int next = dist[v] + 1;
+
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                int w = neighbors[k];
+
+                /*
+                 * Path discovery
+                 */
+                if (dist[w] == StressWorkspace.UNREACHED) {
+                    dist[w] = next;
+                    order[visited++] = w;
+                }
+
+                /*
+                 * Path counting
+                 */
+                if (dist[w] == next) {
+                    logSigma[w] = logAdd(logSigma[w], logSigma[v]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reset the distance, sigma and delta of the nodes reached by the last
+     * traversal.
+     */
+    protected void reset() {
+        for (int i = 0; i < visited; i++) {
+            int v = order[i];
+            dist[v] = StressWorkspace.UNREACHED;
+            logSigma[v] = Double.NEGATIVE_INFINITY;
+            logDelta[v] = Double.NEGATIVE_INFINITY;
+        }
+
+        visited = 0;
+    }
+}
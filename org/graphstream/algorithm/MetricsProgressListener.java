@@ -0,0 +1,160 @@
+package org.graphstream.algorithm;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Listener publishing the progress as gauges of a metrics registry, in the
+ * style of Micrometer : each gauge is registered once, with a name and tags,
+ * on a {@link Number} the listener updates at each report, and the registry
+ * reads it when it publishes. Binding to Micrometer is a single call, for
+ * instance {@code Gauge.builder(name, value, Number::doubleValue)} with the
+ * tags, registered on the meter registry. The gauges are, after the prefix :
+ *
+ * <ul>
+ * <li>".sources.processed" and ".sources.total", numbers of sources;</li>
+ * <li>".sources.rate", sources processed per second;</li>
+ * <li>".arcs.traversed", arcs scanned by the traversals;</li>
+ * <li>".remaining.seconds", estimated time left, -1 if unknown;</li>
+ * <li>".running", 1 while a computation runs, 0 once finished;</li>
+ * <li>".worker.utilization", tagged with the name of the thread under the
+ * "worker" key, share of the time it spent processing sources.</li>
+ * </ul>
+ *
+ * The same listener can be given to successive computations, the gauges then
+ * showing the last one.
+ */
+public class MetricsProgressListener implements StressListener {
+
+    /**
+     * Registry of gauges.
+     */
+    public interface Registry {
+        /**
+         * Register a gauge. It is called once per gauge, with the holder of
+         * its current value.
+         *
+         * @param name  Name of the gauge.
+         * @param tags  Tags of the gauge, by key.
+         * @param value Holder of the value, read when the gauge is published.
+         */
+        void gauge(String name, Map<String, String> tags, Number value);
+    }
+
+    /**
+     * Holder of the value of a gauge.
+     */
+    public static class Gauge extends Number {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The value.
+         */
+        protected volatile double value;
+
+        /**
+         * Set the value.
+         */
+        protected void set(double value) {
+            this.value = value;
+        }
+
+        public double doubleValue() {
+            return value;
+        }
+
+        public float floatValue() {
+            return (float) value;
+        }
+
+        public long longValue() {
+            return (long) value;
+        }
+
+        public int intValue() {
+            return (int) value;
+        }
+
+        @Override
+        public String toString() {
+            return Double.toString(value);
+        }
+    }
+
+    /**
+     * The registry.
+     */
+    protected final Registry registry;
+
+    /**
+     * Prefix of the names of the gauges.
+     */
+    protected final String prefix;
+
+    /**
+     * Gauges registered so far, by name and tag.
+     */
+    protected final ConcurrentMap<String, Gauge> gauges = new ConcurrentHashMap<String, Gauge>();
+
+    /**
+     * New listener registering gauges named "stress.*".
+     *
+     * @param registry The registry.
+     */
+    public MetricsProgressListener(Registry registry) {
+        this(registry, "stress");
+    }
+
+    /**
+     * New listener.
+     *
+     * @param registry The registry.
+     * @param prefix   Prefix of the names of the gauges.
+     */
+    public MetricsProgressListener(Registry registry, String prefix) {
+        this.registry = registry;
+        this.prefix = prefix;
+    }
+
+    public void progress(StressProgress progress) {
+        gauge(".sources.processed", null).set(progress.getProcessedSources());
+        gauge(".sources.total", null).set(progress.getTotalSources());
+        gauge(".sources.rate", null).set(progress.getSourcesPerSecond());
+        gauge(".arcs.traversed", null).set(progress.getTraversedArcs());
+
+        long remaining = progress.getRemainingTime();
+        gauge(".remaining.seconds", null).set(remaining >= 0 ? remaining / 1000.0 : -1);
+        gauge(".running", null).set(progress.isFinished() ? 0 : 1);
+
+        for (Map.Entry<String, Double> entry : progress.getWorkerUtilization().entrySet()) {
+            gauge(".worker.utilization", entry.getKey()).set(entry.getValue());
+        }
+    }
+
+    /**
+     * The value of a gauge, registered on first use.
+     *
+     * @param suffix Name of the gauge, after the prefix.
+     * @param worker Name of the worker thread tagging the gauge, or null.
+     */
+    protected Gauge gauge(String suffix, String worker) {
+        String key = worker != null ? suffix + '\u0000' + worker : suffix;
+        Gauge gauge = gauges.get(key);
+
+        if (gauge == null) {
+            gauge = new Gauge();
+
+            if (gauges.putIfAbsent(key, gauge) == null) {
+                Map<String, String> tags = worker != null ? Collections.singletonMap("worker", worker)
+                        : Collections.<String, String>emptyMap();
+                registry.gauge(prefix + suffix, tags, gauge);
+            } else {
+                gauge = gauges.get(key);
+            }
+        }
+
+        return gauge;
+    }
+}
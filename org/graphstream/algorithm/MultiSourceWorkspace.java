@@ -0,0 +1,314 @@
+package org.graphstream.algorithm;
+
+import java.util.*;
+
+/**
+ * Workspace running bit-parallel multi-source breadth-first searches.
+ *
+ * Up to {@link #LANES} sources are processed together, each one owning a bit
+ * (a lane) of a {@code long} mask. All the searches of a batch advance level
+ * by level at the same time, so each adjacency list is scanned once per level
+ * for every source reaching the node at that level instead of once per
+ * source. This is the MS-BFS scheme of Then et al., "The More the Merrier:
+ * Efficient Multi-Source Graph Traversal", 2014.
+ *
+ * The levels of the searches are recorded as (node, lanes) entries : the node
+ * is at that level for the sources of the lanes. Sigma and delta are kept per
+ * node and per lane, accumulation walks the levels backwards and pulls delta
+ * from the neighbours at the next level for the same lanes.
+ */
+class MultiSourceWorkspace extends StressWorkspace {
+
+    /**
+     * Maximum number of sources of a batch.
+     */
+    static final int LANES = Long.SIZE;
+
+    /**
+     * Number of sources of a batch.
+     */
+    protected final int lanes;
+
+    /**
+     * Lanes in which each node has already been reached.
+     */
+    protected final long[] seen;
+
+    /**
+     * Lanes in which each node is reached at the next level.
+     */
+    protected final long[] next;
+
+    /**
+     * The sigma value, per node and lane at index {@code node * lanes + lane}.
+     */
+    protected final double[] sigma;
+
+    /**
+     * The delta value, per node and lane at index {@code node * lanes + lane}.
+     */
+    protected final double[] delta;
+
+    /**
+     * Nodes of the level entries.
+     */
+    protected int[] levelNodes;
+
+    /**
+     * Lanes of the level entries.
+     */
+    protected long[] levelLanes;
+
+    /**
+     * First entry of each level, the last value is the number of entries.
+     */
+    protected int[] levelStart;
+
+    /**
+     * Number of levels of the current batch.
+     */
+    protected int levels;
+
+    /**
+     * New workspace sized for the graph indexed by the given engine.
+     *
+     * @param engine The engine owning the indexed graph.
+     * @param lanes  Number of sources of a batch, at most {@link #LANES}.
+     */
+    MultiSourceWorkspace(StressEngine engine, int lanes) {
+        super(engine);
+
+        if (lanes < 1 || lanes > LANES) {
+            throw new IllegalArgumentException("lanes must be between 1 and " + LANES + ": " + lanes);
+        }
+
+        int n = engine.getNodeCount();
+
+        if ((long) n * lanes > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException(n + " nodes are too many for " + lanes + " lanes");
+        }
+
+        this.lanes = lanes;
+        this.seen = new long[n];
+        this.next = new long[n];
+        this.sigma = new double[n * lanes];
+        this.delta = new double[n * lanes];
+        this.levelNodes = new int[Math.max(16, n)];
+        this.levelLanes = new long[levelNodes.length];
+        this.levelStart = new int[16];
+    }
+
+    @Override
+    void computeSources(int from, int to, double[] centrality, double[] edgeCentrality) {
+        for (int s = from; s < to; s += lanes) {
+            computeBatch(s, Math.min(to, s + lanes), centrality, edgeCentrality);
+        }
+    }
+
+    /**
+     * Add the contribution of a batch of at most {@link #lanes} sources.
+     *
+     * @param from           Index of the first source.
+     * @param to             Index following the last source.
+     * @param centrality     The centrality to update, by node index.
+     * @param edgeCentrality The centrality to update, by edge index, or null.
+     */
+    protected void computeBatch(int from, int to, double[] centrality, double[] edgeCentrality) {
+        /*
+         * INITIALIZATION
+         */
+        initialization(from, to);
+
+        /*
+         * ACCUMULATION
+         */
+        int[] offsets = engine.offsets;
+        int[] neighbors = engine.neighbors;
+        int[] edgeIds = engine.edgeIds;
+
+        for (int l = levels - 1; l >= 0; l--) {
+            int start = levelStart[l];
+            int end = levelStart[l + 1];
+
+            // next[] holds the lanes of the nodes at level l + 1
+            for (int e = start; e < end; e++) {
+                int v = levelNodes[e];
+                long m = levelLanes[e];
+                int base = v * lanes;
+                // Nodes of the last level have no successor
+                int last = l + 1 < levels ? offsets[v + 1] : offsets[v];
+
+                for (int k = offsets[v]; k < last; k++) {
+                    int w = neighbors[k];
+                    long c = m & next[w];
+
+                    if (c == 0) {
+                        continue;
+                    }
+
+                    double ce = 0.0;
+
+                    while (c != 0) {
+                        int b = Long.numberOfTrailingZeros(c);
+                        double x = 1.0 + delta[w * lanes + b];
+                        delta[base + b] += x;
+                        ce += sigma[base + b] * x;
+                        c &= c - 1;
+                    }
+
+                    if (edgeCentrality != null) {
+                        edgeCentrality[edgeIds[k]] += ce / 2;
+                    }
+                }
+
+                if (l > 0) {
+                    double cs = 0.0;
+
+                    for (long c = m; c != 0; c &= c - 1) {
+                        int b = Long.numberOfTrailingZeros(c);
+                        cs += sigma[base + b] * delta[base + b];
+                    }
+
+                    centrality[v] += cs / 2;
+                }
+            }
+
+            if (l + 1 < levels) {
+                for (int e = end; e < levelStart[l + 2]; e++) {
+                    next[levelNodes[e]] = 0;
+                }
+            }
+
+            for (int e = start; e < end; e++) {
+                next[levelNodes[e]] = levelLanes[e];
+            }
+        }
+
+        reset();
+    }
+
+    /**
+     * Run the searches of a batch of sources level by level, up to the
+     * maximum distance of the engine, recording the levels and the sigma of
+     * every reached node for every lane.
+     *
+     * @param from Index of the first source.
+     * @param to   Index following the last source.
+     */
+    protected void initialization(int from, int to) {
+        int[] offsets = engine.offsets;
+        int[] neighbors = engine.neighbors;
+        int limit = engine.maxHops;
+        int entries = 0;
+
+        levelStart[0] = 0;
+
+        for (int s = from; s < to; s++) {
+            long bit = 1L << (s - from);
+
+            seen[s] = bit;
+            sigma[s * lanes + (s - from)] = 1.0;
+            levelNodes[entries] = s;
+            levelLanes[entries] = bit;
+            entries++;
+        }
+
+        levels = 1;
+        levelStart[1] = entries;
+
+        while (levels - 1 < limit) {
+            int start = levelStart[levels - 1];
+            int end = levelStart[levels];
+
+            for (int e = start; e < end; e++) {
+                int v = levelNodes[e];
+                long m = levelLanes[e];
+                int base = v * lanes;
+
+                for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                    int w = neighbors[k];
+
+                    /*
+                     * Path discovery
+                     */
+                    long d = m & ~seen[w];
+
+                    if (d == 0) {
+                        continue;
+                    }
+
+                    if (next[w] == 0) {
+                        if (entries == levelNodes.length) {
+                            growEntries();
+                        }
+
+                        levelNodes[entries++] = w;
+                    }
+
+                    next[w] |= d;
+
+                    /*
+                     * Path counting
+                     */
+                    int wbase = w * lanes;
+
+                    while (d != 0) {
+                        int b = Long.numberOfTrailingZeros(d);
+                        sigma[wbase + b] += sigma[base + b];
+                        d &= d - 1;
+                    }
+                }
+            }
+
+            if (entries == end) {
+                break;
+            }
+
+            for (int e = end; e < entries; e++) {
+                int w = levelNodes[e];
+
+                levelLanes[e] = next[w];
+                seen[w] |= next[w];
+                next[w] = 0;
+            }
+
+            if (levels + 1 == levelStart.length) {
+                levelStart = Arrays.copyOf(levelStart, levelStart.length * 2);
+            }
+
+            levelStart[++levels] = entries;
+        }
+    }
+
+    /**
+     * Double the capacity of the level entries.
+     */
+    protected void growEntries() {
+        levelNodes = Arrays.copyOf(levelNodes, levelNodes.length * 2);
+        levelLanes = Arrays.copyOf(levelLanes, levelNodes.length);
+    }
+
+    /**
+     * Reset the values of the nodes reached by the last batch.
+     */
+    protected void reset() {
+        int[] offsets = engine.offsets;
+
+        for (int e = 0; e < levelStart[levels]; e++) {
+            int v = levelNodes[e];
+            int base = v * lanes;
+            arcs += offsets[v + 1] - offsets[v];
+
+            for (long c = levelLanes[e]; c != 0; c &= c - 1) {
+                int b = Long.numberOfTrailingZeros(c);
+                sigma[base + b] = 0.0;
+                delta[base + b] = 0.0;
+            }
+
+            seen[v] = 0;
+            next[v] = 0;
+        }
+
+        levels = 0;
+    }
+}
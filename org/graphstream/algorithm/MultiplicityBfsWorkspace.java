@@ -0,0 +1,106 @@
+package org.graphstream.algorithm;
+
+/**
+ * Workspace running one breadth-first search per source on a graph whose
+ * nodes stand for several nodes, see
+ * {@link StressEngine#setMultiplicities(double[], double[])}.
+ *
+ * The traversal is the one of {@link BfsWorkspace}, each node other than the
+ * source passing its sigma on once per copy, so sigma[w] is the number of
+ * shortest paths from the source to one copy of w. During accumulation each
+ * successor w counts for its multiplicity plus its delta once per copy, so
+ * delta[v] is the number of shortest paths from one copy of v towards the
+ * nodes below it, weighted by their multiplicity, and the contribution of the
+ * source is multiplied by its own multiplicity. The delta of the source is
+ * the weighted number of shortest paths leaving it, recorded in
+ * {@link StressEngine#getPaths()}.
+ */
+class MultiplicityBfsWorkspace extends BfsWorkspace {
+
+    /**
+     * New workspace sized for the graph indexed by the given engine.
+     *
+     * @param engine The engine owning the indexed graph.
+     */
+    MultiplicityBfsWorkspace(StressEngine engine) {
+        super(engine);
+    }
+
+    @Override
+    void computeSource(int s, double[] centrality, double[] edgeCentrality) {
+        /*
+         * INITIALIZATION
+         */
+        initialization(s);
+
+        /*
+         * ACCUMULATION
+         */
+        int[] offsets = engine.offsets;
+        int[] neighbors = engine.neighbors;
+        double[] multiplicities = engine.multiplicities;
+        double[] copies = engine.copies;
+        double weight = multiplicities[s] / 2;
+
+        for (int i = visited - 1; i >= 0; i--) {
+            int v = order[i];
+            int next = dist[v] + 1;
+            double d = 0.0;
+
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                int w = neighbors[k];
+
+                if (dist[w] == next) {
+                    d += multiplicities[w] + copies[w] * delta[w];
+                }
+            }
+
+            delta[v] = d;
+
+            if (v != s) {
+                centrality[v] += weight * sigma[v] * d;
+            }
+        }
+
+        engine.paths[s] = delta[s];
+
+        reset();
+    }
+
+    @Override
+    protected void initialization(int source) {
+        int[] offsets = engine.offsets;
+        int[] neighbors = engine.neighbors;
+        double[] copies = engine.copies;
+
+        dist[source] = 0;
+        sigma[source] = 1.0;
+        order[0] = source;
+        visited = 1;
+
+        for (int head = 0; head < visited; head++) {
+            int v = order[head];
+            int next = dist[v] + 1;
+            double sv = v != source ? sigma[v] * copies[v] : sigma[v];
+
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                int w = neighbors[k];
+
+                /*
+                 * Path discovery
+                 */
+                if (dist[w] == UNREACHED) {
+                    dist[w] = next;
+                    order[visited++] = w;
+                }
+
+                /*
+                 * Path counting
+                 */
+                if (dist[w] == next) {
+                    sigma[w] += sv;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.graphstream.algorithm;
+
+/**
+ * Priority queue of node indices, ordered by a distance array owned by the
+ * caller. The caller must call {@link #decrease(int)} after lowering the
+ * distance of a node already in the queue.
+ */
+interface NodeQueue {
+
+    /**
+     * Is the queue empty?
+     */
+    boolean isEmpty();
+
+    /**
+     * Add a node not in the queue.
+     *
+     * @param v Index of the node.
+     */
+    void add(int v);
+
+    /**
+     * Restore the order after the distance of a node of the queue was lowered.
+     *
+     * @param v Index of the node.
+     */
+    void decrease(int v);
+
+    /**
+     * Remove and return a node of smallest distance.
+     */
+    int poll();
+}
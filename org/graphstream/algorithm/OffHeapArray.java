@@ -0,0 +1,203 @@
+package org.graphstream.algorithm;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Array of fixed-width primitive values stored outside of the Java heap.
+ *
+ * Values live in direct byte buffers, or in buffers mapped from files, cut in
+ * segments of at most 1 GB so that arrays may hold more than 2^31 values and
+ * exceed the size of the heap. The width of the values is fixed when the
+ * array is created and must match the accessors used : 4 bytes for
+ * {@link #getInt(long)}, 8 bytes for {@link #getLong(long)} and
+ * {@link #getDouble(long)}.
+ *
+ * Memory is released when the array is garbage collected.
+ */
+class OffHeapArray {
+
+    /**
+     * Size of a segment in bytes.
+     */
+    static final int SEGMENT_BYTES = 1 << 30;
+
+    /**
+     * Number of values.
+     */
+    protected final long length;
+
+    /**
+     * Logarithm of the width of the values.
+     */
+    protected final int widthShift;
+
+    /**
+     * Logarithm of the number of values per segment.
+     */
+    protected final int segmentShift;
+
+    /**
+     * Mask of the position of a value in its segment.
+     */
+    protected final long segmentMask;
+
+    /**
+     * The segments.
+     */
+    protected final ByteBuffer[] segments;
+
+    /**
+     * The only segment, or null if there are several ones.
+     */
+    protected final ByteBuffer single;
+
+    /**
+     * New array on existing segments.
+     *
+     * @param segments The segments, all but the last one holding
+     *                 {@link #SEGMENT_BYTES} bytes.
+     * @param length   Number of values.
+     * @param width    Width of the values, 4 or 8 bytes.
+     */
+    protected OffHeapArray(ByteBuffer[] segments, long length, int width) {
+        if (width != 4 && width != 8) {
+            throw new IllegalArgumentException("invalid width: " + width);
+        }
+
+        this.length = length;
+        this.segments = segments;
+        this.widthShift = Integer.numberOfTrailingZeros(width);
+        this.segmentShift = Integer.numberOfTrailingZeros(SEGMENT_BYTES) - widthShift;
+        this.segmentMask = (1L << segmentShift) - 1;
+        this.single = segments.length == 1 ? segments[0] : null;
+    }
+
+    /**
+     * New array of zeros in direct buffers, or in a temporary file of the
+     * given directory. The file is deleted at once, its mapping remaining
+     * valid until the array is collected.
+     *
+     * @param length    Number of values.
+     * @param width     Width of the values, 4 or 8 bytes.
+     * @param directory Directory of the temporary file, or null for direct
+     *                  buffers.
+     */
+    static OffHeapArray allocate(long length, int width, Path directory) throws IOException {
+        long bytes = length * width;
+        ByteBuffer[] segments = new ByteBuffer[(int) ((bytes + SEGMENT_BYTES - 1) / SEGMENT_BYTES)];
+
+        if (directory == null) {
+            for (int s = 0; s < segments.length; s++) {
+                segments[s] = ByteBuffer.allocateDirect((int) Math.min(SEGMENT_BYTES, bytes - (long) s * SEGMENT_BYTES))
+                        .order(ByteOrder.nativeOrder());
+            }
+        } else {
+            Path file = Files.createTempFile(directory, "stress", ".tmp");
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+            try {
+                for (int s = 0; s < segments.length; s++) {
+                    long position = (long) s * SEGMENT_BYTES;
+
+                    segments[s] = channel.map(FileChannel.MapMode.READ_WRITE, position,
+                            Math.min(SEGMENT_BYTES, bytes - position)).order(ByteOrder.nativeOrder());
+                }
+            } finally {
+                channel.close();
+                Files.delete(file);
+            }
+        }
+
+        return new OffHeapArray(segments, length, width);
+    }
+
+    /**
+     * Read-only array of little-endian values mapped from a file.
+     *
+     * @param channel  The file.
+     * @param position Position of the first value in the file.
+     * @param length   Number of values.
+     * @param width    Width of the values, 4 or 8 bytes.
+     */
+    static OffHeapArray map(FileChannel channel, long position, long length, int width) throws IOException {
+        long bytes = length * width;
+        ByteBuffer[] segments = new ByteBuffer[(int) ((bytes + SEGMENT_BYTES - 1) / SEGMENT_BYTES)];
+
+        for (int s = 0; s < segments.length; s++) {
+            long offset = (long) s * SEGMENT_BYTES;
+
+            segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, position + offset,
+                    Math.min(SEGMENT_BYTES, bytes - offset)).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        return new OffHeapArray(segments, length, width);
+    }
+
+    /**
+     * Number of values.
+     */
+    long length() {
+        return length;
+    }
+
+    /**
+     * Position of a value in its segment, in bytes.
+     */
+    protected int position(long i) {
+        return (int) (i & segmentMask) << widthShift;
+    }
+
+    int getInt(long i) {
+        if (single != null) {
+            return single.getInt((int) i << widthShift);
+        }
+
+        return segments[(int) (i >>> segmentShift)].getInt(position(i));
+    }
+
+    void putInt(long i, int value) {
+        if (single != null) {
+            single.putInt((int) i << widthShift, value);
+        } else {
+            segments[(int) (i >>> segmentShift)].putInt(position(i), value);
+        }
+    }
+
+    long getLong(long i) {
+        if (single != null) {
+            return single.getLong((int) i << widthShift);
+        }
+
+        return segments[(int) (i >>> segmentShift)].getLong(position(i));
+    }
+
+    void putLong(long i, long value) {
+        if (single != null) {
+            single.putLong((int) i << widthShift, value);
+        } else {
+            segments[(int) (i >>> segmentShift)].putLong(position(i), value);
+        }
+    }
+
+    double getDouble(long i) {
+        if (single != null) {
+            return single.getDouble((int) i << widthShift);
+        }
+
+        return segments[(int) (i >>> segmentShift)].getDouble(position(i));
+    }
+
+    void putDouble(long i, double value) {
+        if (single != null) {
+            single.putDouble((int) i << widthShift, value);
+        } else {
+            segments[(int) (i >>> segmentShift)].putDouble(position(i), value);
+        }
+    }
+}
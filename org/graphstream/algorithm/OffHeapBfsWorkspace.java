@@ -0,0 +1,199 @@
+package org.graphstream.algorithm;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Workspace running breadth-first searches on an {@link OffHeapCsrGraph},
+ * with its distance, sigma, delta and visit order arrays stored outside of
+ * the heap.
+ *
+ * This is the traversal of {@link BfsWorkspace}, reading arcs and scratch
+ * values through {@link OffHeapArray}s. Only the nodes reached by a search
+ * are reset after it.
+ */
+class OffHeapBfsWorkspace extends StressWorkspace {
+
+    /**
+     * The indexed graph.
+     */
+    protected final OffHeapCsrGraph graph;
+
+    /**
+     * Distance of each node from the current source, or {@link #UNREACHED}.
+     */
+    protected final OffHeapArray dist;
+
+    /**
+     * The sigma value of each node.
+     */
+    protected final OffHeapArray sigma;
+
+    /**
+     * The delta value of each node.
+     */
+    protected final OffHeapArray delta;
+
+    /**
+     * Nodes reached by the current search, in visit order.
+     */
+    protected final OffHeapArray order;
+
+    /**
+     * Number of nodes reached by the current search.
+     */
+    protected int visited;
+
+    /**
+     * New workspace sized for the graph indexed by the given engine.
+     *
+     * @param engine    The engine owning the indexed graph.
+     * @param directory Directory of the files backing the scratch arrays, or
+     *                  null for direct buffers.
+     */
+    OffHeapBfsWorkspace(StressEngine engine, Path directory) {
+        super(engine);
+
+        int n = engine.getNodeCount();
+
+        this.graph = (OffHeapCsrGraph) engine.getGraph();
+
+        try {
+            this.dist = OffHeapArray.allocate(n, 4, directory);
+            this.sigma = OffHeapArray.allocate(n, 8, directory);
+            this.delta = OffHeapArray.allocate(n, 8, directory);
+            this.order = OffHeapArray.allocate(n, 4, directory);
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot allocate the scratch space", e);
+        }
+
+        for (int i = 0; i < n; i++) {
+            dist.putInt(i, UNREACHED);
+        }
+    }
+
+    @Override
+    void computeSources(int from, int to, double[] centrality, double[] edgeCentrality) {
+        for (int s = from; s < to; s++) {
+            computeSource(s, centrality, edgeCentrality);
+        }
+    }
+
+    /**
+     * Add the contribution of the given source to centrality arrays.
+     *
+     * @param s              Index of the source node.
+     * @param centrality     The centrality to update, by node index.
+     * @param edgeCentrality The centrality to update, by edge index, or null.
+     */
+    void computeSource(int s, double[] centrality, double[] edgeCentrality) {
+        /*
+         * INITIALIZATION
+         */
+        initialization(s);
+
+        /*
+         * ACCUMULATION
+         */
+        OffHeapArray offsets = graph.offHeapOffsets;
+        OffHeapArray neighbors = graph.offHeapNeighbors;
+        OffHeapArray edges = graph.offHeapEdges;
+        int limit = engine.maxHops;
+
+        for (int i = visited - 1; i >= 0; i--) {
+            int v = order.getInt(i);
+            int next = dist.getInt(v) + 1;
+            double sv = sigma.getDouble(v);
+            double d = 0.0;
+
+            // Nodes at the maximum distance have no successor
+            for (long k = offsets.getLong(v), end = next <= limit ? offsets.getLong(v + 1) : k; k < end; k++) {
+                int w = neighbors.getInt(k);
+
+                if (dist.getInt(w) == next) {
+                    double c = (targets != null ? targets[w] : 1.0) + delta.getDouble(w);
+                    d += c;
+
+                    if (edgeCentrality != null) {
+                        edgeCentrality[edges.getInt(k)] += sv * c / 2;
+                    }
+                }
+            }
+
+            delta.putDouble(v, d);
+
+            if (v != s) {
+                centrality[v] += sv * d / 2;
+            }
+        }
+
+        reset();
+    }
+
+    /**
+     * Compute single-source multiple-targets shortest paths, up to the
+     * maximum distance of the engine. Reached nodes are stored in
+     * {@link #order}, in visit order.
+     *
+     * @param source Index of the source node.
+     */
+    protected void initialization(int source) {
+        OffHeapArray offsets = graph.offHeapOffsets;
+        OffHeapArray neighbors = graph.offHeapNeighbors;
+        int limit = engine.maxHops;
+
+        dist.putInt(source, 0);
+        sigma.putDouble(source, 1.0);
+        order.putInt(0, source);
+        visited = 1;
+
+        for (int head = 0; head < visited; head++) {
+            int v = order.getInt(head);
+            int next = dist.getInt(v) + 1;
+            double sv = sigma.getDouble(v);
+
+            if (next > limit) {
+                break;
+            }
+
+            for (long k = offsets.getLong(v), end = offsets.getLong(v + 1); k < end; k++) {
+                int w = neighbors.getInt(k);
+                int dw = dist.getInt(w);
+
+                /*
+                 * Path discovery
+                 */
+                if (dw == UNREACHED) {
+                    dw = next;
+                    dist.putInt(w, dw);
+                    order.putInt(visited++, w);
+                }
+
+                /*
+                 * Path counting
+                 */
+                if (dw == next) {
+                    sigma.putDouble(w, sigma.getDouble(w) + sv);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reset the distance, sigma and delta of the nodes reached by the last
+     * search.
+     */
+    protected void reset() {
+        OffHeapArray offsets = graph.offHeapOffsets;
+
+        for (int i = 0; i < visited; i++) {
+            int v = order.getInt(i);
+            arcs += offsets.getLong(v + 1) - offsets.getLong(v);
+            dist.putInt(v, UNREACHED);
+            sigma.putDouble(v, 0.0);
+            delta.putDouble(v, 0.0);
+        }
+
+        visited = 0;
+    }
+}
@@ -0,0 +1,248 @@
+package org.graphstream.algorithm;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Unweighted {@link CsrGraph} snapshot whose arcs are stored outside of the
+ * Java heap.
+ *
+ * Offsets, neighbours and edges of the arcs live in {@link OffHeapArray}s,
+ * either in direct buffers or mapped read-only from a binary cache written
+ * by {@link EdgeListLoader#writeCache(CsrGraph, Path)}. Only the identifiers
+ * or labels of the nodes stay on the heap. A snapshot mapped from a cache
+ * never holds its arcs on the heap, so it may be used by a process whose
+ * heap could not hold them. A snapshot built from a graph or copied from
+ * another snapshot needs that graph or snapshot on the heap first.
+ *
+ * Offsets are stored as 8-byte values, but every snapshot built here has
+ * fewer than 2^31 arcs : graphs, heap snapshots, the loader and the header
+ * of binary caches count arcs with 32-bit integers.
+ *
+ * An {@link StressEngine} on such a snapshot also keeps the scratch space of
+ * its traversals outside of the heap.
+ */
+public class OffHeapCsrGraph extends CsrGraph {
+
+    /**
+     * Number of arcs.
+     */
+    protected final long arcs;
+
+    /**
+     * First arc of each node, as 8-byte values.
+     */
+    protected final OffHeapArray offHeapOffsets;
+
+    /**
+     * Target of each arc.
+     */
+    protected final OffHeapArray offHeapNeighbors;
+
+    /**
+     * Index of the edge of each arc, or null if unknown.
+     */
+    protected final OffHeapArray offHeapEdges;
+
+    /**
+     * Off-heap snapshot of an unweighted graph.
+     *
+     * @param graph The graph.
+     */
+    public OffHeapCsrGraph(Graph graph) throws IOException {
+        super(graph.getNodeCount(), graph.getEdgeCount(), new String[graph.getNodeCount()], null);
+
+        long count = 0;
+
+        this.offHeapOffsets = OffHeapArray.allocate(n + 1, 8, null);
+
+        for (int i = 0; i < n; i++) {
+            Node v = graph.getNode(i);
+
+            ids[i] = v.getId();
+            offHeapOffsets.putLong(i, count);
+            count += v.getOutDegree();
+        }
+
+        offHeapOffsets.putLong(n, count);
+
+        this.arcs = count;
+        this.offHeapNeighbors = OffHeapArray.allocate(arcs, 4, null);
+        this.offHeapEdges = OffHeapArray.allocate(arcs, 4, null);
+
+        for (int i = 0; i < n; i++) {
+            Node v = graph.getNode(i);
+            long k = offHeapOffsets.getLong(i);
+            Iterator<Edge> ww = v.getLeavingEdgeIterator();
+
+            while (ww.hasNext()) {
+                Edge e = ww.next();
+
+                offHeapEdges.putInt(k, e.getIndex());
+                offHeapNeighbors.putInt(k++, e.getOpposite(v).getIndex());
+            }
+        }
+    }
+
+    /**
+     * Off-heap copy of an unweighted snapshot.
+     *
+     * @param graph The snapshot to copy.
+     */
+    public OffHeapCsrGraph(CsrGraph graph) throws IOException {
+        super(graph.getNodeCount(), graph.getEdgeCount(), graph.ids, graph.labels);
+
+        if (graph.isWeighted()) {
+            throw new IllegalArgumentException("weighted snapshots cannot be stored off-heap");
+        }
+
+        this.arcs = graph.getArcCount();
+        this.offHeapOffsets = OffHeapArray.allocate(n + 1, 8, null);
+        this.offHeapNeighbors = OffHeapArray.allocate(arcs, 4, null);
+        this.offHeapEdges = graph.hasEdges() ? OffHeapArray.allocate(arcs, 4, null) : null;
+
+        for (int i = 0; i <= n; i++) {
+            offHeapOffsets.putLong(i, graph.offsets[i]);
+        }
+
+        for (int k = 0; k < arcs; k++) {
+            offHeapNeighbors.putInt(k, graph.neighbors[k]);
+
+            if (offHeapEdges != null) {
+                offHeapEdges.putInt(k, graph.edges[k]);
+            }
+        }
+    }
+
+    /**
+     * Snapshot on existing off-heap arrays.
+     */
+    protected OffHeapCsrGraph(int n, int m, String[] ids, int[] labels, OffHeapArray offsets, OffHeapArray neighbors,
+                              OffHeapArray edges) {
+        super(n, m, ids, labels);
+
+        this.arcs = neighbors.length();
+        this.offHeapOffsets = offsets;
+        this.offHeapNeighbors = neighbors;
+        this.offHeapEdges = edges;
+    }
+
+    /**
+     * Map the arcs of a binary cache written by
+     * {@link EdgeListLoader#writeCache(CsrGraph, Path)}. Neighbours and edges
+     * are mapped read-only from the file, without copy. Offsets are read
+     * into an off-heap array, labels and identifiers onto the heap. The cache
+     * holds fewer than 2^31 arcs, see the class documentation.
+     *
+     * @param path The cache.
+     * @return The snapshot.
+     */
+    public static OffHeapCsrGraph map(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            ByteBuffer header = ByteBuffer.allocate(EdgeListLoader.HEADER).order(ByteOrder.LITTLE_ENDIAN);
+
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+            }
+
+            if (header.position() < EdgeListLoader.HEADER || header.getInt(0) != EdgeListLoader.MAGIC) {
+                throw new IOException(path + " is not a binary cache");
+            }
+
+            int flags = header.getInt(4);
+            int n = header.getInt(8);
+            long arcs = header.getInt(12) & 0xFFFFFFFFL;
+            int m = header.getInt(16);
+
+            if ((flags & EdgeListLoader.LENGTHS) != 0) {
+                throw new IllegalArgumentException("weighted snapshots cannot be stored off-heap");
+            }
+
+            long position = EdgeListLoader.HEADER;
+            OffHeapArray stored = OffHeapArray.map(channel, position, n + 1, 4);
+            OffHeapArray offsets = OffHeapArray.allocate(n + 1, 8, null);
+
+            for (int i = 0; i <= n; i++) {
+                offsets.putLong(i, stored.getInt(i) & 0xFFFFFFFFL);
+            }
+
+            position += (n + 1) * 4L;
+
+            OffHeapArray neighbors = OffHeapArray.map(channel, position, arcs, 4);
+            OffHeapArray edges = null;
+            int[] labels = null;
+            String[] ids = null;
+
+            position += arcs * 4;
+
+            if ((flags & EdgeListLoader.EDGES) != 0) {
+                edges = OffHeapArray.map(channel, position, arcs, 4);
+                position += arcs * 4;
+            }
+
+            if ((flags & EdgeListLoader.LABELS) != 0) {
+                labels = new int[n];
+                position = EdgeListLoader.readInts(channel, position, labels);
+            }
+
+            if ((flags & EdgeListLoader.IDS) != 0) {
+                ids = new String[n];
+                EdgeListLoader.readIds(channel, position, ids);
+            }
+
+            return new OffHeapCsrGraph(n, m, ids, labels, offsets, neighbors, edges);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * First arc of a node.
+     *
+     * @param v Index of the node, or the number of nodes for the number of
+     *          arcs.
+     */
+    public long getOffset(int v) {
+        return offHeapOffsets.getLong(v);
+    }
+
+    @Override
+    public long getArcCount() {
+        return arcs;
+    }
+
+    @Override
+    public int getDegree(int v) {
+        return (int) (offHeapOffsets.getLong(v + 1) - offHeapOffsets.getLong(v));
+    }
+
+    @Override
+    public int getNeighbor(int v, int k) {
+        return offHeapNeighbors.getInt(offHeapOffsets.getLong(v) + k);
+    }
+
+    @Override
+    public double getLength(int v, int k) {
+        return 1.0;
+    }
+
+    @Override
+    public int getEdge(int v, int k) {
+        return offHeapEdges != null ? offHeapEdges.getInt(offHeapOffsets.getLong(v) + k) : -1;
+    }
+
+    @Override
+    public boolean hasEdges() {
+        return offHeapEdges != null;
+    }
+}
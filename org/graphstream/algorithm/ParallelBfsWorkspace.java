@@ -0,0 +1,515 @@
+package org.graphstream.algorithm;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Workspace running one level-synchronous breadth-first search per source,
+ * each level being shared by several threads.
+ *
+ * Levels are processed one after the other, the nodes of a level being
+ * claimed by chunks of {@link #GRAIN} nodes by the calling thread and by
+ * tasks of the executor of the engine, see
+ * {@link StressEngine#setLevelExecutor(Executor, int)}. Each level goes
+ * through two steps :
+ *
+ * <ul>
+ * <li>discovery, the frontier scanning its leaving arcs and claiming the
+ * nodes not reached yet with an atomic update of their distance, each
+ * thread appending the nodes it claimed to {@link #order} by blocks;</li>
+ * <li>counting, each node just discovered summing the sigma of its parents,
+ * read from its entering arcs, see {@link StressEngine#getReverse()}.</li>
+ * </ul>
+ *
+ * The accumulation then runs level by level from the farthest one, each
+ * node summing the delta of its successors. Every value being written by the
+ * thread owning its node, in the order of its arcs, no atomic addition is
+ * needed and the result does not depend on the scheduling of the threads.
+ * It is the one of {@link BfsWorkspace} as long as path counts are exact.
+ *
+ * The calling thread always takes part in each step, and tasks starting once
+ * it is over do nothing, so a busy executor only slows the traversal down.
+ */
+class ParallelBfsWorkspace extends BfsWorkspace {
+
+    /**
+     * Number of nodes claimed at once by a thread.
+     */
+    static final int GRAIN = 256;
+
+    /**
+     * Atomic access to the distances.
+     */
+    protected static final VarHandle DIST = MethodHandles.arrayElementVarHandle(int[].class);
+
+    /**
+     * Step discovering the next level.
+     */
+    protected static final int DISCOVERY = 0;
+
+    /**
+     * Step counting the shortest paths to the nodes just discovered.
+     */
+    protected static final int COUNTING = 1;
+
+    /**
+     * Step accumulating the delta of a level.
+     */
+    protected static final int ACCUMULATION = 2;
+
+    /**
+     * Entering neighbours of each node.
+     */
+    protected final CsrGraph reverse;
+
+    /**
+     * Executor running the tasks sharing the levels.
+     */
+    protected final Executor executor;
+
+    /**
+     * Number of threads sharing a level, the calling one included.
+     */
+    protected final int tasks;
+
+    /**
+     * First entry of each level in {@link #order}, the entry following the
+     * last level ending the array.
+     */
+    protected final int[] levels;
+
+    /**
+     * Number of levels of the current traversal.
+     */
+    protected int depth;
+
+    /**
+     * Nodes discovered by each thread not appended to {@link #order} yet.
+     */
+    protected final int[][] buffers;
+
+    /**
+     * The step running, one of {@link #DISCOVERY}, {@link #COUNTING} and
+     * {@link #ACCUMULATION}.
+     */
+    protected int step;
+
+    /**
+     * Distance of the level processed by the step.
+     */
+    protected int level;
+
+    /**
+     * Entry following the last node processed by the step.
+     */
+    protected int end;
+
+    /**
+     * The source of the current traversal.
+     */
+    protected int source;
+
+    /**
+     * The centrality to update during the accumulation, by node index.
+     */
+    protected double[] centrality;
+
+    /**
+     * The centrality to update during the accumulation, by edge index, or
+     * null.
+     */
+    protected double[] edgeCentrality;
+
+    /**
+     * Next entry of {@link #order} to claim.
+     */
+    protected final AtomicInteger cursor = new AtomicInteger();
+
+    /**
+     * Entry of {@link #order} following the nodes discovered so far.
+     */
+    protected final AtomicInteger tail = new AtomicInteger();
+
+    /**
+     * New workspace sized for the graph indexed by the given engine.
+     *
+     * @param engine The engine owning the indexed graph.
+     */
+    ParallelBfsWorkspace(StressEngine engine) {
+        super(engine);
+        this.reverse = engine.getReverse();
+        this.executor = engine.getLevelExecutor();
+        this.tasks = engine.getLevelTasks();
+        this.levels = new int[engine.n + 1];
+        this.buffers = new int[tasks][GRAIN];
+    }
+
+    @Override
+    void computeSource(int s, double[] centrality, double[] edgeCentrality) {
+        /*
+         * INITIALIZATION
+         */
+        initialization(s);
+
+        /*
+         * ACCUMULATION
+         */
+        this.source = s;
+        this.centrality = centrality;
+        this.edgeCentrality = edgeCentrality;
+
+        for (int l = depth - 1; l >= 0; l--) {
+            run(ACCUMULATION, l, levels[l], levels[l + 1]);
+        }
+
+        this.centrality = null;
+        this.edgeCentrality = null;
+        reset();
+    }
+
+    /**
+     * Compute single-source multiple-targets shortest paths on an unweighted
+     * graph, level by level, up to the maximum distance of the engine.
+     * Reached nodes are stored in {@link #order}, by level.
+     *
+     * @param source Index of the source node.
+     */
+    @Override
+    protected void initialization(int source) {
+        dist[source] = 0;
+        sigma[source] = 1.0;
+        order[0] = source;
+        visited = 1;
+        levels[0] = 0;
+        levels[1] = 1;
+        tail.set(1);
+
+        for (depth = 1; depth - 1 < engine.maxHops; depth++) {
+            run(DISCOVERY, depth - 1, levels[depth - 1], levels[depth]);
+            visited = tail.get();
+
+            if (visited == levels[depth]) {
+                break;
+            }
+
+            run(COUNTING, depth - 1, levels[depth], visited);
+            levels[depth + 1] = visited;
+        }
+    }
+
+    /**
+     * Run a step on a range of {@link #order}, sharing it with the tasks of
+     * the executor if it holds more than one chunk.
+     *
+     * @param step  The step.
+     * @param level Distance of the level processed.
+     * @param start First entry to process.
+     * @param end   Entry following the last one to process.
+     */
+    protected void run(int step, int level, int start, int end) {
+        this.step = step;
+        this.level = level;
+        this.end = end;
+        cursor.set(start);
+
+        int count = Math.min(tasks, (end - start + GRAIN - 1) / GRAIN);
+
+        if (count <= 1) {
+            work(buffers[0]);
+            return;
+        }
+
+        Level shared = new Level();
+
+        for (int t = 1; t < count; t++) {
+            try {
+                executor.execute(new Task(shared, buffers[t]));
+            } catch (RejectedExecutionException e) {
+                break;
+            }
+        }
+
+        try {
+            work(buffers[0]);
+        } finally {
+            shared.close();
+        }
+    }
+
+    /**
+     * Process chunks of the current step until none is left.
+     *
+     * @param buffer Nodes discovered by the calling thread.
+     */
+    protected void work(int[] buffer) {
+        int size = 0;
+
+        for (int start = cursor.getAndAdd(GRAIN); start < end; start = cursor.getAndAdd(GRAIN)) {
+            int stop = Math.min(end, start + GRAIN);
+
+            switch (step) {
+                case DISCOVERY:
+                    size = discover(start, stop, buffer, size);
+                    break;
+                case COUNTING:
+                    count(start, stop);
+                    break;
+                default:
+                    accumulate(start, stop);
+            }
+        }
+
+        flush(buffer, size);
+    }
+
+    /**
+     * Claim the nodes not reached yet among the leaving neighbours of a chunk
+     * of the frontier.
+     *
+     * @param start  First entry of the chunk.
+     * @param stop   Entry following the chunk.
+     * @param buffer Nodes discovered by the calling thread.
+     * @param size   Number of nodes in the buffer.
+     * @return The new number of nodes in the buffer.
+     */
+    protected int discover(int start, int stop, int[] buffer, int size) {
+        int[] offsets = engine.offsets;
+        int[] neighbors = engine.neighbors;
+        int next = level + 1;
+
+        for (int i = start; i < stop; i++) {
+            int v = order[i];
+
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                int w = neighbors[k];
+
+                /*
+                 * Path discovery
+                 */
+                if (dist[w] == UNREACHED && DIST.compareAndSet(dist, w, UNREACHED, next)) {
+                    if (size == buffer.length) {
+                        flush(buffer, size);
+                        size = 0;
+                    }
+
+                    buffer[size++] = w;
+                }
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * Append the nodes discovered by a thread to {@link #order}.
+     *
+     * @param buffer The nodes.
+     * @param size   Number of nodes.
+     */
+    protected void flush(int[] buffer, int size) {
+        if (size > 0) {
+            System.arraycopy(buffer, 0, order, tail.getAndAdd(size), size);
+        }
+    }
+
+    /**
+     * Sum the sigma of the parents of a chunk of the nodes just discovered.
+     *
+     * @param start First entry of the chunk.
+     * @param stop  Entry following the chunk.
+     */
+    protected void count(int start, int stop) {
+        int[] inOffsets = reverse.offsets;
+        int[] inNeighbors = reverse.neighbors;
+
+        for (int i = start; i < stop; i++) {
+            int w = order[i];
+            double s = 0.0;
+
+            for (int k = inOffsets[w]; k < inOffsets[w + 1]; k++) {
+                int v = inNeighbors[k];
+
+                /*
+                 * Path counting
+                 */
+                if (dist[v] == level) {
+                    s += sigma[v];
+                }
+            }
+
+            sigma[w] = s;
+        }
+    }
+
+    /**
+     * Compute the delta of a chunk of a level from the next one, adding the
+     * paths going through its nodes and arcs to the centrality.
+     *
+     * @param start First entry of the chunk.
+     * @param stop  Entry following the chunk.
+     */
+    protected void accumulate(int start, int stop) {
+        int[] offsets = engine.offsets;
+        int[] neighbors = engine.neighbors;
+        int[] edgeIds = engine.edgeIds;
+        double[] targets = this.targets;
+        int next = level + 1;
+
+        // Nodes at the maximum distance have no successor
+        if (next > engine.maxHops) {
+            return;
+        }
+
+        for (int i = start; i < stop; i++) {
+            int v = order[i];
+            double d = 0.0;
+
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) {
+                int w = neighbors[k];
+
+                if (dist[w] == next) {
+                    double c = (targets != null ? targets[w] : 1.0) + delta[w];
+                    d += c;
+
+                    if (edgeCentrality != null) {
+                        edgeCentrality[edgeIds[k]] += sigma[v] * c / 2;
+                    }
+                }
+            }
+
+            delta[v] = d;
+
+            if (v != source) {
+                centrality[v] += sigma[v] * d / 2;
+            }
+        }
+    }
+
+    /**
+     * Tasks sharing a step with the calling thread. Once closed, tasks not
+     * started yet do nothing, and the tasks started are waited for.
+     */
+    protected static class Level {
+        /**
+         * Number of tasks working on the step.
+         */
+        protected final AtomicInteger active = new AtomicInteger();
+
+        /**
+         * Is the step over for the calling thread?
+         */
+        protected volatile boolean closed = false;
+
+        /**
+         * First failure of a task, or null.
+         */
+        protected volatile Throwable failure = null;
+
+        /**
+         * Start a task.
+         *
+         * @return False if the step is already over.
+         */
+        protected boolean enter() {
+            active.incrementAndGet();
+
+            if (closed) {
+                leave();
+                return false;
+            }
+
+            return true;
+        }
+
+        /**
+         * End a task.
+         */
+        protected void leave() {
+            if (active.decrementAndGet() == 0) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+
+        /**
+         * Close the step and wait for the tasks working on it, throwing back
+         * their first failure.
+         */
+        protected void close() {
+            closed = true;
+            boolean interrupted = false;
+
+            synchronized (this) {
+                while (active.get() > 0) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+
+            Throwable cause = failure;
+
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else if (cause != null) {
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+
+    /**
+     * Task of the executor sharing a step.
+     */
+    protected class Task implements Runnable {
+        /**
+         * The step.
+         */
+        protected final Level shared;
+
+        /**
+         * Nodes discovered by this task.
+         */
+        protected final int[] buffer;
+
+        /**
+         * New task.
+         *
+         * @param shared The step.
+         * @param buffer Nodes discovered by this task.
+         */
+        protected Task(Level shared, int[] buffer) {
+            this.shared = shared;
+            this.buffer = buffer;
+        }
+
+        public void run() {
+            if (!shared.enter()) {
+                return;
+            }
+
+            try {
+                work(buffer);
+            } catch (Throwable e) {
+                if (shared.failure == null) {
+                    shared.failure = e;
+                }
+
+                cursor.set(end);
+            } finally {
+                shared.leave();
+            }
+        }
+    }
+}
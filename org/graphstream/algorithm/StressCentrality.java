@@ -5,31 +5,273 @@ import org.graphstream.graph.Edge;
 import org.graphstream.graph.Element;
 import org.graphstream.graph.Graph;
 import org.graphstream.graph.Node;
+import org.graphstream.stream.ElementSink;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
 /**
  * Compute the "stress" centrality of each vertex of a given graph.
  *
  * This is based on the algorithm described in "On variants of shortest-path
  * betweenness centrality and their generic computation", Ulrik Brandes, 2008.
  *
+ * In incremental mode the algorithm registers itself as an element sink of
+ * the graph and, once computed, keeps the centrality up to date when edges
+ * and nodes are added or removed, recomputing only the sources whose shortest
+ * paths may have changed. Updates are applied at each step of the graph or at
+ * each call to {@link #compute()}.
+ *
+ * A computation can also run asynchronously, see {@link #computeAsync()},
+ * be cancelled and be given a time limit, after which it either fails or
+ * gives the partial result computed so far.
  */
 
 
-public class StressCentrality extends AbstractCentrality {
+public class StressCentrality extends AbstractCentrality implements DynamicAlgorithm, ElementSink {
+
+    /**
+     * Traversals available to compute single-source shortest paths.
+     */
+    public static enum Traversal {
+        /**
+         * One breadth-first search per source.
+         */
+        BFS,
+        /**
+         * Bit-parallel breadth-first searches sharing the adjacency scans of
+         * up to 64 sources at once. Faster on large unweighted small-world
+         * graphs, where single searches are bound by memory accesses, at the
+         * cost of 1 KB of scratch space per node and thread. On graphs small
+         * enough to stay in the processor caches, BFS is faster.
+         */
+        MULTI_SOURCE_BFS,
+        /**
+         * One breadth-first search per source, discovering the levels where
+         * the frontier covers a large part of the graph bottom-up, from the
+         * nodes not reached yet, see {@link DirectionOptimizingWorkspace}.
+         * Inspects far fewer arcs on large low-diameter graphs, at the cost
+         * of a reversed copy of directed graphs. The switch between the two
+         * directions is tuned by
+         * {@link StressCentrality#setDirectionSwitch(double, double)}.
+         */
+        DIRECTION_OPTIMIZING_BFS,
+        /**
+         * One breadth-first search per source, each level being expanded and
+         * accumulated by all the threads of the executor, see
+         * {@link ParallelBfsWorkspace}. Meant for a few sources on huge
+         * graphs, where a single search would run on one core, at the cost
+         * of a reversed copy of directed graphs. When many sources are
+         * computed, processing them in parallel mode with another traversal
+         * scales better.
+         */
+        PARALLEL_BFS
+    }
+
+    /**
+     * Arithmetic used to count shortest paths.
+     */
+    public static enum Counting {
+        /**
+         * Counts accumulated in doubles. Fastest, and exact as long as values
+         * stay below 2^52, see {@link StressResult#isPrecise()}.
+         */
+        DOUBLE,
+        /**
+         * Exact counts, kept in longs with overflow detection and promoted to
+         * arbitrary precision only for the nodes that overflow. The
+         * centrality attribute of each node is a {@link java.math.BigDecimal}.
+         */
+        EXACT,
+        /**
+         * Counts accumulated in log space, which never overflow. The
+         * centrality attribute of each node is the natural logarithm of its
+         * stress, negative infinity for a zero stress.
+         */
+        LOG
+    }
 
     protected static final double INFINITY = 1000000000.0;
 
     /**
      * Store the centrality value in this attribute on nodes and edges.
      */
-    protected static String centralityAttributeName = "Cs";
+    protected String centralityAttributeName = "Cs";
 
     /**
      * Display progress?
      */
     protected boolean showProgress = false;
 
+    /**
+     * Listener of the progress, or null.
+     */
+    protected StressListener listener = null;
+
+    /**
+     * Minimum time between two reports of the progress, in milliseconds.
+     */
+    protected long progressInterval = 1000;
+
+    /**
+     * Time allowed to each computation, in milliseconds, or 0 for no limit.
+     */
+    protected long timeLimit = 0;
+
+    /**
+     * Give the partial result of a computation reaching its time limit
+     * instead of failing?
+     */
+    protected boolean partialResults = false;
+
+    /**
+     * Future of the asynchronous computation running, or null.
+     */
+    protected Future<?> future = null;
+
+    /**
+     * Compute through node attributes instead of the array engine?
+     */
+    protected boolean legacyMode = false;
+
+    /**
+     * Attribute storing the length of edges, or null for unweighted
+     * shortest paths.
+     */
+    protected String weightAttributeName = null;
+
+    /**
+     * The traversal used by the engine.
+     */
+    protected Traversal traversal = Traversal.BFS;
+
+    /**
+     * Maximum distance of the paths counted, infinite if they are not
+     * bounded.
+     */
+    protected double maxDistance = Double.POSITIVE_INFINITY;
+
+    /**
+     * Factor of the arcs leaving the frontier above which
+     * direction-optimizing searches go bottom-up.
+     */
+    protected double directionAlpha = 2.0;
+
+    /**
+     * Factor of the size of the frontier below which direction-optimizing
+     * searches go top-down again.
+     */
+    protected double directionBeta = 24.0;
+
+    /**
+     * The arithmetic used to count shortest paths.
+     */
+    protected Counting counting = Counting.DOUBLE;
+
+    /**
+     * Compute the centrality of edges too?
+     */
+    protected boolean edgeCentrality = false;
+
+    /**
+     * Snapshot of the graph computations run on, or null to take a new one
+     * at each computation.
+     */
+    protected CsrGraph snapshot = null;
+
+    /**
+     * Peel the leaves of undirected graphs before computing?
+     */
+    protected boolean folding = false;
+
+    /**
+     * Merge twin nodes of undirected graphs before computing?
+     */
+    protected boolean twinCompression = false;
+
+    /**
+     * Compute connected components on their own?
+     */
+    protected boolean decomposition = false;
+
+    /**
+     * File of the checkpoints, or null to save none.
+     */
+    protected Path checkpointFile = null;
+
+    /**
+     * Time between two checkpoints, in milliseconds.
+     */
+    protected long checkpointInterval = 600000;
+
+    /**
+     * Store the graph and the scratch spaces off-heap?
+     */
+    protected boolean offHeap = false;
+
+    /**
+     * Directory of the files backing off-heap scratch spaces, or null for
+     * direct buffers.
+     */
+    protected Path scratchDirectory = null;
+
+    /**
+     * Sampler estimating the centrality, or null for exact computations.
+     */
+    protected StressSampler sampler = null;
+
+    /**
+     * Coordinator sharing the sources among worker processes, or null.
+     */
+    protected StressCoordinator coordinator = null;
+
+    /**
+     * Result of the last computation.
+     */
+    protected StressResult result = null;
+
+    /**
+     * Keep the centrality up to date with graph events?
+     */
+    protected boolean incrementalMode = false;
+
+    /**
+     * Fraction of affected sources above which incremental updates fall back
+     * to a full computation.
+     */
+    protected double incrementalThreshold = 0.5;
+
+    /**
+     * State of the incremental updates, null until a computation is done in
+     * incremental mode.
+     */
+    protected IncrementalStress incremental = null;
+
+    /**
+     * Process the sources in parallel?
+     */
+    protected boolean parallel = false;
+
+    /**
+     * Executor running the partitions of the sources in parallel mode, the
+     * common fork/join pool if null.
+     */
+    protected ExecutorService executor = null;
+
+    /**
+     * Number of partitions of the sources in parallel mode, the parallelism
+     * of the executor if not positive.
+     */
+    protected int partitions = 0;
+
     /**
      * The predecessors value.
      */
@@ -98,11 +340,33 @@ public class StressCentrality extends AbstractCentrality {
     }
 
     /**
-     * Setup the algorithm to work on the given graph.
+     * Setup the algorithm to work on the given graph. In incremental mode the
+     * algorithm also becomes an element sink of the graph.
      */
     @Override
     public void init(Graph graph) {
+        if (this.graph != graph) {
+            terminate();
+        }
+
         this.graph = graph;
+
+        if (incrementalMode && graph != null) {
+            graph.removeElementSink(this);
+            graph.addElementSink(this);
+        }
+    }
+
+    /**
+     * Stop listening to the graph and forget the incremental state.
+     */
+    @Override
+    public void terminate() {
+        if (graph != null) {
+            graph.removeElementSink(this);
+        }
+
+        incremental = null;
     }
 
     /**
@@ -138,6 +402,35 @@ public class StressCentrality extends AbstractCentrality {
     @Override
     public void compute() {
         if (graph != null) {
+            if (incremental != null) {
+                updateCentrality();
+            } else {
+                computeCentrality();
+            }
+        }
+    }
+
+    /**
+     * Apply the graph changes received since the last update. If too many
+     * sources are affected, the centrality is computed again from scratch.
+     */
+    protected void updateCentrality() {
+        if (!incremental.hasChanges()) {
+            return;
+        }
+
+        if (incremental.update()) {
+            incremental.store(graph, centralityAttributeName);
+
+            double[] centrality = new double[graph.getNodeCount()];
+
+            for (Node node : graph) {
+                centrality[node.getIndex()] = getCentrality(node);
+            }
+
+            result = new StressResult(centrality);
+        } else {
+            incremental = null;
             computeCentrality();
         }
     }
@@ -154,21 +447,363 @@ public class StressCentrality extends AbstractCentrality {
      */
     @Override
     protected void computeCentrality() {
+        if (legacyMode) {
+            computeLegacyCentrality();
+        } else {
+            computeEngineCentrality();
+        }
+    }
+
+    /**
+     * A new engine on the graph, or on the snapshot if one is given, set up
+     * with the options of this algorithm.
+     *
+     * @param edges Compute the centrality of edges?
+     * @return The engine.
+     */
+    protected StressEngine newEngine(boolean edges) {
+        StressEngine engine;
+
+        if (snapshot != null) {
+            engine = new StressEngine(snapshot, edges && snapshot.hasEdges());
+        } else if (offHeap) {
+            if (weightAttributeName != null) {
+                throw new IllegalStateException("weighted graphs cannot be stored off-heap");
+            }
+
+            try {
+                engine = new StressEngine(new OffHeapCsrGraph(graph), edges);
+            } catch (IOException e) {
+                throw new IllegalStateException("cannot store the graph off-heap", e);
+            }
+        } else {
+            engine = new StressEngine(graph, weightAttributeName, edges);
+        }
+
+        engine.setScratchDirectory(scratchDirectory);
+        engine.setTraversal(traversal);
+        engine.setDirectionSwitch(directionAlpha, directionBeta);
+        engine.setLevelExecutor(executor, Math.max(0, partitions));
+        engine.setMaxDistance(maxDistance);
+
+        return engine;
+    }
+
+    /**
+     * Compute the stress centrality with a {@link StressEngine}. Intermediate
+     * values are kept in arrays and only the final centrality is stored on the
+     * nodes.
+     */
+    protected void computeEngineCentrality() {
+        boolean edges = edgeCentrality && sampler == null && counting == Counting.DOUBLE;
+        StressEngine engine = newEngine(edges);
+        StressReduction reduction = null;
+        StressEngine core = engine;
+
+        if ((folding || twinCompression) && sampler == null && coordinator == null && counting == Counting.DOUBLE && !edges
+                && maxDistance == Double.POSITIVE_INFINITY && !engine.isWeighted() && !engine.isOffHeap() && engine.getGraph().isSymmetric()) {
+            if (folding) {
+                reduction = new LeafPeeling(engine.getGraph());
+            }
+
+            if (twinCompression && (reduction == null || reduction.getReducedSize() == engine.getNodeCount())) {
+                reduction = new TwinCompression(engine.getGraph());
+            }
+
+            if (reduction.getReducedSize() < engine.getNodeCount()) {
+                core = reduction.newReducedEngine();
+            } else {
+                reduction = null;
+            }
+        }
+
+        StressMeter meter = newMeter(core.getNodeCount());
+
+        engine.setMeter(meter);
+        core.setMeter(meter);
+        meter.start();
+
+        if (sampler != null) {
+            result = sampler.sample(engine);
+        } else if (coordinator != null && counting == Counting.DOUBLE && !engine.isOffHeap()) {
+            result = coordinator.compute(engine);
+        } else if (counting != Counting.DOUBLE) {
+            ExecutorService executor = !parallel ? null
+                    : this.executor != null ? this.executor : ForkJoinPool.commonPool();
+            int partitions = parallel ? getPartitions() : 1;
+
+            if (counting == Counting.EXACT) {
+                result = new StressResult(engine.computeExact(partitions, executor));
+            } else {
+                result = StressResult.logarithmic(engine.computeLogarithmic(partitions, executor));
+            }
+        } else {
+            if (decomposition && reduction == null && !engine.isOffHeap()) {
+                ExecutorService executor = !parallel ? null
+                        : this.executor != null ? this.executor : ForkJoinPool.commonPool();
+                engine.computeComponents(parallel ? getPartitions() : 1, executor);
+            } else {
+                computeAllSources(core);
+            }
+
+            if (reduction != null) {
+                result = new StressResult(reduction.expand(core));
+            } else {
+                result = new StressResult(engine.getCentrality(), engine.getEdgeCentrality());
+            }
+        }
+
+        meter.finish();
+
+        if (checkStopped(meter)) {
+            result = result.toPartial(result.isExact() ? (int) meter.getProcessedSources() : result.getSources());
+        }
+
+        storeResult(engine, result);
+
+        if (incrementalMode && result.isExact() && !engine.isWeighted() && !edgeCentrality
+                && counting == Counting.DOUBLE && maxDistance == Double.POSITIVE_INFINITY) {
+            incremental = new IncrementalStress(graph, result.getCentrality(), incrementalThreshold);
+        } else {
+            incremental = null;
+        }
+    }
+
+    /**
+     * Index in the graph of each edge of a snapshot given by the user, whose
+     * edges may be indexed in another order, for instance the one of an edge
+     * list. Edges are matched by their end nodes, so the graph must not have
+     * several edges between the same nodes.
+     *
+     * @param snapshot The snapshot.
+     * @return The index of the edge of the graph, by edge of the snapshot.
+     */
+    protected int[] graphEdges(CsrGraph snapshot) {
+        int m = snapshot.getEdgeCount();
+
+        if (m != graph.getEdgeCount()) {
+            throw new IllegalStateException("the snapshot has " + m + " edges, the graph " + graph.getEdgeCount());
+        }
+
+        int[] edges = new int[m];
+        boolean[] matched = new boolean[m];
+
+        Arrays.fill(edges, -1);
+
+        for (int v = 0; v < snapshot.getNodeCount(); v++) {
+            for (int k = 0; k < snapshot.getDegree(v); k++) {
+                int e = snapshot.getEdge(v, k);
+
+                if (edges[e] >= 0) {
+                    continue;
+                }
+
+                Node from = graph.getNode(snapshot.getId(v));
+                Node to = graph.getNode(snapshot.getId(snapshot.getNeighbor(v, k)));
+                Edge edge = from != null && to != null ? from.getEdgeToward(to.getId()) : null;
+
+                if (edge == null || matched[edge.getIndex()]) {
+                    throw new IllegalStateException("edge " + e + " of the snapshot does not match a single edge of the graph");
+                }
+
+                edges[e] = edge.getIndex();
+                matched[edge.getIndex()] = true;
+            }
+        }
+
+        for (int e = 0; e < m; e++) {
+            if (edges[e] < 0) {
+                throw new IllegalStateException("edge " + e + " of the snapshot has no arc");
+            }
+        }
+
+        return edges;
+    }
+
+    /**
+     * Process every source of an engine, in parallel in parallel mode. If a
+     * checkpoint file is given, the computation is resumed from the
+     * checkpoint saved on the same graph, if any, and a checkpoint is saved
+     * every {@link #setCheckpointInterval(long)} milliseconds, sources being
+     * processed in blocks in parallel mode. The checkpoint is deleted once
+     * all the sources are processed. Processing stops between two blocks
+     * when the meter of the engine stops the computation, saving a last
+     * checkpoint in sequential mode.
+     *
+     * @param engine The engine.
+     */
+    protected void computeAllSources(StressEngine engine) {
+        int n = engine.getNodeCount();
+        int batch = engine.getBatchSize();
+        int partitions = parallel ? getPartitions() : 1;
+        ExecutorService executor = !parallel ? null
+                : this.executor != null ? this.executor : ForkJoinPool.commonPool();
+        StressCheckpoint checkpoint = checkpointFile != null ? new StressCheckpoint(checkpointFile, engine) : null;
+
+        /*
+         * In parallel mode, blocks of about 1/256th of the sources, whole
+         * batches for each partition.
+         */
+        int block = batch;
+
+        if (parallel) {
+            int step = batch * partitions;
+            block = step * Math.max(1, (int) (((long) n + 256L * step - 1) / (256L * step)));
+        }
+
+        try {
+            int start = checkpoint != null ? checkpoint.restore(engine) : 0;
+            long saved = System.nanoTime();
+
+            if (engine.meter != null) {
+                engine.meter.skip(start);
+            }
+
+            boolean stopped = false;
+
+            if (parallel && checkpoint == null) {
+                engine.compute(partitions, executor);
+            } else {
+                for (int s = start; s < n; s += block) {
+                    int end = Math.min(n, s + block);
+
+                    if (parallel) {
+                        engine.compute(s, end, partitions, executor);
+                    } else {
+                        engine.computeSources(s, end);
+                    }
+
+                    // A block cut short in parallel mode leaves no state to save
+                    stopped = engine.wasStopped() || (end < n && engine.isStopped());
+
+                    if (checkpoint != null && end < n && (stopped ? !parallel
+                            : System.nanoTime() - saved >= checkpointInterval * 1000000L)) {
+                        checkpoint.save(engine, end);
+                        saved = System.nanoTime();
+                    }
+
+                    if (stopped) {
+                        break;
+                    }
+                }
+            }
+
+            if (checkpoint != null && !stopped) {
+                checkpoint.delete();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot access the checkpoint " + checkpointFile, e);
+        }
+    }
+
+    /**
+     * Store the centrality of each node, and of each edge if computed, as an
+     * attribute. For estimates, the
+     * number of sources processed and the error bound are stored as graph
+     * attributes named after the centrality attribute with the ".sources",
+     * ".epsilon" and ".confidence" suffixes. Values counted in doubles that
+     * may have been rounded are flagged by a graph attribute with the
+     * ".overflow" suffix, and partial results by the ".partial" suffix.
+     *
+     * @param engine The engine indexing the graph.
+     * @param result The result to store.
+     */
+    protected void storeResult(StressEngine engine, StressResult result) {
+        double[] centrality = result.getCentrality();
+        BigDecimal[] exactCentrality = result.getExactCentrality();
+
+        for (int i = 0; i < centrality.length; i++) {
+            Node node = engine.getNode(i);
+
+            if (node == null) {
+                node = graph.getNode(engine.getGraph().getId(i));
+            }
+
+            if (exactCentrality != null) {
+                node.setAttribute(centralityAttributeName, exactCentrality[i]);
+            } else {
+                setCentrality(node, centrality[i]);
+            }
+        }
+
+        double[] edgeCentrality = result.getEdgeCentrality();
+
+        if (edgeCentrality != null) {
+            int[] edges = snapshot != null ? graphEdges(engine.getGraph()) : null;
+
+            for (int i = 0; i < edgeCentrality.length; i++) {
+                graph.getEdge(edges != null ? edges[i] : i).setAttribute(centralityAttributeName, edgeCentrality[i]);
+            }
+        }
+
+        String[] keys = {".sources", ".epsilon", ".confidence"};
+
+        if (result.isExact()) {
+            for (String key : keys) {
+                if (graph.hasAttribute(centralityAttributeName + key)) {
+                    graph.removeAttribute(centralityAttributeName + key);
+                }
+            }
+        } else {
+            graph.setAttribute(centralityAttributeName + keys[0], result.getSources());
+            graph.setAttribute(centralityAttributeName + keys[1], result.getEpsilon());
+            graph.setAttribute(centralityAttributeName + keys[2], result.getConfidence());
+        }
+
+        if (result.isPrecise() || result.isLogarithmic()) {
+            if (graph.hasAttribute(centralityAttributeName + ".overflow")) {
+                graph.removeAttribute(centralityAttributeName + ".overflow");
+            }
+        } else {
+            graph.setAttribute(centralityAttributeName + ".overflow", true);
+        }
+
+        storePartial(result.isPartial());
+    }
+
+    /**
+     * Flag partial results by a graph attribute named after the centrality
+     * attribute with the ".partial" suffix.
+     *
+     * @param partial Is the result partial?
+     */
+    protected void storePartial(boolean partial) {
+        if (partial) {
+            graph.setAttribute(centralityAttributeName + ".partial", true);
+        } else if (graph.hasAttribute(centralityAttributeName + ".partial")) {
+            graph.removeAttribute(centralityAttributeName + ".partial");
+        }
+    }
+
+    /**
+     * Compute the stress centrality storing sigma, delta, distance and
+     * predecessors as attributes of the nodes. This is the original
+     * implementation, kept available through {@link #setLegacyMode(boolean)}.
+     */
+    protected void computeLegacyCentrality() {
         Graph graph = this.graph;
+        result = null;
+        incremental = null;
         init(graph);
         initAllNodes(graph);
 
-        int n = graph.getNodeCount();
+        StressMeter meter = newMeter(graph.getNodeCount());
         int i = 0;
 
-        System.out.println("\n\nStarting calculate Stress Centrality...");
+        meter.start();
 
         /*
          * Single-source shortest-paths problem
          */
         // for seV
         for (Node s : graph) {
+            if (i++ > 0 && meter.isStopped()) {
+                break;
+            }
+
             PriorityQueue<Node> S = null;
+            long start = System.nanoTime();
+            long arcs = 0;
 
             /*
              * INITIALIZATION
@@ -181,30 +816,251 @@ public class StressCentrality extends AbstractCentrality {
             while (!S.isEmpty()) {
                 //pop w <- S
                 Node w = S.poll();
+                arcs += w.getOutDegree();
                 //for vePred[w]
                 for (Node v : getPred(w)) {
                     //c = 1.0 + delta[w]
                     double c = 1.0 + getDelta(w);
 
-                    //delta[v] <- delta[v] + (1.0 + deltra[w]
-                    setDelta(v, getDelta(v) + c);
-                }
-                //if w =/= s
-                if (w != s) {
-                    double c = getSigma(w) * getDelta(w);
-                    //stressCentrality[w] <- stressCentrality[w] + (sigma[w] * delta[w])"/2"
-                    setCentrality(w, getCentrality(w) + c / 2);
-                }
-            }
+                    //delta[v] <- delta[v] + (1.0 + deltra[w]
+                    setDelta(v, getDelta(v) + c);
+                }
+                //if w =/= s
+                if (w != s) {
+                    double c = getSigma(w) * getDelta(w);
+                    //stressCentrality[w] <- stressCentrality[w] + (sigma[w] * delta[w])"/2"
+                    setCentrality(w, getCentrality(w) + c / 2);
+                }
+            }
+
+            meter.record(1, arcs, System.nanoTime() - start);
+        }
+
+        meter.finish();
+        storePartial(checkStopped(meter));
+    }
+
+    /**
+     * A new meter of a computation, reporting the progress to the listener,
+     * or to a {@link ConsoleProgressListener} if progress is displayed, and
+     * stopping the computation when the future of the asynchronous
+     * computation is cancelled or the time limit is reached.
+     *
+     * @param total Number of sources to process.
+     * @return The meter.
+     */
+    protected StressMeter newMeter(long total) {
+        StressListener listener = this.listener;
+
+        if (listener == null && showProgress) {
+            listener = new ConsoleProgressListener();
+        }
+
+        return new StressMeter(listener, progressInterval, total, timeLimit, future);
+    }
+
+    /**
+     * Check whether a computation was stopped before its end.
+     *
+     * @param meter The meter of the computation.
+     * @return True if the computation reached its time limit and its partial
+     * result is to be kept.
+     * @throws CancellationException If the computation was cancelled or its
+     *                               thread interrupted.
+     * @throws IllegalStateException If the computation reached its time
+     *                               limit and partial results are not
+     *                               allowed, caused by a
+     *                               {@link TimeoutException}.
+     */
+    protected boolean checkStopped(StressMeter meter) {
+        if (meter.isCancelled()) {
+            result = null;
+            throw new CancellationException("stress centrality computation cancelled");
+        }
+
+        if (meter.isExpired() && !partialResults) {
+            String message = "stress centrality computation exceeded its time limit of " + timeLimit + " ms";
+            result = null;
+            throw new IllegalStateException(message, new TimeoutException(message));
+        }
+
+        return meter.isExpired();
+    }
+
+    /**
+     * Compute the centrality asynchronously, on the executor of parallel
+     * mode, the common fork/join pool by default, see
+     * {@link #computeAsync(Executor)}.
+     *
+     * @return The future result.
+     */
+    public CompletableFuture<StressResult> computeAsync() {
+        return computeAsync(executor != null ? executor : ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Compute the centrality asynchronously, like {@link #compute()} does,
+     * storing it on the graph once computed. The graph must not be modified
+     * and no other computation started until the future completes.
+     *
+     * Cancelling the future stops the computation cooperatively : sources
+     * being processed are finished, no other is started and nothing is
+     * stored on the graph. When the time limit is reached, the future
+     * completes exceptionally with a {@link TimeoutException}, or with the
+     * partial result computed so far if partial results are allowed, see
+     * {@link #setTimeLimit(long)}. Incremental updates run to their end.
+     *
+     * @param executor The executor running the computation. In parallel
+     *                 mode, it may also be the executor of the partitions.
+     * @return The future result, completing with null in legacy mode.
+     */
+    public CompletableFuture<StressResult> computeAsync(Executor executor) {
+        if (graph == null) {
+            throw new IllegalStateException("the algorithm is not initialized with a graph");
+        }
+
+        final CompletableFuture<StressResult> future = new CompletableFuture<StressResult>();
+
+        executor.execute(new Runnable() {
+            public void run() {
+                if (future.isCancelled()) {
+                    return;
+                }
+
+                StressCentrality.this.future = future;
+
+                try {
+                    compute();
+                    future.complete(result);
+                } catch (CancellationException e) {
+                    future.cancel(false);
+                } catch (IllegalStateException e) {
+                    future.completeExceptionally(e.getCause() instanceof TimeoutException ? e.getCause() : e);
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    StressCentrality.this.future = null;
+                }
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Compute the stress restricted to the shortest paths from some sources
+     * to some targets, see
+     * {@link StressEngine#computeBetween(int[], int[], int, ExecutorService)}.
+     * A traversal is only run from each source, so the cost is proportional
+     * to the number of sources. Each path between a source and a target
+     * counts once, so with every node as source and target the result is
+     * the stress.
+     *
+     * The result is returned without being stored on the graph, nor
+     * replacing the result of {@link #getResult()}. The weights, the
+     * traversal, the parallel mode, the progress listener and the time limit
+     * apply, while the legacy mode, sampling, counting and reductions are
+     * ignored.
+     *
+     * @param sources The sources, or null for every node.
+     * @param targets The targets, or null for every node.
+     * @return The centrality of each node, and of each edge if computed.
+     */
+    public StressResult computeBetween(Collection<? extends Node> sources, Collection<? extends Node> targets) {
+        StressEngine engine = computeQuery(sources, targets, edgeCentrality);
+        StressResult between = new StressResult(engine.getCentrality(), engine.getEdgeCentrality());
+
+        if (engine.wasStopped()) {
+            between = between.toPartial((int) engine.meter.getProcessedSources());
+        }
+
+        return between;
+    }
+
+    /**
+     * Compute the nodes of highest stress restricted to the shortest paths
+     * from some sources to some targets, like
+     * {@link #computeBetween(Collection, Collection)}, without storing
+     * anything on the graph.
+     *
+     * @param k       Maximum number of nodes kept.
+     * @param sources The sources, or null for every node.
+     * @param targets The targets, or null for every node.
+     * @return The k nodes of highest centrality, by decreasing centrality.
+     */
+    public StressRanking computeTop(int k, Collection<? extends Node> sources, Collection<? extends Node> targets) {
+        StressEngine engine = computeQuery(sources, targets, false);
+
+        return StressRanking.top(engine.getGraph(), engine.getCentrality(), k);
+    }
+
+    /**
+     * Run a query restricted to the paths from some sources to some targets.
+     * If it is stopped before its end, the query either throws, see
+     * {@link #checkStopped(StressMeter)}, or leaves a partial centrality.
+     *
+     * @param sources The sources, or null for every node.
+     * @param targets The targets, or null for every node.
+     * @param edges   Compute the centrality of edges?
+     * @return The engine holding the centrality, with its meter.
+     */
+    protected StressEngine computeQuery(Collection<? extends Node> sources, Collection<? extends Node> targets,
+                                        boolean edges) {
+        if (graph == null) {
+            throw new IllegalStateException("the algorithm is not initialized with a graph");
+        }
+
+        StressEngine engine = newEngine(edges);
+        int[] from = sources != null ? indices(engine, sources) : null;
+        int[] to = targets != null ? indices(engine, targets) : null;
+
+        if (from == null) {
+            from = new int[engine.getNodeCount()];
+
+            for (int i = 0; i < from.length; i++) {
+                from[i] = i;
+            }
+        }
+
+        StressMeter meter = newMeter(from.length);
+
+        engine.setMeter(meter);
+        meter.start();
+        engine.computeBetween(from, to, parallel ? getPartitions() : 1, !parallel ? null
+                : this.executor != null ? this.executor : ForkJoinPool.commonPool());
+        meter.finish();
+
+        StressResult last = result;
+
+        try {
+            checkStopped(meter);
+        } finally {
+            result = last;
+        }
+
+        return engine;
+    }
+
+    /**
+     * Indices of nodes in the snapshot of an engine.
+     *
+     * @param engine The engine.
+     * @param nodes  The nodes.
+     * @return The index of each node.
+     */
+    protected int[] indices(StressEngine engine, Collection<? extends Node> nodes) {
+        int[] indices = new int[nodes.size()];
+        int i = 0;
+
+        for (Node node : nodes) {
+            indices[i] = engine.getGraph().getIndex(node.getId());
 
-            if (showProgress) {
-                try {
-                    Thread.sleep(50);
-                    printProgress(++i, n);
-                } catch (InterruptedException e) {
-                }
+            if (indices[i++] < 0) {
+                throw new IllegalArgumentException("node " + node.getId() + " is not in the graph");
             }
         }
+
+        return indices;
     }
 
     /**
@@ -214,14 +1070,9 @@ public class StressCentrality extends AbstractCentrality {
      * @param total Total count of nodes
      */
     protected void printProgress(int current, int total) {
-        StringBuilder string = new StringBuilder(140);
-        int percent = (int) (current * 100 / total);
-        string.append('\r')
-                .append(String.format("Progress: %d%% [", percent))
-                .append(String.join("", Collections.nCopies(percent, "="))).append('>')
-                .append(String.join("", Collections.nCopies(100 - percent, " "))).append(']')
-                .append(String.format(" %d/%d", current, total));
+        StringBuilder string = new StringBuilder(80);
 
+        ConsoleProgressListener.appendBar(string.append('\r'), current, total);
         System.out.print(string);
     }
 
@@ -258,6 +1109,11 @@ public class StressCentrality extends AbstractCentrality {
             //push v -> S
             S.add(v);
 
+            // paths stop at the maximum distance
+            if (getDistance(v) >= maxDistance) {
+                continue;
+            }
+
             //foreach vertex w such that (v, w)eE
             Iterator<Edge> ww = v.getLeavingEdgeIterator();
             while (ww.hasNext()) {
@@ -387,7 +1243,9 @@ public class StressCentrality extends AbstractCentrality {
 
     /**
      * Activate or deactivate calculations and display progress for calculated
-     * stress Centrality. By default it is deactivated.
+     * stress Centrality, with a {@link ConsoleProgressListener} on the
+     * standard output. It is ignored if a listener is set. By default it is
+     * deactivated and nothing is printed.
      *
      * @param status If it is true, progress is displayed.
      */
@@ -395,6 +1253,583 @@ public class StressCentrality extends AbstractCentrality {
         this.showProgress = status;
     }
 
+    /**
+     * Report the progress of the computations to the given listener : sources
+     * processed, rate, arcs traversed, estimated time left and utilization
+     * of the worker threads. Sources are counted by chunks, outside of the
+     * traversals, and the listener is called at most once per
+     * {@link #setProgressInterval(long)}, plus once at the start and at the
+     * end. Incremental updates are not reported. By default there is no
+     * listener.
+     *
+     * @param listener The listener, or null to report nothing.
+     */
+    public void setListener(StressListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * The listener of the progress, or null.
+     */
+    public StressListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Limit the time of each computation. Once reached, processing stops
+     * between two chunks of sources and the computation either fails, with
+     * an {@link IllegalStateException} caused by a {@link TimeoutException}
+     * or an exceptional future, or gives its partial result, see
+     * {@link #setPartialResults(boolean)}. With a sampler the partial result
+     * is the estimate from the pivots processed. Incremental updates are not
+     * limited. By default there is no limit.
+     *
+     * @param milliseconds Time allowed, in milliseconds, or 0 for no limit.
+     */
+    public void setTimeLimit(long milliseconds) {
+        this.timeLimit = milliseconds;
+    }
+
+    /**
+     * Time allowed to each computation, in milliseconds, or 0 if unlimited.
+     */
+    public long getTimeLimit() {
+        return timeLimit;
+    }
+
+    /**
+     * Give the partial result of a computation reaching its time limit
+     * instead of failing. Partial results are flagged, see
+     * {@link StressResult#isPartial()} and the ".partial" graph attribute,
+     * and never updated incrementally. Values of a computation of every
+     * source then only hold the contribution of the sources processed, a
+     * lower bound of their exact value. By default computations fail.
+     *
+     * @param partialResults If it is true, partial results are given.
+     */
+    public void setPartialResults(boolean partialResults) {
+        this.partialResults = partialResults;
+    }
+
+    /**
+     * Are partial results given when the time limit is reached?
+     */
+    public boolean isPartialResults() {
+        return partialResults;
+    }
+
+    /**
+     * Specify the minimum time between two reports of the progress. By
+     * default 1 second.
+     *
+     * @param milliseconds Time between two reports, in milliseconds.
+     */
+    public void setProgressInterval(long milliseconds) {
+        this.progressInterval = milliseconds;
+    }
+
+    /**
+     * Use the original attribute-based computation instead of the array
+     * engine. By default it is deactivated.
+     *
+     * @param legacyMode If it is true, intermediate values are stored as node
+     *                   attributes.
+     */
+    public void setLegacyMode(boolean legacyMode) {
+        this.legacyMode = legacyMode;
+    }
+
+    /**
+     * Is the original attribute-based computation used?
+     */
+    public boolean isLegacyMode() {
+        return legacyMode;
+    }
+
+    /**
+     * Compute weighted shortest paths, the length of each edge being stored
+     * in the given attribute. Edges without this attribute have length 1 and
+     * lengths must be positive. Shortest paths are then computed with
+     * Dijkstra's algorithm, using a bucket queue when all lengths are small
+     * integers, whatever the traversal. It is ignored in legacy mode. By
+     * default shortest paths are unweighted.
+     *
+     * @param weightAttributeName Name of the length attribute, or null for
+     *                            unweighted shortest paths.
+     */
+    public void setWeightAttributeName(String weightAttributeName) {
+        this.weightAttributeName = weightAttributeName;
+    }
+
+    /**
+     * Name of the attribute storing the length of edges, or null if shortest
+     * paths are unweighted.
+     */
+    public String getWeightAttributeName() {
+        return weightAttributeName;
+    }
+
+    /**
+     * Specify the traversal used to compute single-source shortest paths. It
+     * is ignored in legacy mode. By default one breadth-first search is run
+     * per source.
+     *
+     * @param traversal The traversal.
+     */
+    public void setTraversal(Traversal traversal) {
+        this.traversal = traversal;
+    }
+
+    /**
+     * The traversal used to compute single-source shortest paths.
+     */
+    public Traversal getTraversal() {
+        return traversal;
+    }
+
+    /**
+     * Only count the shortest paths whose length is at most the given
+     * distance, in number of edges on unweighted graphs, see
+     * {@link StressEngine#setMaxDistance(double)}. Each traversal stops at
+     * this distance from its source, so when it is small the cost of a
+     * source only depends on its neighbourhood. Reductions and incremental
+     * updates are then disabled. By default paths are not bounded.
+     *
+     * @param maxDistance The maximum distance, infinite for no bound.
+     */
+    public void setMaxDistance(double maxDistance) {
+        if (!(maxDistance >= 0)) {
+            throw new IllegalArgumentException("maximum distance must be positive: " + maxDistance);
+        }
+
+        this.maxDistance = maxDistance;
+    }
+
+    /**
+     * Maximum distance of the paths counted, infinite if they are not
+     * bounded.
+     */
+    public double getMaxDistance() {
+        return maxDistance;
+    }
+
+    /**
+     * Tune the switch between the directions of the
+     * {@link Traversal#DIRECTION_OPTIMIZING_BFS} traversal, see
+     * {@link StressEngine#setDirectionSwitch(double, double)}. By default
+     * alpha is 2 and beta 24.
+     *
+     * @param alpha Factor of the arcs leaving the frontier, 0 to never go
+     *              bottom-up.
+     * @param beta  Factor of the size of the frontier.
+     */
+    public void setDirectionSwitch(double alpha, double beta) {
+        if (!(alpha >= 0) || !(beta >= 0)) {
+            throw new IllegalArgumentException("factors must be positive: " + alpha + ", " + beta);
+        }
+
+        this.directionAlpha = alpha;
+        this.directionBeta = beta;
+    }
+
+    /**
+     * Run the computations on the given snapshot of the graph instead of
+     * taking a new one at each computation, so that a snapshot can be reused
+     * by several runs. The snapshot must have been taken from the graph the
+     * algorithm is initialized with, or identify its nodes the same way, and
+     * its lengths replace the weight attribute. Its edges are matched with
+     * the ones of the graph by their end nodes when the centrality of edges
+     * is stored, whatever their order. It is ignored in legacy mode.
+     *
+     * @param snapshot The snapshot, or null to take a new one at each
+     *                 computation.
+     */
+    public void setSnapshot(CsrGraph snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * The snapshot of the graph computations run on, or null if a new one is
+     * taken at each computation.
+     */
+    public CsrGraph getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Remove the leaves of the graph, repeatedly, before computing, so that
+     * only the nodes left run a traversal, each standing for the trees cut
+     * from it. The stress of the removed nodes is then derived exactly from
+     * their position in their tree, see {@link LeafPeeling}. Chains of at
+     * least 3 nodes of degree 2 left then run two traversals, one from each
+     * end, instead of one per node. Graphs with many leaves, hanging trees or
+     * long chains, like Barabasi-Albert graphs with one edge per new node or
+     * road networks, need far fewer traversals. Only unweighted undirected graphs
+     * stored on the heap are reduced, with one breadth-first search per
+     * source whatever the traversal. It is ignored in legacy mode, for
+     * sampled computations, exact or logarithmic counts and when the
+     * centrality of edges is computed. By default it is deactivated.
+     *
+     * @param folding If it is true, leaves are removed and chains contracted
+     *                before computing.
+     */
+    public void setFolding(boolean folding) {
+        this.folding = folding;
+    }
+
+    /**
+     * Are the leaves removed before computing?
+     */
+    public boolean isFolding() {
+        return folding;
+    }
+
+    /**
+     * Merge twin nodes, nodes with the same neighbours, before computing, so
+     * that a single traversal is run for each class of twins. The stress of
+     * every twin is then derived exactly from the one of its class, see
+     * {@link TwinCompression}. Graphs where many nodes share their
+     * neighbours, like bipartite graphs of users and the services they use,
+     * need far fewer traversals. Only unweighted undirected graphs stored on
+     * the heap are reduced, with one breadth-first search per source whatever
+     * the traversal. When leaves are also removed, twins are merged only if
+     * the graph has no leaf. It is ignored in legacy mode, for sampled
+     * computations, exact or logarithmic counts and when the centrality of
+     * edges is computed. By default it is deactivated.
+     *
+     * @param twinCompression If it is true, twins are merged before
+     *                        computing.
+     */
+    public void setTwinCompression(boolean twinCompression) {
+        this.twinCompression = twinCompression;
+    }
+
+    /**
+     * Are twin nodes merged before computing?
+     */
+    public boolean isTwinCompression() {
+        return twinCompression;
+    }
+
+    /**
+     * Split the graph in its connected components and compute each of them
+     * on its own, see {@link StressEngine#computeComponents(int, ExecutorService)}.
+     * Components are then scheduled as independent tasks in parallel mode,
+     * and traversals use scratch spaces sized for their component, which
+     * suits graphs made of many mid-size components. It is ignored in
+     * legacy mode, off-heap, for sampled
+     * computations, exact or logarithmic counts, and when leaves or twins
+     * are removed from the graph. By default it is deactivated.
+     *
+     * @param decomposition If it is true, components are computed on their
+     *                      own.
+     */
+    public void setDecomposition(boolean decomposition) {
+        this.decomposition = decomposition;
+    }
+
+    /**
+     * Are connected components computed on their own?
+     */
+    public boolean isDecomposition() {
+        return decomposition;
+    }
+
+    /**
+     * Save checkpoints of the computation to the given file, so that a
+     * computation interrupted, for instance by the death of the process, is
+     * resumed from the last checkpoint by the next computation on the same
+     * graph. A checkpoint holds the number of sources processed, the
+     * centrality accumulated so far and a fingerprint of the graph, and is
+     * replaced atomically, so the file always holds a complete checkpoint.
+     * A checkpoint of another graph is ignored and overwritten. The file is
+     * deleted once the computation is complete. Checkpoints are only saved
+     * when every source is processed, not for sampled computations, exact or
+     * logarithmic counts, or when components are computed on their own. It
+     * is ignored in legacy mode. By default no checkpoint is saved.
+     *
+     * @param file The file, or null to save no checkpoint.
+     */
+    public void setCheckpoint(Path file) {
+        this.checkpointFile = file;
+    }
+
+    /**
+     * The file of the checkpoints, or null if none are saved.
+     */
+    public Path getCheckpoint() {
+        return checkpointFile;
+    }
+
+    /**
+     * Specify the time between two checkpoints. Saving a checkpoint writes
+     * the centrality of every node, so it should stay well above the time
+     * needed to write it. By default 10 minutes.
+     *
+     * @param milliseconds Time between two checkpoints, in milliseconds.
+     */
+    public void setCheckpointInterval(long milliseconds) {
+        this.checkpointInterval = milliseconds;
+    }
+
+    /**
+     * Store the snapshot of the graph and the scratch spaces of the
+     * traversals outside of the Java heap, so that besides the graph itself
+     * the heap only holds the centrality values. The snapshot is built from
+     * the graph, which stays on the heap : to process a graph the heap could
+     * not hold, give a snapshot mapped with {@link OffHeapCsrGraph#map(Path)}
+     * instead, see {@link #setSnapshot(CsrGraph)}. Only unweighted
+     * breadth-first searches are run off-heap. It is ignored in legacy mode
+     * or if a snapshot is given, an {@link OffHeapCsrGraph} snapshot being
+     * used off-heap anyway. By default it is deactivated.
+     *
+     * @param offHeap If it is true, the graph is stored off-heap.
+     */
+    public void setOffHeap(boolean offHeap) {
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * Are the graph and the scratch spaces stored off-heap?
+     */
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    /**
+     * Back the off-heap scratch spaces with temporary files of the given
+     * directory instead of direct buffers. By default direct buffers are
+     * used.
+     *
+     * @param directory The directory, or null for direct buffers.
+     */
+    public void setScratchDirectory(Path directory) {
+        this.scratchDirectory = directory;
+    }
+
+    /**
+     * Specify the arithmetic used to count shortest paths. Exact and
+     * logarithmic counts only run breadth-first searches on unweighted graphs
+     * stored on the heap, whatever the traversal, and compute neither the
+     * centrality of edges nor incremental updates. They are ignored in
+     * legacy mode and for sampled computations. By default counts are
+     * accumulated in doubles.
+     *
+     * @param counting The arithmetic.
+     */
+    public void setCounting(Counting counting) {
+        this.counting = counting;
+    }
+
+    /**
+     * The arithmetic used to count shortest paths.
+     */
+    public Counting getCounting() {
+        return counting;
+    }
+
+    /**
+     * Compute the centrality of edges in the same pass as the centrality of
+     * nodes, storing it in the centrality attribute of each edge. The
+     * centrality of an edge is the number of shortest paths going through
+     * it. It is ignored in legacy mode and for sampled computations, and the
+     * centrality is never updated incrementally when it is enabled. By
+     * default it is deactivated.
+     *
+     * @param edgeCentrality If it is true, the centrality of edges is
+     *                       computed.
+     */
+    public void setEdgeCentrality(boolean edgeCentrality) {
+        this.edgeCentrality = edgeCentrality;
+    }
+
+    /**
+     * Is the centrality of edges computed?
+     */
+    public boolean isEdgeCentrality() {
+        return edgeCentrality;
+    }
+
+    /**
+     * Keep the centrality up to date when the graph changes, recomputing only
+     * the sources whose shortest paths may have changed. The algorithm must
+     * be initialized after enabling this mode to listen to the graph. Sampled,
+     * weighted and legacy computations are never updated incrementally. By default it
+     * is deactivated.
+     *
+     * @param incrementalMode If it is true, the centrality is updated on graph
+     *                        events.
+     */
+    public void setIncrementalMode(boolean incrementalMode) {
+        this.incrementalMode = incrementalMode;
+
+        if (!incrementalMode) {
+            terminate();
+        } else if (graph != null) {
+            init(graph);
+        }
+    }
+
+    /**
+     * Is the centrality updated on graph events?
+     */
+    public boolean isIncrementalMode() {
+        return incrementalMode;
+    }
+
+    /**
+     * Specify the fraction of the sources above which an incremental update
+     * is abandoned for a full computation. By default 0.5, since an affected
+     * source costs two traversals.
+     *
+     * @param threshold Fraction of the sources, between 0 and 1.
+     */
+    public void setIncrementalThreshold(double threshold) {
+        this.incrementalThreshold = threshold;
+    }
+
+    /**
+     * Estimate the centrality from a sample of the sources instead of
+     * processing all of them. It is ignored in legacy mode. By default the
+     * computation is exact.
+     *
+     * @param sampler The sampler, or null for exact computations.
+     */
+    public void setSampler(StressSampler sampler) {
+        this.sampler = sampler;
+    }
+
+    /**
+     * The sampler estimating the centrality, or null if the computation is
+     * exact.
+     */
+    public StressSampler getSampler() {
+        return sampler;
+    }
+
+    /**
+     * Share the sources among worker processes, each computing shards of
+     * them on its own copy of the graph, see {@link StressCoordinator}. It is
+     * only used by exact computations counting paths with doubles, on the
+     * heap, and disables the reductions of the graph. By default the
+     * computation runs in this process.
+     *
+     * @param coordinator The coordinator, or null to compute locally.
+     */
+    public void setCoordinator(StressCoordinator coordinator) {
+        this.coordinator = coordinator;
+    }
+
+    /**
+     * The coordinator sharing the sources among worker processes, or null if
+     * the computation runs in this process.
+     */
+    public StressCoordinator getCoordinator() {
+        return coordinator;
+    }
+
+    /**
+     * Result of the last computation, with the number of sources processed
+     * and the error bound of estimates. Null before the first computation or
+     * in legacy mode.
+     */
+    public StressResult getResult() {
+        return result;
+    }
+
+    /**
+     * Process the sources in parallel. The sources are split in
+     * {@link #getPartitions()} ranges run on the executor, and the partial
+     * results are summed in a fixed order, so a given number of partitions
+     * always gives the same values whatever the number of threads. By
+     * default it is deactivated.
+     *
+     * @param parallel If it is true, sources are processed in parallel.
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Are the sources processed in parallel?
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Specify the executor running the partitions of the sources in parallel
+     * mode, and the levels of the {@link Traversal#PARALLEL_BFS} traversal.
+     * By default the common fork/join pool is used.
+     *
+     * @param executor The executor, or null to use the common pool.
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Specify the number of partitions of the sources in parallel mode, and
+     * of threads sharing each level of the {@link Traversal#PARALLEL_BFS}
+     * traversal. By default, or if not positive, one partition per thread of
+     * the executor.
+     *
+     * @param partitions Number of partitions.
+     */
+    public void setPartitions(int partitions) {
+        this.partitions = partitions;
+    }
+
+    /**
+     * Number of partitions of the sources used in parallel mode.
+     */
+    public int getPartitions() {
+        if (partitions > 0) {
+            return partitions;
+        } else if (executor instanceof ForkJoinPool) {
+            return ((ForkJoinPool) executor).getParallelism();
+        } else if (executor == null) {
+            return ForkJoinPool.commonPool().getParallelism();
+        }
+
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    public void nodeAdded(String sourceId, long timeId, String nodeId) {
+        if (incremental != null) {
+            incremental.nodeAdded(nodeId);
+        }
+    }
+
+    public void nodeRemoved(String sourceId, long timeId, String nodeId) {
+        if (incremental != null) {
+            incremental.nodeRemoved(nodeId);
+        }
+    }
+
+    public void edgeAdded(String sourceId, long timeId, String edgeId, String fromNodeId, String toNodeId,
+                          boolean directed) {
+        if (incremental != null) {
+            incremental.edgeAdded(edgeId, fromNodeId, toNodeId, directed);
+        }
+    }
+
+    public void edgeRemoved(String sourceId, long timeId, String edgeId) {
+        if (incremental != null) {
+            incremental.edgeRemoved(edgeId);
+        }
+    }
+
+    public void graphCleared(String sourceId, long timeId) {
+        incremental = null;
+    }
+
+    public void stepBegins(String sourceId, long timeId, double step) {
+        if (incremental != null) {
+            updateCentrality();
+        }
+    }
+
     /**
      * Delete attributes used by this algorithm in nodes and edges of the graph
      */
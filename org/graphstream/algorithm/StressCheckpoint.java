@@ -0,0 +1,269 @@
+package org.graphstream.algorithm;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Checkpoint of a computation of a {@link StressEngine}, stored in a file.
+ *
+ * A checkpoint holds the number of sources already processed, the sources
+ * being processed in index order, the centrality accumulated so far, and a
+ * fingerprint of the snapshot the engine runs on, so that a computation is
+ * only resumed on the same graph. Values are little-endian : a header (magic,
+ * flags, fingerprint, nodes, edges, processed sources), then the centrality
+ * of nodes, and the optional centrality of edges and weighted numbers of
+ * paths of an engine with multiplicities.
+ *
+ * A checkpoint is first written to a temporary file of the same directory,
+ * then moved atomically over the previous one, so the file always holds a
+ * complete checkpoint even if the process dies while saving.
+ */
+class StressCheckpoint {
+
+    /**
+     * First bytes of a checkpoint, "SCK1" in little-endian order.
+     */
+    static final int MAGIC = 0x314B4353;
+
+    /**
+     * Flag of the centrality of edges.
+     */
+    static final int EDGES = 1;
+
+    /**
+     * Flag of the numbers of paths.
+     */
+    static final int PATHS = 2;
+
+    /**
+     * Size of the header in bytes.
+     */
+    static final int HEADER = 28;
+
+    /**
+     * The file.
+     */
+    protected final Path file;
+
+    /**
+     * Fingerprint of the engine.
+     */
+    protected final long fingerprint;
+
+    /**
+     * New checkpoint of the given engine.
+     *
+     * @param file   The file.
+     * @param engine The engine.
+     */
+    StressCheckpoint(Path file, StressEngine engine) {
+        this.file = file;
+        this.fingerprint = fingerprint(engine);
+    }
+
+    /**
+     * Hash of the arcs, lengths, edges and multiplicities of the graph of an
+     * engine, and of what it computes.
+     *
+     * @param engine The engine.
+     */
+    static long fingerprint(StressEngine engine) {
+        CsrGraph graph = engine.getGraph();
+        int n = graph.getNodeCount();
+        long hash = mix(mix(0xCBF29CE484222325L, n), graph.getEdgeCount());
+
+        hash = mix(hash, engine.getEdgeCentrality() != null ? 1 : 0);
+
+        if (engine.getMaxDistance() < Double.POSITIVE_INFINITY) {
+            hash = mix(hash, Double.doubleToLongBits(engine.getMaxDistance()));
+        }
+
+        for (int v = 0; v < n; v++) {
+            int degree = graph.getDegree(v);
+
+            hash = mix(hash, degree);
+
+            for (int k = 0; k < degree; k++) {
+                hash = mix(hash, graph.getNeighbor(v, k));
+
+                if (graph.isWeighted()) {
+                    hash = mix(hash, Double.doubleToLongBits(graph.getLength(v, k)));
+                }
+
+                if (engine.getEdgeCentrality() != null) {
+                    hash = mix(hash, graph.getEdge(v, k));
+                }
+            }
+
+            if (engine.multiplicities != null) {
+                hash = mix(hash, Double.doubleToLongBits(engine.multiplicities[v]));
+                hash = mix(hash, Double.doubleToLongBits(engine.copies[v]));
+            }
+        }
+
+        return hash;
+    }
+
+    /**
+     * Add a value to a hash.
+     */
+    protected static long mix(long hash, long value) {
+        hash = (hash ^ value) * 0x100000001B3L;
+
+        return hash ^ (hash >>> 31);
+    }
+
+    /**
+     * Load the checkpoint into the engine if it exists and was saved on the
+     * same graph. The centrality of the engine must still be zero.
+     *
+     * @param engine The engine.
+     * @return The number of sources already processed, 0 if the file does not
+     * exist or belongs to another graph.
+     */
+    int restore(StressEngine engine) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+
+        try {
+            ByteBuffer header = read(channel, ByteBuffer.allocate(HEADER));
+            double[] edgeCentrality = engine.getEdgeCentrality();
+
+            if (header.getInt() != MAGIC) {
+                throw new IOException(file + " is not a stress checkpoint");
+            }
+
+            int flags = header.getInt();
+
+            if (header.getLong() != fingerprint || header.getInt() != engine.getNodeCount()
+                    || ((flags & EDGES) != 0) != (edgeCentrality != null)
+                    || ((flags & PATHS) != 0) != (engine.paths != null)) {
+                return 0;
+            }
+
+            header.getInt();
+            int processed = header.getInt();
+
+            readDoubles(channel, engine.centrality);
+
+            if (edgeCentrality != null) {
+                readDoubles(channel, edgeCentrality);
+            }
+
+            if (engine.paths != null) {
+                readDoubles(channel, engine.paths);
+            }
+
+            return processed;
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Save the state of the engine, replacing the previous checkpoint.
+     *
+     * @param engine    The engine.
+     * @param processed Number of sources processed, from index 0.
+     */
+    void save(StressEngine engine, int processed) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+
+        try {
+            FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE);
+
+            try {
+                double[] edgeCentrality = engine.getEdgeCentrality();
+                int flags = (edgeCentrality != null ? EDGES : 0) | (engine.paths != null ? PATHS : 0);
+                ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+
+                buffer.putInt(MAGIC).putInt(flags).putLong(fingerprint).putInt(engine.getNodeCount())
+                        .putInt(edgeCentrality != null ? edgeCentrality.length : 0).putInt(processed);
+                writeDoubles(channel, buffer, engine.centrality);
+
+                if (edgeCentrality != null) {
+                    writeDoubles(channel, buffer, edgeCentrality);
+                }
+
+                if (engine.paths != null) {
+                    writeDoubles(channel, buffer, engine.paths);
+                }
+
+                EdgeListLoader.flush(channel, buffer);
+                channel.force(false);
+            } finally {
+                channel.close();
+            }
+
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Delete the checkpoint, once the computation is complete.
+     */
+    void delete() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Write an array of doubles through a buffer.
+     */
+    protected static void writeDoubles(FileChannel channel, ByteBuffer buffer, double[] values) throws IOException {
+        for (int offset = 0; offset < values.length; ) {
+            if (buffer.remaining() < 8) {
+                EdgeListLoader.flush(channel, buffer);
+            }
+
+            int count = Math.min(values.length - offset, buffer.remaining() / 8);
+
+            buffer.asDoubleBuffer().put(values, offset, count);
+            buffer.position(buffer.position() + count * 8);
+            offset += count;
+        }
+    }
+
+    /**
+     * Read an array of doubles following the current position of a file.
+     */
+    protected static void readDoubles(FileChannel channel, double[] values) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+
+        for (int offset = 0; offset < values.length; ) {
+            int count = Math.min(values.length - offset, buffer.capacity() / 8);
+
+            buffer.clear().limit(count * 8);
+            read(channel, buffer).asDoubleBuffer().get(values, offset, count);
+            offset += count;
+        }
+    }
+
+    /**
+     * Fill a buffer from the current position of a file.
+     *
+     * @return The buffer, flipped and little-endian.
+     */
+    protected static ByteBuffer read(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("truncated checkpoint");
+            }
+        }
+
+        buffer.flip();
+
+        return buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
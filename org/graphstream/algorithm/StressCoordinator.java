@@ -0,0 +1,601 @@
+package org.graphstream.algorithm;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compute the stress centrality with several worker processes, see
+ * {@link StressWorker}.
+ *
+ * The sources are split in a fixed number of contiguous shards. The
+ * coordinator writes the snapshot of the graph as a binary cache, see
+ * {@link EdgeListLoader#writeCache(CsrGraph, Path)}, launches worker JVMs on
+ * the same host, and serves the shards to the workers connecting to it on a
+ * local socket. Each worker loads the snapshot, checks that it has the same
+ * fingerprint as the one of the coordinator, and streams back the
+ * centrality of each shard it computes.
+ *
+ * Partial results are added to the centrality in shard order, each shard
+ * being kept only until the ones before it are added, so the result does not
+ * depend on which worker computed which shard nor on their speed : for given
+ * numbers of shards and partitions, it is always the same. A shard whose
+ * worker dies, closes the connection or does not answer within the shard
+ * timeout is given to another worker, and dead worker processes are
+ * launched again. A shard failing too many times fails the computation.
+ *
+ * Each worker runs with the class path of the coordinator by default. The
+ * command launching a worker can be changed by overriding
+ * {@link #workerCommand(int)}, and workers started by other means can join
+ * the computation through {@link #getPort()}.
+ */
+public class StressCoordinator {
+
+    /**
+     * Number of worker processes launched.
+     */
+    protected int workers;
+
+    /**
+     * Number of shards, four per worker if not positive.
+     */
+    protected int shards = 0;
+
+    /**
+     * Number of partitions of each shard in a worker.
+     */
+    protected int partitions = 1;
+
+    /**
+     * Time allowed to a worker to compute a shard in milliseconds, or 0 for
+     * no limit.
+     */
+    protected long shardTimeout = 0;
+
+    /**
+     * Number of failures of a shard after which the computation fails.
+     */
+    protected int maxAttempts = 3;
+
+    /**
+     * Directory of the snapshot and of the logs of the workers, a temporary
+     * one if null.
+     */
+    protected Path directory = null;
+
+    /**
+     * Options of the JVMs of the workers.
+     */
+    protected List<String> jvmOptions = new ArrayList<String>();
+
+    /**
+     * Socket the workers connect to, while a computation runs.
+     */
+    protected ServerSocket server;
+
+    /**
+     * File of the snapshot of the running computation.
+     */
+    protected Path snapshot;
+
+    /**
+     * The engine of the running computation.
+     */
+    protected StressEngine engine;
+
+    /**
+     * First source of each shard, the number of sources ending the array.
+     */
+    protected int[] starts;
+
+    /**
+     * Shards waiting for a worker.
+     */
+    protected final BlockingQueue<Integer> pending = new LinkedBlockingQueue<Integer>();
+
+    /**
+     * Number of failures of each shard.
+     */
+    protected int[] attempts;
+
+    /**
+     * Results of the shards received before the ones preceding them, by
+     * shard.
+     */
+    protected double[][][] received;
+
+    /**
+     * Next shard to add to the centrality.
+     */
+    protected int merged;
+
+    /**
+     * Is the running computation over?
+     */
+    protected volatile boolean finished;
+
+    /**
+     * Failure of the running computation, or null.
+     */
+    protected RuntimeException failure;
+
+    /**
+     * New coordinator launching the given number of worker processes.
+     *
+     * @param workers Number of worker processes, 0 to only serve workers
+     *                started by other means.
+     */
+    public StressCoordinator(int workers) {
+        if (workers < 0) {
+            throw new IllegalArgumentException("workers must be positive: " + workers);
+        }
+
+        this.workers = workers;
+    }
+
+    /**
+     * Specify the number of shards of the sources. By default, or if not
+     * positive, four per worker.
+     *
+     * @param shards Number of shards.
+     */
+    public void setShards(int shards) {
+        this.shards = shards;
+    }
+
+    /**
+     * Number of shards of the sources of a graph of the given size.
+     *
+     * @param n Number of nodes.
+     */
+    public int getShards(int n) {
+        int count = shards > 0 ? shards : 4 * Math.max(1, workers);
+
+        return Math.max(1, Math.min(count, n));
+    }
+
+    /**
+     * Specify the number of partitions of each shard, computed in parallel
+     * by the threads of a worker and reduced in order, see
+     * {@link StressEngine#compute(int, int, int, java.util.concurrent.ExecutorService)}.
+     * By default each shard is one partition.
+     *
+     * @param partitions Number of partitions.
+     */
+    public void setPartitions(int partitions) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions must be positive: " + partitions);
+        }
+
+        this.partitions = partitions;
+    }
+
+    /**
+     * Specify the time allowed to a worker to compute a shard, after which
+     * the shard is given to another worker. By default there is no limit.
+     *
+     * @param shardTimeout The time in milliseconds, or 0 for no limit.
+     */
+    public void setShardTimeout(long shardTimeout) {
+        this.shardTimeout = shardTimeout;
+    }
+
+    /**
+     * Specify the number of failures of a shard after which the computation
+     * fails. By default 3.
+     *
+     * @param maxAttempts Number of failures.
+     */
+    public void setMaxAttempts(int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("attempts must be positive: " + maxAttempts);
+        }
+
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Specify the directory where the snapshot of the graph and the logs of
+     * the workers are written. It must be readable by the workers. By
+     * default a temporary directory is created and deleted at the end of
+     * each computation that does not fail.
+     *
+     * @param directory The directory, or null for a temporary one.
+     */
+    public void setDirectory(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Specify options of the JVMs of the workers, like their heap size.
+     *
+     * @param options The options.
+     */
+    public void setJvmOptions(List<String> options) {
+        this.jvmOptions = new ArrayList<String>(options);
+    }
+
+    /**
+     * Port of the local socket the workers connect to, while a computation
+     * runs, or -1.
+     */
+    public int getPort() {
+        ServerSocket server = this.server;
+
+        return server != null ? server.getLocalPort() : -1;
+    }
+
+    /**
+     * Compute the contribution of every source of an engine with the worker
+     * processes, adding it to the centrality of the engine. The snapshot of
+     * the engine must be on the heap and without multiplicities. The
+     * traversal, the maximum distance and the centrality of edges of the
+     * engine are used by the workers. If the meter of the engine stops the
+     * computation, no other shard is given out and the result only holds the
+     * shards received in order.
+     *
+     * @param engine The engine.
+     * @return The centrality of each node and edge.
+     */
+    public StressResult compute(StressEngine engine) {
+        if (engine.isOffHeap() || engine.multiplicities != null) {
+            throw new IllegalStateException("sharded computations need a graph on the heap without multiplicities");
+        }
+
+        int n = engine.getNodeCount();
+        int count = getShards(n);
+        Path work = directory;
+        List<Process> processes = new ArrayList<Process>();
+
+        this.engine = engine;
+        this.starts = new int[count + 1];
+        this.attempts = new int[count];
+        this.received = new double[count][][];
+        this.merged = 0;
+        this.finished = false;
+        this.failure = null;
+        pending.clear();
+
+        for (int s = 0; s <= count; s++) {
+            starts[s] = engine.partitionStart(0, n, s, count);
+        }
+
+        for (int s = 0; s < count; s++) {
+            pending.add(s);
+        }
+
+        try {
+            if (work == null) {
+                work = Files.createTempDirectory("stress");
+            }
+
+            snapshot = work.resolve("snapshot-" + Long.toHexString(StressCheckpoint.fingerprint(engine)) + ".csr");
+            EdgeListLoader.writeCache(engine.getGraph(), snapshot);
+            server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+
+            Thread acceptor = new Thread(new Runnable() {
+                public void run() {
+                    accept();
+                }
+            }, "stress-coordinator");
+
+            acceptor.setDaemon(true);
+            acceptor.start();
+
+            for (int w = 0; w < workers; w++) {
+                processes.add(launch(w, work));
+            }
+
+            supervise(processes, work);
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot run the workers", e);
+        } finally {
+            finished = true;
+            close(processes);
+
+            // The logs of the workers are kept if the computation failed
+            if (directory == null && work != null && failure == null) {
+                delete(work);
+            }
+
+            this.engine = null;
+            this.received = null;
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+
+        StressResult result = new StressResult(engine.getCentrality(), engine.getEdgeCentrality());
+
+        return merged < count ? result.toPartial(starts[merged]) : result;
+    }
+
+    /**
+     * Wait for the end of the computation, launching again the worker
+     * processes that died while shards remain.
+     *
+     * @param processes The worker processes, by slot.
+     * @param work      The working directory.
+     */
+    protected void supervise(List<Process> processes, Path work) throws IOException {
+        int restarts = maxAttempts * Math.max(1, workers);
+
+        synchronized (this) {
+            while (!finished) {
+                if (engine.isStopped()) {
+                    finished = true;
+                    break;
+                }
+
+                for (int w = 0; w < processes.size(); w++) {
+                    if (!processes.get(w).isAlive() && merged < starts.length - 1) {
+                        if (restarts-- == 0) {
+                            failure = new IllegalStateException("stress workers keep failing, see the logs in " + work);
+                            finished = true;
+                            break;
+                        }
+
+                        processes.set(w, launch(w, work));
+                    }
+                }
+
+                try {
+                    wait(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failure = new IllegalStateException("stress centrality computation interrupted", e);
+                    finished = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Accept the connections of the workers, serving each one in its own
+     * thread, until the computation is over.
+     */
+    protected void accept() {
+        while (!finished) {
+            try {
+                final Socket socket = server.accept();
+                Thread thread = new Thread(new Runnable() {
+                    public void run() {
+                        serve(socket);
+                    }
+                }, "stress-shards-" + socket.getPort());
+
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                // The socket is closed at the end of the computation
+            }
+        }
+    }
+
+    /**
+     * Serve shards to a worker until none is left, giving its shard back if
+     * it fails.
+     *
+     * @param socket The connection of the worker.
+     */
+    protected void serve(Socket socket) {
+        int shard = -1;
+
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+            StressEngine engine = this.engine;
+            double[] edgeCentrality = engine.getEdgeCentrality();
+
+            socket.setTcpNoDelay(true);
+            out.writeInt(StressWorker.MAGIC);
+            out.writeUTF(snapshot.toAbsolutePath().toString());
+            out.writeBoolean(edgeCentrality != null);
+            out.writeUTF(engine.traversal.name());
+            out.writeDouble(engine.getMaxDistance());
+            out.writeInt(partitions);
+            out.flush();
+
+            if (in.readInt() != StressWorker.MAGIC || in.readLong() != StressCheckpoint.fingerprint(engine)) {
+                throw new IOException("the worker did not load the same graph");
+            }
+
+            while (true) {
+                shard = -1;
+
+                while (!finished && shard < 0) {
+                    Integer next = pending.poll(100, TimeUnit.MILLISECONDS);
+                    shard = next != null ? next : -1;
+                }
+
+                if (shard < 0) {
+                    out.writeInt(-1);
+                    out.flush();
+                    break;
+                }
+
+                long start = System.nanoTime();
+
+                socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, shardTimeout));
+                out.writeInt(shard);
+                out.writeInt(starts[shard]);
+                out.writeInt(starts[shard + 1]);
+                out.flush();
+
+                if (in.readInt() != shard) {
+                    throw new IOException("unexpected answer of the worker");
+                }
+
+                long arcs = in.readLong();
+                double[][] partial = new double[][]{new double[engine.getNodeCount()],
+                        edgeCentrality != null ? new double[edgeCentrality.length] : null};
+
+                StressWorker.readDoubles(in, partial[0]);
+
+                if (partial[1] != null) {
+                    StressWorker.readDoubles(in, partial[1]);
+                }
+
+                engine.record(starts[shard + 1] - starts[shard], arcs, start);
+                complete(shard, partial);
+            }
+        } catch (SocketTimeoutException e) {
+            fail(shard, e);
+        } catch (IOException e) {
+            fail(shard, e);
+        } catch (InterruptedException e) {
+            fail(shard, e);
+        } catch (RuntimeException e) {
+            fail(shard, e);
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Nothing left to do with the worker
+            }
+        }
+    }
+
+    /**
+     * Keep the result of a shard, adding to the centrality every shard whose
+     * predecessors are all added.
+     *
+     * @param shard   The shard.
+     * @param partial Its centrality of nodes and edges.
+     */
+    protected synchronized void complete(int shard, double[][] partial) {
+        if (finished || shard < merged || received[shard] != null) {
+            return;
+        }
+
+        received[shard] = partial;
+
+        while (merged < received.length && received[merged] != null) {
+            engine.reduce(received[merged]);
+            received[merged++] = null;
+        }
+
+        if (merged == received.length) {
+            finished = true;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Give the shard of a failed worker to another one, or fail the
+     * computation if it failed too many times.
+     *
+     * @param shard The shard, or -1 if the worker had none.
+     * @param cause The failure.
+     */
+    protected synchronized void fail(int shard, Exception cause) {
+        if (shard < 0 || finished) {
+            return;
+        }
+
+        if (++attempts[shard] >= maxAttempts) {
+            failure = new IllegalStateException("shard " + shard + " failed " + attempts[shard] + " times", cause);
+            finished = true;
+            notifyAll();
+        } else {
+            pending.add(shard);
+        }
+    }
+
+    /**
+     * Launch a worker process, its output being appended to a log of the
+     * working directory.
+     *
+     * @param slot The slot of the worker.
+     * @param work The working directory.
+     * @return The process.
+     */
+    protected Process launch(int slot, Path work) throws IOException {
+        ProcessBuilder builder = new ProcessBuilder(workerCommand(slot));
+
+        builder.redirectErrorStream(true);
+        builder.redirectOutput(ProcessBuilder.Redirect.appendTo(work.resolve("worker-" + slot + ".log").toFile()));
+
+        return builder.start();
+    }
+
+    /**
+     * Command line of a worker process : a JVM with the class path of the
+     * coordinator running {@link StressWorker#main(String[])}.
+     *
+     * @param slot The slot of the worker.
+     * @return The command and its arguments.
+     */
+    protected List<String> workerCommand(int slot) {
+        List<String> command = new ArrayList<String>();
+
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(StressWorker.class.getName());
+        command.add(server.getInetAddress().getHostAddress());
+        command.add(Integer.toString(server.getLocalPort()));
+
+        return command;
+    }
+
+    /**
+     * Close the socket and stop the worker processes.
+     *
+     * @param processes The worker processes.
+     */
+    protected void close(List<Process> processes) {
+        try {
+            if (server != null) {
+                server.close();
+            }
+        } catch (IOException e) {
+            // The workers stop when the connection is closed
+        }
+
+        server = null;
+
+        for (Process process : processes) {
+            try {
+                if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Delete a temporary directory and its files.
+     *
+     * @param work The directory.
+     */
+    protected void delete(Path work) {
+        try {
+            File[] files = work.toFile().listFiles();
+
+            if (files != null) {
+                for (File file : files) {
+                    Files.deleteIfExists(file.toPath());
+                }
+            }
+
+            Files.deleteIfExists(work);
+        } catch (IOException e) {
+            // Left to the cleaning of temporary files
+        }
+    }
+}
@@ -0,0 +1,1291 @@
+package org.graphstream.algorithm;
+
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Array based computation of the stress centrality.
+ *
+ * The graph is indexed once, as a {@link CsrGraph} snapshot : every node is
+ * identified by its dense GraphStream index and the leaving neighbours of all
+ * nodes are stored in a single array of indices. Sigma, delta and distance values
+ * live in primitive arrays instead of node attributes, so the single-source
+ * computations do not go through the attribute maps at all. Only the final
+ * centrality is meant to be written back on the graph, see
+ * {@link StressCentrality}.
+ *
+ * The index is only read once built, so sources can be processed by several
+ * threads at the same time. Each thread borrows its own
+ * {@link StressWorkspace} for the time of a partition of the sources, so at
+ * most one workspace per running thread is ever allocated.
+ */
+public class StressEngine {
+
+    /**
+     * Number of sources processed between two records of the meter.
+     */
+    static final int CHUNK = 64;
+
+    /**
+     * The indexed graph, or null if the engine only has a snapshot.
+     */
+    protected Graph graph;
+
+    /**
+     * The snapshot of the graph.
+     */
+    protected final CsrGraph csr;
+
+    /**
+     * Number of nodes.
+     */
+    protected final int n;
+
+    /**
+     * Number of edges.
+     */
+    protected final int m;
+
+    /**
+     * First arc of each node, see {@link CsrGraph}.
+     */
+    protected final int[] offsets;
+
+    /**
+     * Target of each arc.
+     */
+    protected final int[] neighbors;
+
+    /**
+     * Length of each arc, or null for an unweighted graph.
+     */
+    protected final double[] lengths;
+
+    /**
+     * Index of the edge of each arc, or null if the centrality of edges is
+     * not computed.
+     */
+    protected final int[] edgeIds;
+
+    /**
+     * The centrality accumulated so far.
+     */
+    protected double[] centrality;
+
+    /**
+     * The centrality of edges accumulated so far, or null if it is not
+     * computed.
+     */
+    protected double[] edgeCentrality;
+
+    /**
+     * Number of nodes of the original graph each node stands for, or null if
+     * each node stands for itself.
+     */
+    protected double[] multiplicities = null;
+
+    /**
+     * Number of copies of each node inside paths, or null if nodes have no
+     * multiplicity.
+     */
+    protected double[] copies = null;
+
+    /**
+     * Number of shortest paths from each source to the other nodes, weighted
+     * by their multiplicity, or null if nodes have no multiplicity.
+     */
+    protected double[] paths = null;
+
+    /**
+     * Index of the first node of each chain, then the number of nodes, or
+     * null if the graph has no chain.
+     */
+    protected int[] chainStarts = null;
+
+    /**
+     * The two ends of each chain, or null if the graph has no chain.
+     */
+    protected int[] chainEnds = null;
+
+    /**
+     * The traversal used for single-source shortest paths.
+     */
+    protected StressCentrality.Traversal traversal = StressCentrality.Traversal.BFS;
+
+    /**
+     * Maximum distance of the paths counted, infinite if they are not
+     * bounded.
+     */
+    protected double maxDistance = Double.POSITIVE_INFINITY;
+
+    /**
+     * Maximum number of arcs of the paths counted on unweighted graphs.
+     */
+    protected int maxHops = Integer.MAX_VALUE;
+
+    /**
+     * Factor of the arcs leaving the frontier above which direction-optimizing
+     * searches go bottom-up.
+     */
+    protected double directionAlpha = 2.0;
+
+    /**
+     * Factor of the size of the frontier below which direction-optimizing
+     * searches go top-down again.
+     */
+    protected double directionBeta = 24.0;
+
+    /**
+     * Entering neighbours of each node, built on first use, or null.
+     */
+    protected CsrGraph reverse = null;
+
+    /**
+     * Executor running the tasks sharing the levels of parallel searches, or
+     * null for the common pool.
+     */
+    protected Executor levelExecutor = null;
+
+    /**
+     * Number of threads sharing the levels of parallel searches, or 0 for the
+     * parallelism of their executor.
+     */
+    protected int levelTasks = 0;
+
+    /**
+     * Directory of the files backing off-heap scratch spaces, or null for
+     * direct buffers.
+     */
+    protected Path scratchDirectory = null;
+
+    /**
+     * Scratch spaces not currently used by a thread.
+     */
+    protected final Queue<StressWorkspace> workspaces = new ConcurrentLinkedQueue<StressWorkspace>();
+
+    /**
+     * Counters of the computation, or null if its progress is not reported.
+     */
+    protected StressMeter meter = null;
+
+    /**
+     * New engine on the given graph. The graph is indexed immediately and must
+     * not be modified while the engine is in use.
+     *
+     * @param graph The graph to index.
+     */
+    public StressEngine(Graph graph) {
+        this(graph, null);
+    }
+
+    /**
+     * New engine on the given weighted graph. Shortest paths are computed
+     * with the lengths stored in the given edge attribute, an edge without
+     * this attribute having length 1. Lengths must be positive.
+     *
+     * @param graph           The graph to index.
+     * @param weightAttribute Name of the attribute storing the length of
+     *                        edges, or null for an unweighted graph.
+     */
+    public StressEngine(Graph graph, String weightAttribute) {
+        this(graph, weightAttribute, false);
+    }
+
+    /**
+     * New engine on the given weighted graph, optionally computing the
+     * centrality of edges too.
+     *
+     * @param graph           The graph to index.
+     * @param weightAttribute Name of the attribute storing the length of
+     *                        edges, or null for an unweighted graph.
+     * @param edges           Compute the centrality of edges?
+     */
+    public StressEngine(Graph graph, String weightAttribute, boolean edges) {
+        this(new CsrGraph(graph, weightAttribute), edges);
+        this.graph = graph;
+    }
+
+    /**
+     * New engine on a snapshot of a graph. The snapshot can be shared by
+     * several engines.
+     *
+     * @param csr   The snapshot.
+     * @param edges Compute the centrality of edges? The snapshot must know
+     *              the edges of its arcs.
+     */
+    public StressEngine(CsrGraph csr, boolean edges) {
+        if (edges && !csr.hasEdges()) {
+            throw new IllegalArgumentException("the snapshot does not know its edges");
+        }
+
+        this.graph = null;
+        this.csr = csr;
+        this.n = csr.getNodeCount();
+        this.m = csr.getEdgeCount();
+        this.offsets = csr.offsets;
+        this.neighbors = csr.neighbors;
+        this.lengths = csr.lengths;
+        this.edgeIds = edges ? csr.edges : null;
+        this.centrality = new double[n];
+        this.edgeCentrality = edges ? new double[m] : null;
+    }
+
+    /**
+     * New engine on an unweighted graph, without GraphStream nodes.
+     *
+     * @param adjacency Leaving neighbours of each node, by index.
+     */
+    StressEngine(int[][] adjacency) {
+        this(CsrGraph.fromAdjacency(adjacency), false);
+    }
+
+    /**
+     * Number of indexed nodes.
+     */
+    public int getNodeCount() {
+        return n;
+    }
+
+    /**
+     * The snapshot of the graph.
+     */
+    public CsrGraph getGraph() {
+        return csr;
+    }
+
+    /**
+     * The node with the given index.
+     *
+     * @param index Index of the node.
+     * @return The node of the indexed graph, or null if the engine only has a
+     * snapshot.
+     */
+    public Node getNode(int index) {
+        return graph != null ? graph.getNode(index) : null;
+    }
+
+    /**
+     * Specify the traversal used for single-source shortest paths. It must be
+     * set before the first computation.
+     *
+     * @param traversal The traversal.
+     */
+    public void setTraversal(StressCentrality.Traversal traversal) {
+        this.traversal = traversal;
+        workspaces.clear();
+    }
+
+    /**
+     * Only count the shortest paths whose length is at most the given
+     * distance, in number of arcs on unweighted graphs. Each traversal stops
+     * once the nodes at this distance are reached, so its cost only depends
+     * on the neighbourhood of its source within the distance. Nodes with
+     * multiplicities are not supported. It must be set before the first
+     * computation.
+     *
+     * @param maxDistance The maximum distance, infinite for no bound.
+     */
+    public void setMaxDistance(double maxDistance) {
+        if (!(maxDistance >= 0)) {
+            throw new IllegalArgumentException("maximum distance must be positive: " + maxDistance);
+        }
+
+        if (multiplicities != null && maxDistance < Double.POSITIVE_INFINITY) {
+            throw new IllegalStateException("bounded distances need nodes without multiplicities");
+        }
+
+        this.maxDistance = maxDistance;
+        this.maxHops = maxDistance < Integer.MAX_VALUE ? (int) maxDistance : Integer.MAX_VALUE;
+        workspaces.clear();
+    }
+
+    /**
+     * Maximum distance of the paths counted, infinite if they are not
+     * bounded.
+     */
+    public double getMaxDistance() {
+        return maxDistance;
+    }
+
+    /**
+     * Tune the switch between the directions of direction-optimizing
+     * searches, see {@link DirectionOptimizingWorkspace}. A level is
+     * discovered bottom-up when the arcs leaving the frontier, multiplied by
+     * alpha, outnumber the arcs entering the nodes not reached yet, and
+     * top-down again once the size of the frontier, multiplied by beta, is
+     * below the number of nodes. Larger alphas go bottom-up earlier, larger
+     * betas stay bottom-up longer. Bottom-up steps collecting the sigma of
+     * every parent, they pay off later than in plain searches. By default
+     * alpha is 2 and beta 24. It must be set before the first computation.
+     *
+     * @param alpha Factor of the arcs leaving the frontier, 0 to never go
+     *              bottom-up.
+     * @param beta  Factor of the size of the frontier.
+     */
+    public void setDirectionSwitch(double alpha, double beta) {
+        if (!(alpha >= 0) || !(beta >= 0)) {
+            throw new IllegalArgumentException("factors must be positive: " + alpha + ", " + beta);
+        }
+
+        this.directionAlpha = alpha;
+        this.directionBeta = beta;
+        workspaces.clear();
+    }
+
+    /**
+     * Specify the executor running the tasks that share the levels of
+     * parallel searches, see {@link ParallelBfsWorkspace}, and the number of
+     * threads sharing each level, the calling one included. The calling
+     * thread always takes part in each level, so the executor may be busy,
+     * even with the partitions of the sources, without blocking the
+     * searches. By default the common fork/join pool is used, with one
+     * thread per thread of the pool. It must be set before the first
+     * computation.
+     *
+     * @param executor The executor, or null for the common pool.
+     * @param tasks    Number of threads sharing a level, or 0 for the
+     *                 parallelism of the executor.
+     */
+    public void setLevelExecutor(Executor executor, int tasks) {
+        if (tasks < 0) {
+            throw new IllegalArgumentException("tasks must be positive: " + tasks);
+        }
+
+        this.levelExecutor = executor;
+        this.levelTasks = tasks;
+        workspaces.clear();
+    }
+
+    /**
+     * The executor running the tasks that share the levels of parallel
+     * searches.
+     */
+    public Executor getLevelExecutor() {
+        return levelExecutor != null ? levelExecutor : ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Number of threads sharing the levels of parallel searches, the calling
+     * one included.
+     */
+    public int getLevelTasks() {
+        if (levelTasks > 0) {
+            return levelTasks;
+        }
+
+        Executor executor = getLevelExecutor();
+
+        if (executor instanceof ForkJoinPool) {
+            return Math.max(1, ((ForkJoinPool) executor).getParallelism());
+        }
+
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Entering neighbours of each node, as a snapshot of the reversed graph
+     * built on first use, or the graph itself if it is symmetric.
+     */
+    public synchronized CsrGraph getReverse() {
+        if (reverse == null) {
+            reverse = csr.isSymmetric() ? csr : csr.reverse();
+        }
+
+        return reverse;
+    }
+
+    /**
+     * Is the indexed graph weighted? Weighted graphs are always traversed with
+     * Dijkstra's algorithm, whatever the traversal.
+     */
+    public boolean isWeighted() {
+        return lengths != null;
+    }
+
+    /**
+     * Let each node stand for several nodes of an original graph, as done by
+     * {@link LeafPeeling}. A path between two nodes then counts as many times
+     * as the product of their multiplicities, and the number of shortest
+     * paths from each source to the other nodes is recorded, see
+     * {@link #getPaths()}. Only unweighted graphs stored on the heap, with
+     * unbounded distances, are supported, always traversed with one
+     * breadth-first search per source.
+     * It must be set before the first computation, and the centrality of
+     * edges is then not computed.
+     *
+     * @param multiplicities Number of nodes each node stands for, by index.
+     */
+    public void setMultiplicities(double[] multiplicities) {
+        setMultiplicities(multiplicities, null);
+    }
+
+    /**
+     * Let each node stand for several nodes of an original graph, like
+     * {@link #setMultiplicities(double[])}, a node also standing for several
+     * interchangeable copies inside paths, as done by {@link TwinCompression}.
+     * A path then counts once for each choice of copies of its inner nodes.
+     * The centrality of a node is the one of each of its copies.
+     *
+     * @param multiplicities Number of nodes each node stands for as the end
+     *                       of a path, by index.
+     * @param copies         Number of copies of each node inside paths, by
+     *                       index, or null for one copy.
+     */
+    public void setMultiplicities(double[] multiplicities, double[] copies) {
+        if (lengths != null || isOffHeap()) {
+            throw new IllegalStateException("multiplicities need an unweighted graph on the heap");
+        }
+
+        if (maxDistance < Double.POSITIVE_INFINITY) {
+            throw new IllegalStateException("multiplicities need distances without bound");
+        }
+
+        if (multiplicities.length != n || (copies != null && copies.length != n)) {
+            throw new IllegalArgumentException("expected " + n + " multiplicities");
+        }
+
+        if (copies == null) {
+            copies = new double[n];
+            Arrays.fill(copies, 1.0);
+        }
+
+        this.multiplicities = multiplicities;
+        this.copies = copies;
+        this.paths = new double[n];
+        workspaces.clear();
+    }
+
+    /**
+     * Process chains of nodes as a whole, as done by {@link LeafPeeling}. A
+     * chain is a path of nodes of degree 2, each with two distinct
+     * neighbours, between two ends outside of it, or the same end for a
+     * cycle. The nodes of the chains come after the other nodes, chain by
+     * chain, in path order. Instead of one traversal per node, each chain
+     * runs one breadth-first search from each end when its first node is
+     * processed, and the numbers of paths of all its nodes are then recorded,
+     * see {@link ChainBfsWorkspace}. Nodes must have multiplicities, with
+     * one copy each, and it must be set before the first computation.
+     *
+     * @param starts Index of the first node of each chain, in increasing
+     *               order, then the number of nodes.
+     * @param ends   The two ends of each chain, the one next to its first
+     *               node first.
+     */
+    public void setChains(int[] starts, int[] ends) {
+        if (multiplicities == null) {
+            throw new IllegalStateException("chains need nodes with multiplicities");
+        }
+
+        if (starts.length == 0 || starts[starts.length - 1] != n || ends.length != 2 * (starts.length - 1)) {
+            throw new IllegalArgumentException("expected the starts of the chains followed by " + n
+                    + " and two ends per chain");
+        }
+
+        this.chainStarts = starts;
+        this.chainEnds = ends;
+        workspaces.clear();
+    }
+
+    /**
+     * Number of shortest paths from each source processed to the other
+     * nodes, weighted by their multiplicity, or null if nodes have no
+     * multiplicity.
+     */
+    public double[] getPaths() {
+        return paths;
+    }
+
+    /**
+     * Number of sources processed together by the traversal. Computing a
+     * range of sources smaller than this wastes part of the work.
+     */
+    public int getBatchSize() {
+        return traversal == StressCentrality.Traversal.MULTI_SOURCE_BFS && lengths == null && !isOffHeap()
+                && multiplicities == null ? MultiSourceWorkspace.LANES : 1;
+    }
+
+    /**
+     * Is the indexed graph stored off-heap? The scratch spaces of the
+     * traversals are then off-heap too, and only breadth-first searches are
+     * run, whatever the traversal.
+     */
+    public boolean isOffHeap() {
+        return csr instanceof OffHeapCsrGraph;
+    }
+
+    /**
+     * Back the off-heap scratch spaces with temporary files of the given
+     * directory instead of direct buffers, so that the operating system can
+     * page them out. It is ignored if the graph is not stored off-heap, and
+     * must be set before the first computation.
+     *
+     * @param directory The directory, or null for direct buffers.
+     */
+    public void setScratchDirectory(Path directory) {
+        this.scratchDirectory = directory;
+        workspaces.clear();
+    }
+
+    /**
+     * Record the sources processed by this engine in the given meter, which
+     * may also stop the computation. It must be set before the first
+     * computation.
+     *
+     * @param meter The meter, or null to record nothing.
+     */
+    void setMeter(StressMeter meter) {
+        this.meter = meter;
+    }
+
+    /**
+     * The centrality accumulated so far, indexed like the nodes of the graph.
+     */
+    public double[] getCentrality() {
+        return centrality;
+    }
+
+    /**
+     * The centrality of edges accumulated so far, indexed like the edges of
+     * the graph, or null if it is not computed. The centrality of an edge is
+     * the number of shortest paths going through it, computed in the same
+     * pass as the centrality of nodes.
+     */
+    public double[] getEdgeCentrality() {
+        return edgeCentrality;
+    }
+
+    /**
+     * Compute the contribution of every node as a source.
+     *
+     * @return The centrality of each node, by index.
+     */
+    public double[] compute() {
+        computeSources(0, n);
+
+        return centrality;
+    }
+
+    /**
+     * Compute the contribution of every node as a source, in the calling
+     * thread, reducing partitions of the sources like
+     * {@link #compute(int, ExecutorService)} does.
+     *
+     * @param partitions Number of partitions of the sources.
+     * @return The centrality of each node, by index.
+     */
+    public double[] compute(int partitions) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions must be positive: " + partitions);
+        }
+
+        for (int p = 0; p < partitions; p++) {
+            reduce(computePartition(partitionStart(0, n, p, partitions), partitionStart(0, n, p + 1, partitions)));
+        }
+
+        return centrality;
+    }
+
+    /**
+     * Compute the contribution of every node as a source, in parallel.
+     *
+     * The sources are split in the given number of contiguous partitions. Each
+     * partition is run as one task of the executor, accumulating into its own
+     * partial centrality array with the scratch space of the thread running
+     * it. Partial arrays are then added to the centrality in partition order,
+     * so for a given number of partitions the result does not depend on the
+     * executor nor on the scheduling of the tasks : it is the one of
+     * {@link #compute(int)} with the same number of partitions, and with one
+     * partition the one of {@link #compute()}.
+     *
+     * @param partitions Number of partitions of the sources.
+     * @param executor   The executor running the partitions.
+     * @return The centrality of each node, by index.
+     */
+    public double[] compute(int partitions, ExecutorService executor) {
+        compute(0, n, partitions, executor);
+
+        return centrality;
+    }
+
+    /**
+     * Add the contribution of a range of sources to the centrality, in
+     * parallel, like {@link #compute(int, ExecutorService)} does for all the
+     * sources.
+     *
+     * @param from       Index of the first source.
+     * @param to         Index following the last source.
+     * @param partitions Number of partitions of the range.
+     * @param executor   The executor running the partitions.
+     */
+    public void compute(int from, int to, int partitions, ExecutorService executor) {
+        for (double[][] partial : computePartitions(from, to, partitions, executor, new Partition<double[][]>() {
+            public double[][] compute(int from, int to) {
+                return computePartition(from, to);
+            }
+        })) {
+            reduce(partial);
+        }
+    }
+
+    /**
+     * Add to the centrality the shortest paths from some sources to some
+     * targets only. A traversal is run from each source, so the cost is
+     * proportional to the number of sources, and only the paths ending at a
+     * target are accumulated. A node counts the paths going through it, each
+     * path between a source and a target counting once. When both of its
+     * ends are sources and targets, a path is found from each end and counts
+     * for half each time. With every node as source and target the
+     * centrality is the stress. The sources are computed in partitions like
+     * in {@link #compute(int, ExecutorService)}, by increasing index. Nodes
+     * with multiplicities are not supported, and multi-source searches are
+     * replaced by single ones.
+     *
+     * @param sources    Indices of the sources, duplicates being ignored.
+     * @param targets    Indices of the targets, or null for every node.
+     * @param partitions Number of partitions of the sources.
+     * @param executor   The executor running the partitions, or null to run
+     *                   them in the calling thread.
+     */
+    public void computeBetween(int[] sources, int[] targets, int partitions, ExecutorService executor) {
+        if (multiplicities != null) {
+            throw new IllegalStateException("subset queries need nodes without multiplicities");
+        }
+
+        final int[] from = distinct(sources);
+
+        /*
+         * Weights of the ends of paths from sources that are not targets,
+         * and from sources that are, whose paths to other sources are also
+         * found from the other end.
+         */
+        final double[] outer = new double[n];
+        final double[] inner = new double[n];
+        BitSet isSource = new BitSet(n);
+
+        for (int s : from) {
+            isSource.set(s);
+        }
+
+        BitSet isTarget = new BitSet(n);
+
+        if (targets != null) {
+            for (int t : distinct(targets)) {
+                isTarget.set(t);
+            }
+        } else {
+            isTarget.set(0, n);
+        }
+
+        for (int t = isTarget.nextSetBit(0); t >= 0; t = isTarget.nextSetBit(t + 1)) {
+            outer[t] = 2.0;
+            inner[t] = isSource.get(t) ? 1.0 : 2.0;
+        }
+
+        for (double[][] partial : computePartitions(0, from.length, partitions, executor,
+                new Partition<double[][]>() {
+                    public double[][] compute(int start, int end) {
+                        return computeBetween(from, start, end, outer, inner);
+                    }
+                })) {
+            reduce(partial);
+        }
+    }
+
+    /**
+     * Compute the paths from a range of sources to the targets in new
+     * arrays, with the workspace of the calling thread.
+     *
+     * @param sources Indices of the sources.
+     * @param from    First entry of the range.
+     * @param to      Entry following the range.
+     * @param outer   Weights of the targets for sources that are not
+     *                targets, see {@link StressWorkspace#targets}.
+     * @param inner   Weights of the targets for sources that are targets.
+     * @return The partial centrality of each node, by index, and of each edge
+     * if it is computed.
+     */
+    protected double[][] computeBetween(int[] sources, int from, int to, double[] outer, double[] inner) {
+        boolean pooled = getBatchSize() == 1;
+        StressWorkspace workspace = pooled ? acquireWorkspace() : new BfsWorkspace(this);
+        double[] partial = new double[n];
+        double[] edgePartial = edgeCentrality != null ? new double[m] : null;
+
+        try {
+            for (int i = from; i < to && !(i > from && isStopped()); i += CHUNK) {
+                int end = Math.min(to, i + CHUNK);
+                long start = System.nanoTime();
+                long arcs = workspace.arcs;
+
+                for (int j = i; j < end; j++) {
+                    int s = sources[j];
+
+                    // Only targets have a weight for other sources
+                    workspace.targets = outer[s] > 0 ? inner : outer;
+                    workspace.computeSources(s, s + 1, partial, edgePartial);
+                }
+
+                record(end - i, workspace.arcs - arcs, start);
+            }
+        } finally {
+            workspace.targets = null;
+
+            if (pooled) {
+                workspaces.add(workspace);
+            }
+        }
+
+        return new double[][]{partial, edgePartial};
+    }
+
+    /**
+     * Distinct node indices, by increasing index.
+     *
+     * @param nodes Indices of nodes, possibly repeated.
+     * @return The indices without duplicates, sorted.
+     */
+    protected int[] distinct(int[] nodes) {
+        BitSet set = new BitSet(n);
+
+        for (int v : nodes) {
+            if (v < 0 || v >= n) {
+                throw new IllegalArgumentException("no node with index " + v);
+            }
+
+            set.set(v);
+        }
+
+        int[] result = new int[set.cardinality()];
+
+        for (int v = set.nextSetBit(0), i = 0; v >= 0; v = set.nextSetBit(v + 1)) {
+            result[i++] = v;
+        }
+
+        return result;
+    }
+
+    /**
+     * Compute the stress of every node with exact path counts, whatever their
+     * size. Counts are kept in longs and only the nodes whose counts overflow
+     * are promoted to arbitrary precision, see {@link WideCounts}. Only
+     * unweighted graphs stored on the heap are supported, and the centrality
+     * of edges is not computed. The centrality of this engine is left
+     * unchanged.
+     *
+     * Sources are split in partitions like in
+     * {@link #compute(int, ExecutorService)}, the partitions being run in the
+     * calling thread if no executor is given. Sums being exact, the result
+     * does not depend on the number of partitions.
+     *
+     * @param partitions Number of partitions of the sources.
+     * @param executor   The executor running the partitions, or null.
+     * @return The exact centrality of each node, by index.
+     */
+    public BigDecimal[] computeExact(int partitions, ExecutorService executor) {
+        checkCounting();
+
+        WideCounts total = new WideCounts(n);
+
+        for (WideCounts partial : computePartitions(0, n, partitions, executor, new Partition<WideCounts>() {
+            public WideCounts compute(int from, int to) {
+                WideCounts partial = new WideCounts(n);
+                ExactBfsWorkspace workspace = new ExactBfsWorkspace(StressEngine.this);
+
+                for (int s = from; s < to && !(s > from && isStopped()); s += CHUNK) {
+                    long start = System.nanoTime();
+                    workspace.computeSources(s, Math.min(to, s + CHUNK), partial);
+                    record(Math.min(to, s + CHUNK) - s, 0, start);
+                }
+
+                return partial;
+            }
+        })) {
+            total.addAll(partial);
+        }
+
+        BigDecimal[] exact = new BigDecimal[n];
+        BigDecimal two = BigDecimal.valueOf(2);
+
+        for (int i = 0; i < n; i++) {
+            exact[i] = new BigDecimal(total.get(i)).divide(two);
+        }
+
+        return exact;
+    }
+
+    /**
+     * Compute the natural logarithm of the stress of every node, path counts
+     * being accumulated in log space so that they never overflow. The
+     * logarithm of a zero stress is negative infinity. Only unweighted graphs
+     * stored on the heap are supported, and the centrality of edges is not
+     * computed. The centrality of this engine is left unchanged.
+     *
+     * Sources are split in partitions like in
+     * {@link #compute(int, ExecutorService)}, the partitions being run in the
+     * calling thread if no executor is given, and partial sums are added in
+     * partition order.
+     *
+     * @param partitions Number of partitions of the sources.
+     * @param executor   The executor running the partitions, or null.
+     * @return The logarithm of the centrality of each node, by index.
+     */
+    public double[] computeLogarithmic(int partitions, ExecutorService executor) {
+        checkCounting();
+
+        double[] total = new double[n];
+        Arrays.fill(total, Double.NEGATIVE_INFINITY);
+
+        for (double[] partial : computePartitions(0, n, partitions, executor, new Partition<double[]>() {
+            public double[] compute(int from, int to) {
+                double[] partial = new double[n];
+                LogBfsWorkspace workspace = new LogBfsWorkspace(StressEngine.this);
+                Arrays.fill(partial, Double.NEGATIVE_INFINITY);
+
+                for (int s = from; s < to && !(s > from && isStopped()); s += CHUNK) {
+                    long start = System.nanoTime();
+                    workspace.computeSources(s, Math.min(to, s + CHUNK), partial);
+                    record(Math.min(to, s + CHUNK) - s, 0, start);
+                }
+
+                return partial;
+            }
+        })) {
+            for (int i = 0; i < n; i++) {
+                total[i] = LogBfsWorkspace.logAdd(total[i], partial[i]);
+            }
+        }
+
+        return total;
+    }
+
+    /**
+     * Compute the contribution of every node as a source, component by
+     * component, see {@link ComponentDecomposition}.
+     *
+     * Each component is computed by its own engine, on a snapshot and scratch
+     * spaces sized for it, with the traversal of this engine. Components of
+     * less than three nodes have no node stress and are skipped, as well as
+     * single nodes when the centrality of edges is computed. Components whose
+     * work, estimated as their number of nodes times their number of nodes
+     * and arcs, is less than a share of the whole are each run as one task of
+     * the executor. Larger ones are run one after the other by
+     * {@link #compute(int, ExecutorService)} with all the partitions. Each
+     * value being computed by a single component, the result does not depend
+     * on the scheduling of the tasks. Only graphs stored on the heap and
+     * without multiplicities are supported.
+     *
+     * @param partitions Number of partitions of the sources of the large
+     *                   components, and share of the work above which a
+     *                   component is large.
+     * @param executor   The executor running the components, or null to run
+     *                   them in the calling thread.
+     * @return The centrality of each node, by index.
+     */
+    public double[] computeComponents(int partitions, ExecutorService executor) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions must be positive: " + partitions);
+        }
+
+        if (isOffHeap() || multiplicities != null) {
+            throw new IllegalStateException("components need a graph on the heap without multiplicities");
+        }
+
+        final ComponentDecomposition components = new ComponentDecomposition(csr);
+        int count = components.getComponentCount();
+        double[] work = new double[count];
+        double total = 0;
+
+        for (int c = 0; c < count; c++) {
+            double size = components.getSize(c);
+            work[c] = size * (size + components.getArcCount(c));
+            total += work[c];
+        }
+
+        List<Future<Object>> tasks = new ArrayList<Future<Object>>();
+        List<Integer> large = new ArrayList<Integer>();
+
+        // The edge of a component of two nodes still carries its path
+        int smallest = edgeCentrality != null ? 2 : 3;
+
+        for (int c = 0; c < count; c++) {
+            if (components.getSize(c) < smallest) {
+                if (meter != null) {
+                    meter.skip(components.getSize(c));
+                }
+
+                continue;
+            }
+
+            if (executor != null && work[c] * partitions > total) {
+                large.add(c);
+            } else if (executor != null) {
+                final int component = c;
+
+                tasks.add(executor.submit(new Callable<Object>() {
+                    public Object call() {
+                        computeComponent(components, component, 1, null);
+                        return null;
+                    }
+                }));
+            } else {
+                computeComponent(components, c, partitions, null);
+            }
+        }
+
+        for (int c : large) {
+            computeComponent(components, c, partitions, executor);
+        }
+
+        await(tasks);
+
+        return centrality;
+    }
+
+    /**
+     * Compute a component and add its centrality to the one of this engine.
+     *
+     * @param components The decomposition of the graph.
+     * @param c          The component.
+     * @param partitions Number of partitions of the sources.
+     * @param executor   The executor running the partitions, or null.
+     */
+    protected void computeComponent(ComponentDecomposition components, int c, int partitions,
+                                    ExecutorService executor) {
+        if (isStopped()) {
+            return;
+        }
+
+        StressEngine engine = new StressEngine(components.subgraph(c), edgeCentrality != null);
+
+        engine.setTraversal(traversal);
+        engine.setDirectionSwitch(directionAlpha, directionBeta);
+        engine.setLevelExecutor(levelExecutor, levelTasks);
+        engine.setMaxDistance(maxDistance);
+        engine.setMeter(meter);
+
+        if (executor != null) {
+            engine.compute(partitions, executor);
+        } else {
+            engine.compute(partitions);
+        }
+
+        for (int i = 0; i < engine.n; i++) {
+            centrality[components.getNode(c, i)] += engine.centrality[i];
+        }
+
+        if (edgeCentrality != null) {
+            for (int i = 0; i < engine.m; i++) {
+                edgeCentrality[components.getEdge(c, i)] += engine.edgeCentrality[i];
+            }
+        }
+    }
+
+    /**
+     * Check that the graph supports exact and logarithmic counts.
+     */
+    protected void checkCounting() {
+        if (lengths != null || isOffHeap()) {
+            throw new IllegalStateException("exact and logarithmic counts need an unweighted graph on the heap");
+        }
+    }
+
+    /**
+     * Computation of a range of sources.
+     *
+     * @param <T> Type of the partial results.
+     */
+    protected interface Partition<T> {
+        /**
+         * Compute the contribution of a range of sources.
+         *
+         * @param from Index of the first source.
+         * @param to   Index following the last source.
+         * @return The partial result.
+         */
+        T compute(int from, int to);
+    }
+
+    /**
+     * Split a range of sources in contiguous partitions and compute them on
+     * an executor, or in the calling thread if there is none.
+     *
+     * @param from       Index of the first source.
+     * @param to         Index following the last source.
+     * @param partitions Number of partitions of the range.
+     * @param executor   The executor running the partitions, or null.
+     * @param partition  The computation of a partition.
+     * @return The partial results, in partition order.
+     */
+    protected <T> List<T> computePartitions(int from, int to, int partitions, ExecutorService executor,
+                                            final Partition<T> partition) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions must be positive: " + partitions);
+        }
+
+        if (executor == null) {
+            List<T> results = new ArrayList<T>(partitions);
+
+            for (int p = 0; p < partitions; p++) {
+                results.add(partition.compute(partitionStart(from, to, p, partitions),
+                        partitionStart(from, to, p + 1, partitions)));
+            }
+
+            return results;
+        }
+
+        List<Future<T>> partials = new ArrayList<Future<T>>(partitions);
+
+        for (int p = 0; p < partitions; p++) {
+            final int start = partitionStart(from, to, p, partitions);
+            final int end = partitionStart(from, to, p + 1, partitions);
+
+            partials.add(executor.submit(new Callable<T>() {
+                public T call() {
+                    return partition.compute(start, end);
+                }
+            }));
+        }
+
+        return await(partials);
+    }
+
+    /**
+     * Wait for tasks, the first failure being thrown back and cancelling the
+     * remaining tasks.
+     *
+     * @param tasks The tasks.
+     * @return Their results, in the order of the tasks.
+     */
+    protected static <T> List<T> await(List<Future<T>> tasks) {
+        List<T> results = new ArrayList<T>(tasks.size());
+
+        try {
+            for (Future<T> task : tasks) {
+                results.add(task.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("stress centrality computation interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw new IllegalStateException(cause);
+        } finally {
+            for (Future<T> task : tasks) {
+                task.cancel(true);
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Add the contribution of the given source to the centrality.
+     *
+     * @param s Index of the source node.
+     */
+    public void computeSource(int s) {
+        computeSources(s, s + 1);
+    }
+
+    /**
+     * Add the contribution of the given source to another array than the
+     * centrality of this engine.
+     *
+     * @param s      Index of the source node.
+     * @param target The array to update, by node index.
+     */
+    public void computeSource(int s, double[] target) {
+        StressWorkspace workspace = acquireWorkspace();
+
+        try {
+            computeSources(workspace, s, s + 1, target, null);
+        } finally {
+            workspaces.add(workspace);
+        }
+    }
+
+    /**
+     * Add the contribution of a range of sources to the centrality.
+     *
+     * @param from Index of the first source.
+     * @param to   Index following the last source.
+     */
+    public void computeSources(int from, int to) {
+        StressWorkspace workspace = acquireWorkspace();
+
+        try {
+            computeSources(workspace, from, to, centrality, edgeCentrality);
+        } finally {
+            workspaces.add(workspace);
+        }
+    }
+
+    /**
+     * Compute the contribution of a range of sources in new arrays, with the
+     * workspace of the calling thread.
+     *
+     * @param from Index of the first source.
+     * @param to   Index following the last source.
+     * @return The partial centrality of each node, by index, and of each edge
+     * if it is computed.
+     */
+    protected double[][] computePartition(int from, int to) {
+        StressWorkspace workspace = acquireWorkspace();
+        double[] partial = new double[n];
+        double[] edgePartial = edgeCentrality != null ? new double[m] : null;
+
+        try {
+            computeSources(workspace, from, to, partial, edgePartial);
+        } finally {
+            workspaces.add(workspace);
+        }
+
+        return new double[][]{partial, edgePartial};
+    }
+
+    /**
+     * Add the contribution of a range of sources to centrality arrays with a
+     * workspace. If a meter is set, the sources are run by chunks of
+     * {@link #CHUNK} sources, whole batches of the traversal, each chunk being
+     * recorded with the arcs scanned and the time spent, and the remaining
+     * chunks are skipped once the meter stops the computation. The first
+     * chunk is always run, so a single source is never skipped.
+     *
+     * @param workspace      The workspace of the calling thread.
+     * @param from           Index of the first source.
+     * @param to             Index following the last source.
+     * @param centrality     The centrality to update, by node index.
+     * @param edgeCentrality The centrality to update, by edge index, or null.
+     */
+    protected void computeSources(StressWorkspace workspace, int from, int to, double[] centrality,
+                                  double[] edgeCentrality) {
+        if (meter == null) {
+            workspace.computeSources(from, to, centrality, edgeCentrality);
+            return;
+        }
+
+        int chunk = Math.max(CHUNK, getBatchSize());
+
+        for (int s = from; s < to && !(s > from && meter.isStopped()); s += chunk) {
+            int end = Math.min(to, s + chunk);
+            long start = System.nanoTime();
+            long arcs = workspace.arcs;
+
+            workspace.computeSources(s, end, centrality, edgeCentrality);
+            record(end - s, workspace.arcs - arcs, start);
+        }
+    }
+
+    /**
+     * Should the computation stop, see {@link StressMeter#isStopped()}?
+     * Always false without meter.
+     */
+    boolean isStopped() {
+        return meter != null && meter.isStopped();
+    }
+
+    /**
+     * Was the computation stopped, see {@link StressMeter#wasStopped()}?
+     * Always false without meter.
+     */
+    boolean wasStopped() {
+        return meter != null && meter.wasStopped();
+    }
+
+    /**
+     * Record sources processed by the calling thread in the meter, if any.
+     *
+     * @param count Number of sources.
+     * @param arcs  Number of arcs scanned.
+     * @param start Time the sources were started at, from
+     *              {@link System#nanoTime()}.
+     */
+    protected void record(int count, long arcs, long start) {
+        if (meter != null) {
+            meter.record(count, arcs, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Add a partial result of {@link #computePartition(int, int)} to the
+     * centrality.
+     *
+     * @param partial The partial centrality of nodes and edges.
+     */
+    protected void reduce(double[][] partial) {
+        for (int i = 0; i < n; i++) {
+            centrality[i] += partial[0][i];
+        }
+
+        if (edgeCentrality != null) {
+            for (int i = 0; i < m; i++) {
+                edgeCentrality[i] += partial[1][i];
+            }
+        }
+    }
+
+    /**
+     * Index of the first source of a partition of a range of sources.
+     *
+     * @param from       Index of the first source of the range.
+     * @param to         Index following the last source of the range.
+     * @param p          The partition.
+     * @param partitions Number of partitions of the range.
+     */
+    protected int partitionStart(int from, int to, int p, int partitions) {
+        return from + (int) ((long) p * (to - from) / partitions);
+    }
+
+    /**
+     * A workspace not used by any other thread. It must be given back to
+     * {@link #workspaces} once done.
+     */
+    protected StressWorkspace acquireWorkspace() {
+        StressWorkspace workspace = workspaces.poll();
+
+        return workspace != null ? workspace : newWorkspace();
+    }
+
+    /**
+     * A new workspace for the traversal of this engine.
+     */
+    protected StressWorkspace newWorkspace() {
+        if (isOffHeap()) {
+            return new OffHeapBfsWorkspace(this, scratchDirectory);
+        }
+
+        if (chainStarts != null) {
+            return new ChainBfsWorkspace(this);
+        }
+
+        if (multiplicities != null) {
+            return new MultiplicityBfsWorkspace(this);
+        }
+
+        if (lengths != null) {
+            return new DijkstraWorkspace(this, csr.hasIntegerLengths() && csr.getMaxLength() <= DijkstraWorkspace.MAX_BUCKETS);
+        }
+
+        switch (traversal) {
+            case MULTI_SOURCE_BFS:
+                return new MultiSourceWorkspace(this, MultiSourceWorkspace.LANES);
+            case DIRECTION_OPTIMIZING_BFS:
+                return new DirectionOptimizingWorkspace(this);
+            case PARALLEL_BFS:
+                return new ParallelBfsWorkspace(this);
+            default:
+                return new BfsWorkspace(this);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.graphstream.algorithm;
+
+/**
+ * Listener of the progress of a stress centrality computation, see
+ * {@link StressCentrality#setListener(StressListener)}.
+ *
+ * The listener is told once when the computation starts, then at most once
+ * per {@link StressCentrality#setProgressInterval(long)} while sources are
+ * processed, and once when the computation is finished. Sources are counted
+ * by chunks, outside of the traversals, so listening costs nothing to the
+ * traversals themselves. In parallel mode the listener is called by the
+ * worker threads, never by two of them at the same time, so it should return
+ * quickly.
+ *
+ * @see ConsoleProgressListener
+ * @see JfrProgressListener
+ * @see MetricsProgressListener
+ */
+public interface StressListener {
+    /**
+     * Progress of the computation.
+     *
+     * @param progress Snapshot of the progress, see
+     *                 {@link StressProgress#isFinished()}.
+     */
+    void progress(StressProgress progress);
+}
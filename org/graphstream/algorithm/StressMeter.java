@@ -0,0 +1,247 @@
+package org.graphstream.algorithm;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters and control of a computation, shared by the engines running it.
+ *
+ * Engines record chunks of sources once processed, with the arcs scanned and
+ * the time spent, see {@link StressEngine#CHUNK}. Recording only updates a
+ * few atomic counters, the listener, if any, being called by the recording
+ * thread when the report interval has elapsed, by one thread at a time.
+ *
+ * Between two chunks, engines ask the meter whether to stop : when the
+ * computation is cancelled, its thread interrupted, or its time limit
+ * reached. Stopping is cooperative, the current chunk of every thread being
+ * finished, and remembered, so that the computation can tell whether its
+ * result is partial.
+ */
+class StressMeter {
+
+    /**
+     * The listener, or null.
+     */
+    protected final StressListener listener;
+
+    /**
+     * Minimum time between two reports, in nanoseconds.
+     */
+    protected final long interval;
+
+    /**
+     * Number of sources to process.
+     */
+    protected final long total;
+
+    /**
+     * Start of the computation, from {@link System#nanoTime()}.
+     */
+    protected long start;
+
+    /**
+     * Number of sources processed.
+     */
+    protected final AtomicLong sources = new AtomicLong();
+
+    /**
+     * Number of sources counted as processed without being computed.
+     */
+    protected final AtomicLong skipped = new AtomicLong();
+
+    /**
+     * Number of arcs scanned.
+     */
+    protected final AtomicLong arcs = new AtomicLong();
+
+    /**
+     * Time spent processing sources by each thread, in nanoseconds.
+     */
+    protected final ConcurrentMap<String, AtomicLong> busy = new ConcurrentHashMap<String, AtomicLong>();
+
+    /**
+     * Time of the next report, from {@link System#nanoTime()}.
+     */
+    protected final AtomicLong nextReport = new AtomicLong();
+
+    /**
+     * Time allowed to the computation, in nanoseconds, or 0 for no limit.
+     */
+    protected final long timeLimit;
+
+    /**
+     * Future of the computation, whose cancellation stops it, or null.
+     */
+    protected final Future<?> future;
+
+    /**
+     * Was the computation stopped because it was cancelled?
+     */
+    protected volatile boolean cancelled = false;
+
+    /**
+     * Was the computation stopped because its time limit was reached?
+     */
+    protected volatile boolean expired = false;
+
+    /**
+     * New meter of a computation without time limit nor future.
+     *
+     * @param listener The listener, or null.
+     * @param interval Minimum time between two reports, in milliseconds.
+     * @param total    Number of sources to process.
+     */
+    StressMeter(StressListener listener, long interval, long total) {
+        this(listener, interval, total, 0, null);
+    }
+
+    /**
+     * New meter.
+     *
+     * @param listener  The listener, or null.
+     * @param interval  Minimum time between two reports, in milliseconds.
+     * @param total     Number of sources to process.
+     * @param timeLimit Time allowed to the computation, in milliseconds, or
+     *                  0 for no limit.
+     * @param future    Future of the computation, or null.
+     */
+    StressMeter(StressListener listener, long interval, long total, long timeLimit, Future<?> future) {
+        this.listener = listener;
+        this.interval = interval * 1000000L;
+        this.total = total;
+        this.timeLimit = timeLimit * 1000000L;
+        this.future = future;
+    }
+
+    /**
+     * Start the computation, reporting it.
+     */
+    void start() {
+        start = System.nanoTime();
+        nextReport.set(start + interval);
+        report(false);
+    }
+
+    /**
+     * Should the computation stop before its next chunk of sources? It must
+     * only be asked when sources remain, a positive answer meaning that the
+     * result is cut short.
+     */
+    boolean isStopped() {
+        if (cancelled || expired) {
+            return true;
+        }
+
+        if ((future != null && future.isCancelled()) || Thread.currentThread().isInterrupted()) {
+            cancelled = true;
+        } else if (timeLimit > 0 && System.nanoTime() - start > timeLimit) {
+            expired = true;
+        }
+
+        return cancelled || expired;
+    }
+
+    /**
+     * Was the computation stopped, for any reason? Unlike
+     * {@link #isStopped()}, it does not check the time limit.
+     */
+    boolean wasStopped() {
+        return cancelled || expired;
+    }
+
+    /**
+     * Was the computation stopped because it was cancelled or its thread
+     * interrupted?
+     */
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Was the computation stopped because its time limit was reached?
+     */
+    boolean isExpired() {
+        return expired;
+    }
+
+    /**
+     * Number of sources processed so far, including skipped ones.
+     */
+    long getProcessedSources() {
+        return sources.get();
+    }
+
+    /**
+     * Count sources as processed without computing them, like the sources
+     * restored from a checkpoint.
+     *
+     * @param count Number of sources.
+     */
+    void skip(long count) {
+        skipped.addAndGet(count);
+        sources.addAndGet(count);
+    }
+
+    /**
+     * Record a chunk of sources processed by the calling thread, reporting
+     * the progress if the interval has elapsed.
+     *
+     * @param count Number of sources.
+     * @param arcs  Number of arcs scanned.
+     * @param time  Time spent, in nanoseconds.
+     */
+    void record(long count, long arcs, long time) {
+        String worker = Thread.currentThread().getName();
+        AtomicLong spent = busy.get(worker);
+
+        if (spent == null) {
+            busy.putIfAbsent(worker, new AtomicLong());
+            spent = busy.get(worker);
+        }
+
+        spent.addAndGet(time);
+        this.arcs.addAndGet(arcs);
+        sources.addAndGet(count);
+
+        long now = System.nanoTime();
+        long next = nextReport.get();
+
+        if (now >= next && nextReport.compareAndSet(next, now + interval)) {
+            report(false);
+        }
+    }
+
+    /**
+     * Finish the computation, reporting it.
+     */
+    void finish() {
+        report(true);
+    }
+
+    /**
+     * Give a snapshot of the counters to the listener.
+     *
+     * @param finished Is the computation finished?
+     */
+    protected synchronized void report(boolean finished) {
+        if (listener == null) {
+            return;
+        }
+
+        long elapsed = System.nanoTime() - start;
+        Map<String, Double> utilization = new TreeMap<String, Double>();
+
+        for (Map.Entry<String, AtomicLong> entry : busy.entrySet()) {
+            utilization.put(entry.getKey(), elapsed > 0 ? Math.min(1.0, (double) entry.getValue().get() / elapsed)
+                    : 0.0);
+        }
+
+        long processed = sources.get();
+
+        listener.progress(new StressProgress(processed, Math.max(total, processed), processed - skipped.get(),
+                elapsed, arcs.get(), utilization, finished));
+    }
+}
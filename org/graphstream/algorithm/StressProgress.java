@@ -0,0 +1,143 @@
+package org.graphstream.algorithm;
+
+import java.util.*;
+
+/**
+ * Snapshot of the progress of a stress centrality computation, given to a
+ * {@link StressListener}.
+ *
+ * The rate only counts the sources processed by this computation, not those
+ * restored from a checkpoint or skipped because they have no shortest path,
+ * which are still counted as processed. The utilization of a worker is the
+ * share of the elapsed time the thread spent processing sources.
+ */
+public class StressProgress {
+
+    /**
+     * Number of sources processed.
+     */
+    protected final long processedSources;
+
+    /**
+     * Number of sources to process.
+     */
+    protected final long totalSources;
+
+    /**
+     * Number of sources processed by this computation.
+     */
+    protected final long computedSources;
+
+    /**
+     * Time elapsed since the start of the computation, in nanoseconds.
+     */
+    protected final long elapsedTime;
+
+    /**
+     * Number of arcs scanned by the traversals.
+     */
+    protected final long traversedArcs;
+
+    /**
+     * Utilization of each worker thread, by name.
+     */
+    protected final Map<String, Double> workerUtilization;
+
+    /**
+     * Is the computation finished?
+     */
+    protected final boolean finished;
+
+    /**
+     * New snapshot.
+     *
+     * @param processedSources  Number of sources processed.
+     * @param totalSources      Number of sources to process.
+     * @param computedSources   Number of sources processed by this
+     *                          computation.
+     * @param elapsedTime       Time elapsed, in nanoseconds.
+     * @param traversedArcs     Number of arcs scanned.
+     * @param workerUtilization Utilization of each worker, by thread name.
+     * @param finished          Is the computation finished?
+     */
+    protected StressProgress(long processedSources, long totalSources, long computedSources, long elapsedTime,
+                             long traversedArcs, Map<String, Double> workerUtilization, boolean finished) {
+        this.processedSources = processedSources;
+        this.totalSources = totalSources;
+        this.computedSources = computedSources;
+        this.elapsedTime = elapsedTime;
+        this.traversedArcs = traversedArcs;
+        this.workerUtilization = Collections.unmodifiableMap(workerUtilization);
+        this.finished = finished;
+    }
+
+    /**
+     * Number of sources processed so far.
+     */
+    public long getProcessedSources() {
+        return processedSources;
+    }
+
+    /**
+     * Number of sources to process. Sampled computations may stop before.
+     */
+    public long getTotalSources() {
+        return totalSources;
+    }
+
+    /**
+     * Time elapsed since the start of the computation, in milliseconds.
+     */
+    public long getElapsedTime() {
+        return elapsedTime / 1000000L;
+    }
+
+    /**
+     * Number of sources processed per second by this computation.
+     */
+    public double getSourcesPerSecond() {
+        return elapsedTime > 0 ? computedSources * 1e9 / elapsedTime : 0.0;
+    }
+
+    /**
+     * Number of arcs scanned by the traversals so far, an arc being counted
+     * once per traversal reaching its node. Arcs are not counted for exact
+     * and logarithmic counts, nor in legacy mode for arcs not leaving their
+     * node.
+     */
+    public long getTraversedArcs() {
+        return traversedArcs;
+    }
+
+    /**
+     * Estimated time left at the current rate, in milliseconds, 0 once
+     * finished, or -1 before any source is processed.
+     */
+    public long getRemainingTime() {
+        if (finished || processedSources >= totalSources) {
+            return 0;
+        }
+
+        if (computedSources == 0) {
+            return -1;
+        }
+
+        return (long) ((double) (totalSources - processedSources) * elapsedTime / computedSources / 1000000L);
+    }
+
+    /**
+     * Share of the elapsed time each worker thread spent processing sources,
+     * between 0 and 1, by thread name.
+     */
+    public Map<String, Double> getWorkerUtilization() {
+        return workerUtilization;
+    }
+
+    /**
+     * Is the computation finished? This is the last snapshot given to the
+     * listener.
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+}
@@ -0,0 +1,211 @@
+package org.graphstream.algorithm;
+
+import java.util.*;
+
+/**
+ * The nodes of highest centrality, by decreasing centrality.
+ *
+ * A ranking is selected from the centrality of every node with a heap holding
+ * at most the number of nodes kept, so it takes O(n log k) time and O(k)
+ * space, and nothing is stored on the graph. Nodes of equal centrality are
+ * ranked by increasing index.
+ */
+public class StressRanking {
+
+    /**
+     * Identifier of each node, by rank.
+     */
+    protected final String[] ids;
+
+    /**
+     * Index of each node, by rank.
+     */
+    protected final int[] indices;
+
+    /**
+     * Centrality of each node, by rank.
+     */
+    protected final double[] scores;
+
+    /**
+     * New ranking.
+     *
+     * @param ids     Identifier of each node, by rank.
+     * @param indices Index of each node, by rank.
+     * @param scores  Centrality of each node, by rank.
+     */
+    protected StressRanking(String[] ids, int[] indices, double[] scores) {
+        this.ids = ids;
+        this.indices = indices;
+        this.scores = scores;
+    }
+
+    /**
+     * The nodes of highest centrality.
+     *
+     * @param graph      The snapshot of the graph, giving the identifiers of
+     *                   the nodes.
+     * @param centrality The centrality of each node, by index.
+     * @param k          Maximum number of nodes kept.
+     * @return The k nodes of highest centrality, or every node if there are
+     * fewer.
+     */
+    public static StressRanking top(CsrGraph graph, double[] centrality, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+
+        /*
+         * Heap of the best nodes so far, the worst one at the root.
+         */
+        int[] heap = new int[Math.min(k, centrality.length)];
+        int size = 0;
+
+        for (int v = 0; v < centrality.length && heap.length > 0; v++) {
+            if (size < heap.length) {
+                heap[size++] = v;
+                siftUp(heap, size - 1, centrality);
+            } else if (centrality[v] > centrality[heap[0]]) {
+                heap[0] = v;
+                siftDown(heap, size, centrality);
+            }
+        }
+
+        String[] ids = new String[size];
+        int[] indices = new int[size];
+        double[] scores = new double[size];
+
+        for (int rank = size - 1; rank >= 0; rank--) {
+            int v = heap[0];
+
+            ids[rank] = graph.getId(v);
+            indices[rank] = v;
+            scores[rank] = centrality[v];
+            heap[0] = heap[--size];
+            siftDown(heap, size, centrality);
+        }
+
+        return new StressRanking(ids, indices, scores);
+    }
+
+    /**
+     * Is a node ranked below another one?
+     *
+     * @param v          The first node.
+     * @param w          The second node.
+     * @param centrality The centrality of each node, by index.
+     */
+    protected static boolean isWorse(int v, int w, double[] centrality) {
+        return centrality[v] < centrality[w] || (centrality[v] == centrality[w] && v > w);
+    }
+
+    /**
+     * Move an entry of the heap up to its place.
+     *
+     * @param heap       The heap.
+     * @param i          The entry.
+     * @param centrality The centrality of each node, by index.
+     */
+    protected static void siftUp(int[] heap, int i, double[] centrality) {
+        int v = heap[i];
+
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+
+            if (!isWorse(v, heap[parent], centrality)) {
+                break;
+            }
+
+            heap[i] = heap[parent];
+            i = parent;
+        }
+
+        heap[i] = v;
+    }
+
+    /**
+     * Move the root of the heap down to its place.
+     *
+     * @param heap       The heap.
+     * @param size       Number of entries of the heap.
+     * @param centrality The centrality of each node, by index.
+     */
+    protected static void siftDown(int[] heap, int size, double[] centrality) {
+        if (size == 0) {
+            return;
+        }
+
+        int v = heap[0];
+        int i = 0;
+
+        while (2 * i + 1 < size) {
+            int child = 2 * i + 1;
+
+            if (child + 1 < size && isWorse(heap[child + 1], heap[child], centrality)) {
+                child++;
+            }
+
+            if (!isWorse(heap[child], v, centrality)) {
+                break;
+            }
+
+            heap[i] = heap[child];
+            i = child;
+        }
+
+        heap[i] = v;
+    }
+
+    /**
+     * Number of nodes ranked.
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Identifier of the node of the given rank.
+     *
+     * @param rank The rank, from 0 for the node of highest centrality.
+     */
+    public String getId(int rank) {
+        return ids[rank];
+    }
+
+    /**
+     * Index of the node of the given rank.
+     *
+     * @param rank The rank, from 0 for the node of highest centrality.
+     */
+    public int getIndex(int rank) {
+        return indices[rank];
+    }
+
+    /**
+     * Centrality of the node of the given rank.
+     *
+     * @param rank The rank, from 0 for the node of highest centrality.
+     */
+    public double getScore(int rank) {
+        return scores[rank];
+    }
+
+    /**
+     * The centrality of the nodes ranked, by identifier, iterated by
+     * decreasing centrality.
+     */
+    public Map<String, Double> toMap() {
+        Map<String, Double> map = new LinkedHashMap<String, Double>();
+
+        for (int rank = 0; rank < ids.length; rank++) {
+            map.put(ids[rank], scores[rank]);
+        }
+
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+}
@@ -0,0 +1,30 @@
+package org.graphstream.algorithm;
+
+/**
+ * Reduction of a graph to a smaller one whose stress, computed by a
+ * {@link StressEngine}, gives back the exact stress of every node of the
+ * original graph.
+ */
+interface StressReduction {
+
+    /**
+     * Number of traversals of a computation on the reduced graph, at most its
+     * number of nodes.
+     */
+    int getReducedSize();
+
+    /**
+     * A new engine on the reduced graph.
+     */
+    StressEngine newReducedEngine();
+
+    /**
+     * The stress of every node of the original graph, from a complete
+     * computation of the given engine.
+     *
+     * @param engine An engine returned by {@link #newReducedEngine()}, once
+     *               all its sources are processed.
+     * @return The centrality of each node of the original graph, by index.
+     */
+    double[] expand(StressEngine engine);
+}
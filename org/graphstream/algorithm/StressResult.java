@@ -0,0 +1,307 @@
+package org.graphstream.algorithm;
+
+import java.math.BigDecimal;
+
+/**
+ * Outcome of a stress centrality computation.
+ *
+ * Besides the centrality of each node, by index, a result tells how many
+ * sources were processed and, for sampled computations, the bound on the
+ * error of the estimates : with probability at least {@link #getConfidence()}
+ * the estimate of every node is within {@link #getEpsilon()} times the largest
+ * estimate of its exact value. Exact computations may also give the
+ * centrality of each edge.
+ *
+ * Values accumulated in doubles are exact as long as they stay below 2^52,
+ * above which {@link #isPrecise()} tells they may have been rounded. Results
+ * of exact counts also give the centrality of each node as a
+ * {@link BigDecimal}, and results of logarithmic counts give the natural
+ * logarithm of the centrality instead of its value.
+ *
+ * A computation stopped before its end, by its time limit, gives a partial
+ * result, see {@link #isPartial()}.
+ */
+public class StressResult {
+
+    /**
+     * The centrality of each node, by index.
+     */
+    protected final double[] centrality;
+
+    /**
+     * The centrality of each edge, by index, or null if not computed.
+     */
+    protected final double[] edgeCentrality;
+
+    /**
+     * The exact centrality of each node, by index, or null if counts were
+     * not exact.
+     */
+    protected final BigDecimal[] exactCentrality;
+
+    /**
+     * Are the values the natural logarithm of the centrality?
+     */
+    protected final boolean logarithmic;
+
+    /**
+     * Are the values free of rounding?
+     */
+    protected final boolean precise;
+
+    /**
+     * Number of sources processed.
+     */
+    protected final int sources;
+
+    /**
+     * Was every source processed?
+     */
+    protected final boolean exact;
+
+    /**
+     * Bound on the error, relative to the largest estimate.
+     */
+    protected final double epsilon;
+
+    /**
+     * Probability that the error bound holds.
+     */
+    protected final double confidence;
+
+    /**
+     * Was the computation stopped before its end?
+     */
+    protected final boolean partial;
+
+    /**
+     * New result of an exact computation.
+     *
+     * @param centrality The centrality of each node, by index.
+     */
+    public StressResult(double[] centrality) {
+        this(centrality, null);
+    }
+
+    /**
+     * New result of an exact computation of the centrality of nodes and
+     * edges.
+     *
+     * @param centrality     The centrality of each node, by index.
+     * @param edgeCentrality The centrality of each edge, by index, or null.
+     */
+    public StressResult(double[] centrality, double[] edgeCentrality) {
+        this(centrality, edgeCentrality, centrality.length, true, 0.0, 1.0);
+    }
+
+    /**
+     * New result of an exact computation with exact counts.
+     *
+     * @param exactCentrality The exact centrality of each node, by index.
+     */
+    public StressResult(BigDecimal[] exactCentrality) {
+        this(doubleValues(exactCentrality), null, exactCentrality, false, exactCentrality.length, true, 0.0, 1.0);
+    }
+
+    /**
+     * New result.
+     *
+     * @param centrality The centrality of each node, by index.
+     * @param sources    Number of sources processed.
+     * @param exact      Was every source processed?
+     * @param epsilon    Bound on the error, relative to the largest estimate.
+     * @param confidence Probability that the error bound holds.
+     */
+    public StressResult(double[] centrality, int sources, boolean exact, double epsilon, double confidence) {
+        this(centrality, null, sources, exact, epsilon, confidence);
+    }
+
+    /**
+     * New result.
+     *
+     * @param centrality     The centrality of each node, by index.
+     * @param edgeCentrality The centrality of each edge, by index, or null.
+     * @param sources        Number of sources processed.
+     * @param exact          Was every source processed?
+     * @param epsilon        Bound on the error, relative to the largest
+     *                       estimate.
+     * @param confidence     Probability that the error bound holds.
+     */
+    public StressResult(double[] centrality, double[] edgeCentrality, int sources, boolean exact, double epsilon,
+                        double confidence) {
+        this(centrality, edgeCentrality, null, false, sources, exact, epsilon, confidence);
+    }
+
+    /**
+     * New result.
+     */
+    protected StressResult(double[] centrality, double[] edgeCentrality, BigDecimal[] exactCentrality,
+                           boolean logarithmic, int sources, boolean exact, double epsilon, double confidence) {
+        this(centrality, edgeCentrality, exactCentrality, logarithmic, sources, exact, epsilon, confidence, false);
+    }
+
+    /**
+     * New result.
+     */
+    protected StressResult(double[] centrality, double[] edgeCentrality, BigDecimal[] exactCentrality,
+                           boolean logarithmic, int sources, boolean exact, double epsilon, double confidence,
+                           boolean partial) {
+        this.centrality = centrality;
+        this.edgeCentrality = edgeCentrality;
+        this.exactCentrality = exactCentrality;
+        this.logarithmic = logarithmic;
+        this.precise = exactCentrality != null
+                || (!logarithmic && isPrecise(centrality) && (edgeCentrality == null || isPrecise(edgeCentrality)));
+        this.sources = sources;
+        this.exact = exact;
+        this.epsilon = epsilon;
+        this.confidence = confidence;
+        this.partial = partial;
+    }
+
+    /**
+     * Result of an exact computation with logarithmic counts.
+     *
+     * @param logCentrality The natural logarithm of the centrality of each
+     *                      node, by index.
+     * @return The result.
+     */
+    public static StressResult logarithmic(double[] logCentrality) {
+        return new StressResult(logCentrality, null, null, true, logCentrality.length, true, 0.0, 1.0);
+    }
+
+    /**
+     * The same values, marked as the partial result of a computation stopped
+     * before its end. Values of a computation of every source only hold the
+     * contribution of the sources processed, and have no error bound.
+     * Estimates keep their error bound, for the pivots processed.
+     *
+     * @param sources Number of sources processed.
+     * @return The partial result.
+     */
+    public StressResult toPartial(int sources) {
+        return new StressResult(centrality, edgeCentrality, exactCentrality, logarithmic, sources, false,
+                exact ? Double.POSITIVE_INFINITY : epsilon, exact ? 0.0 : confidence, true);
+    }
+
+    /**
+     * The centrality of each node, by index.
+     */
+    public double[] getCentrality() {
+        return centrality;
+    }
+
+    /**
+     * The centrality of the node with the given index.
+     *
+     * @param index Index of the node.
+     */
+    public double getCentrality(int index) {
+        return centrality[index];
+    }
+
+    /**
+     * The exact centrality of each node, by index, or null if counts were not
+     * exact.
+     */
+    public BigDecimal[] getExactCentrality() {
+        return exactCentrality;
+    }
+
+    /**
+     * Are the values the natural logarithm of the centrality, as given by
+     * logarithmic counts?
+     */
+    public boolean isLogarithmic() {
+        return logarithmic;
+    }
+
+    /**
+     * Are the values free of rounding? False when a value accumulated in
+     * doubles exceeds 2^52, as path counts may then have been rounded, and
+     * for logarithmic counts. Always true for exact counts.
+     */
+    public boolean isPrecise() {
+        return precise;
+    }
+
+    /**
+     * The centrality of each edge, by index, or null if it was not computed.
+     */
+    public double[] getEdgeCentrality() {
+        return edgeCentrality;
+    }
+
+    /**
+     * Number of sources processed.
+     */
+    public int getSources() {
+        return sources;
+    }
+
+    /**
+     * Was every source processed? If not, values are estimates.
+     */
+    public boolean isExact() {
+        return exact;
+    }
+
+    /**
+     * Was the computation stopped before its end, by its time limit? Values
+     * of a computation of every source then only hold the contribution of
+     * the sources processed, each being a lower bound of the exact value,
+     * and estimates only the pivots processed. Partial results are never
+     * exact.
+     */
+    public boolean isPartial() {
+        return partial;
+    }
+
+    /**
+     * Bound on the error of the estimates, relative to the largest estimate.
+     * Zero for exact results, infinite for partial results of a computation
+     * of every source.
+     */
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    /**
+     * Probability that the error bound holds. One for exact results.
+     */
+    public double getConfidence() {
+        return confidence;
+    }
+
+    /**
+     * Are all values finite and below 2^52? Stress values being half
+     * integers, the integer sums they come from are then below 2^53 and
+     * exactly represented.
+     *
+     * @param values The values.
+     */
+    protected static boolean isPrecise(double[] values) {
+        for (double value : values) {
+            if (!(Math.abs(value) <= 0x1p52)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * The nearest double of each value.
+     *
+     * @param values The values.
+     */
+    protected static double[] doubleValues(BigDecimal[] values) {
+        double[] doubles = new double[values.length];
+
+        for (int i = 0; i < values.length; i++) {
+            doubles[i] = values[i].doubleValue();
+        }
+
+        return doubles;
+    }
+}
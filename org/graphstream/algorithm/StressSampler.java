@@ -0,0 +1,359 @@
+package org.graphstream.algorithm;
+
+import java.util.*;
+
+/**
+ * Approximate the stress centrality from a sample of sources.
+ *
+ * Only the sampled sources, the pivots, are processed and their contributions
+ * are extrapolated to the whole graph. Pivots are drawn uniformly without
+ * replacement, or with replacement proportionally to their degree, each
+ * contribution being then weighted by the inverse of its probability so that
+ * the estimates are unbiased.
+ *
+ * The sampler either processes a fixed number of pivots, or keeps adding
+ * pivots until the estimates meet an (epsilon, delta) error bound or a time
+ * budget runs out. The bound is an empirical Bernstein bound on the
+ * contributions of each node, with a union bound over all nodes and over the
+ * successive checks of adaptive sampling : with probability at least
+ * 1 - delta, the estimate of every node is within epsilon times the largest
+ * estimate of its exact value. Besides the variance of the contributions
+ * seen so far, it holds a term for the range of a single contribution, so
+ * that nodes no pivot has reached yet are not taken as known : a pivot
+ * reaches a node on at most one shortest path to each of the n - 2 other
+ * nodes when shortest paths are unique, and the range grows to the largest
+ * contribution met otherwise. Until a pivot contributes to some node the
+ * bound is infinite. The bound achieved is reported in the
+ * {@link StressResult}.
+ */
+public class StressSampler {
+
+    /**
+     * Distributions of the pivots.
+     */
+    public static enum Distribution {
+        /**
+         * Every node has the same probability, pivots are distinct.
+         */
+        UNIFORM,
+        /**
+         * The probability of a node is proportional to its degree.
+         */
+        DEGREE
+    }
+
+    /**
+     * Minimum number of pivots before the error bound is trusted.
+     */
+    protected static final int MIN_PIVOTS = 32;
+
+    /**
+     * The distribution of the pivots.
+     */
+    protected Distribution distribution = Distribution.UNIFORM;
+
+    /**
+     * Fixed number of pivots, or zero for adaptive sampling.
+     */
+    protected int pivots = 0;
+
+    /**
+     * Relative error bound targeted by adaptive sampling.
+     */
+    protected double epsilon = 0.05;
+
+    /**
+     * Probability that the error bound may not hold.
+     */
+    protected double delta = 0.1;
+
+    /**
+     * Time budget of adaptive sampling in milliseconds, zero for none.
+     */
+    protected long timeBudget = 0;
+
+    /**
+     * The random generator drawing pivots.
+     */
+    protected Random random = new Random();
+
+    /**
+     * New sampler processing a fixed number of uniformly drawn pivots.
+     *
+     * @param pivots Number of pivots.
+     */
+    public StressSampler(int pivots) {
+        setPivots(pivots);
+    }
+
+    /**
+     * New adaptive sampler, adding uniformly drawn pivots until the error
+     * bound is met.
+     *
+     * @param epsilon Bound on the error, relative to the largest estimate.
+     * @param delta   Probability that the bound may not hold.
+     */
+    public StressSampler(double epsilon, double delta) {
+        setErrorBound(epsilon, delta);
+    }
+
+    /**
+     * Specify the distribution of the pivots. By default it is uniform.
+     *
+     * @param distribution The distribution.
+     */
+    public void setDistribution(Distribution distribution) {
+        this.distribution = distribution;
+    }
+
+    /**
+     * Process a fixed number of pivots.
+     *
+     * @param pivots Number of pivots.
+     */
+    public void setPivots(int pivots) {
+        if (pivots < 1) {
+            throw new IllegalArgumentException("pivots must be positive: " + pivots);
+        }
+
+        this.pivots = pivots;
+    }
+
+    /**
+     * Add pivots until the given error bound is met.
+     *
+     * @param epsilon Bound on the error, relative to the largest estimate.
+     * @param delta   Probability that the bound may not hold.
+     */
+    public void setErrorBound(double epsilon, double delta) {
+        if (epsilon <= 0 || delta <= 0 || delta >= 1) {
+            throw new IllegalArgumentException("invalid error bound: " + epsilon + ", " + delta);
+        }
+
+        this.pivots = 0;
+        this.epsilon = epsilon;
+        this.delta = delta;
+    }
+
+    /**
+     * Stop adding pivots after the given time, even if the error bound is not
+     * met. This also applies to a fixed number of pivots.
+     *
+     * @param millis Time budget in milliseconds, zero for none.
+     */
+    public void setTimeBudget(long millis) {
+        this.timeBudget = millis;
+    }
+
+    /**
+     * Specify the random generator drawing pivots, for instance to obtain
+     * reproducible estimates.
+     *
+     * @param random The random generator.
+     */
+    public void setRandom(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Estimate the centrality of the graph indexed by the given engine.
+     *
+     * @param engine The engine to run the pivots.
+     * @return The estimates and the achieved error bound.
+     */
+    public StressResult sample(StressEngine engine) {
+        int n = engine.getNodeCount();
+        long deadline = timeBudget > 0 ? System.currentTimeMillis() + timeBudget : Long.MAX_VALUE;
+        int maxPivots = pivots > 0 ? pivots : n;
+
+        if (distribution == Distribution.UNIFORM) {
+            maxPivots = Math.min(maxPivots, n);
+        }
+
+        double[] contribution = new double[n];
+        double[] sum = new double[n];
+        double[] sumSquares = new double[n];
+        double[] probability = distribution == Distribution.DEGREE ? degreeDistribution(engine) : null;
+        int[] permutation = null;
+
+        if (probability == null) {
+            permutation = new int[n];
+
+            for (int i = 0; i < n; i++) {
+                permutation[i] = i;
+            }
+        }
+
+        int k = 0;
+        int check = MIN_PIVOTS;
+        int checks = 0;
+        int checked = 0;
+        double achieved = Double.POSITIVE_INFINITY;
+        double range = (probability == null ? n : maxWeight(probability)) * Math.max(0, n - 2) / 2.0;
+
+        while (k < maxPivots && System.currentTimeMillis() < deadline && !engine.isStopped()) {
+            int s;
+            double weight;
+
+            if (probability == null) {
+                int j = k + random.nextInt(n - k);
+                s = permutation[j];
+                permutation[j] = permutation[k];
+                permutation[k] = s;
+                weight = n;
+            } else {
+                s = draw(probability);
+                weight = 1.0 / (probability[s] - (s > 0 ? probability[s - 1] : 0.0));
+            }
+
+            engine.computeSource(s, contribution);
+            k++;
+
+            for (int v = 0; v < n; v++) {
+                double x = contribution[v];
+
+                if (x != 0.0) {
+                    x *= weight;
+                    sum[v] += x;
+                    sumSquares[v] += x * x;
+                    range = Math.max(range, x);
+                    contribution[v] = 0.0;
+                }
+            }
+
+            if (pivots == 0 && k >= check) {
+                achieved = errorBound(sum, sumSquares, k, n, range, checkDelta(checks++));
+                checked = k;
+
+                if (achieved <= epsilon) {
+                    break;
+                }
+
+                check = k + Math.max(MIN_PIVOTS, k / 8);
+            }
+        }
+
+        boolean exact = probability == null && k == n;
+
+        if (!exact && checked != k) {
+            achieved = errorBound(sum, sumSquares, k, n, range, checkDelta(checks));
+        }
+
+        for (int v = 0; v < n; v++) {
+            sum[v] = k > 0 ? sum[v] / k : 0.0;
+        }
+
+        return exact ? new StressResult(sum) : new StressResult(sum, k, false, achieved, 1 - delta);
+    }
+
+    /**
+     * Half-width of the confidence interval of the least precise estimate,
+     * relative to the largest estimate, from the empirical Bernstein bound of
+     * Maurer and Pontil. Sampling without replacement only concentrates the
+     * estimates more, so the bound also holds for uniform pivots.
+     *
+     * @param sum        Sum of the weighted contributions of each node.
+     * @param sumSquares Sum of their squares.
+     * @param k          Number of pivots.
+     * @param n          Number of nodes.
+     * @param range      Bound on a weighted contribution.
+     * @param delta      Probability that the bound may not hold.
+     */
+    protected double errorBound(double[] sum, double[] sumSquares, int k, int n, double range, double delta) {
+        if (k < 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        double log = Math.log(2.0 * Math.max(1, n) / delta);
+        double maxMean = 0.0;
+        double maxError = 0.0;
+
+        for (int v = 0; v < n; v++) {
+            double mean = sum[v] / k;
+            double variance = Math.max(0.0, (sumSquares[v] - k * mean * mean) / (k - 1));
+
+            maxMean = Math.max(maxMean, mean);
+            maxError = Math.max(maxError, Math.sqrt(2 * variance * log / k) + 7 * range * log / (3 * (k - 1)));
+        }
+
+        return maxMean > 0.0 ? maxError / maxMean : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Share of the probability of failure given to a check of the error
+     * bound, so that the shares of all the checks sum to delta.
+     *
+     * @param check Index of the check, from 0.
+     */
+    protected double checkDelta(int check) {
+        return delta / ((check + 1.0) * (check + 2.0));
+    }
+
+    /**
+     * Largest weight of a pivot drawn from a cumulative distribution.
+     *
+     * @param cumulative The cumulative distribution.
+     */
+    protected double maxWeight(double[] cumulative) {
+        double min = 1.0;
+
+        for (int v = 0; v < cumulative.length; v++) {
+            double p = cumulative[v] - (v > 0 ? cumulative[v - 1] : 0.0);
+
+            if (p > 0.0) {
+                min = Math.min(min, p);
+            }
+        }
+
+        return 1.0 / min;
+    }
+
+    /**
+     * Cumulative distribution of the nodes proportional to their degree.
+     *
+     * @param engine The engine indexing the graph.
+     */
+    protected double[] degreeDistribution(StressEngine engine) {
+        int n = engine.getNodeCount();
+        double[] cumulative = new double[n];
+        double total = 0.0;
+
+        for (int v = 0; v < n; v++) {
+            total += engine.getGraph().getDegree(v);
+            cumulative[v] = total;
+        }
+
+        if (total == 0.0) {
+            throw new IllegalStateException("cannot sample by degree a graph without edges");
+        }
+
+        for (int v = 0; v < n; v++) {
+            cumulative[v] /= total;
+        }
+
+        return cumulative;
+    }
+
+    /**
+     * Draw a node from a cumulative distribution.
+     *
+     * @param cumulative The cumulative distribution.
+     */
+    protected int draw(double[] cumulative) {
+        double x = random.nextDouble();
+        int low = 0;
+        int high = cumulative.length - 1;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (cumulative[middle] > x) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+
+        return low;
+    }
+}
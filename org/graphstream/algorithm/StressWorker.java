@@ -0,0 +1,193 @@
+package org.graphstream.algorithm;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Worker process of a sharded computation, see {@link StressCoordinator}.
+ *
+ * A worker connects to its coordinator, receives the file of the snapshot of
+ * the graph and the options of the computation, and answers with the
+ * fingerprint of the snapshot it loaded, so that the coordinator only merges
+ * results computed on the same graph. It then computes the shards it is
+ * assigned, one at a time, each as a fixed number of partitions reduced in
+ * order, so that the result of a shard does not depend on the worker
+ * computing it. The worker exits when the coordinator has no more shards or
+ * closes the connection.
+ *
+ * Messages are written with {@link DataOutputStream} :
+ *
+ * <ul>
+ * <li>the coordinator sends the options : snapshot file, centrality of
+ * edges, traversal, maximum distance and partitions;</li>
+ * <li>the worker answers with the fingerprint of its engine;</li>
+ * <li>the coordinator sends a shard (index, first source, source following
+ * the last one), or a negative index to stop;</li>
+ * <li>the worker answers with the shard index, the number of arcs scanned,
+ * the centrality of every node and of every edge if computed.</li>
+ * </ul>
+ */
+public class StressWorker {
+
+    /**
+     * First bytes of the options and of the answers.
+     */
+    static final int MAGIC = 0x31575353;
+
+    /**
+     * Host of the coordinator.
+     */
+    protected final String host;
+
+    /**
+     * Port of the coordinator.
+     */
+    protected final int port;
+
+    /**
+     * The engine, once the snapshot is loaded.
+     */
+    protected StressEngine engine;
+
+    /**
+     * Number of partitions of each shard.
+     */
+    protected int partitions = 1;
+
+    /**
+     * New worker of the coordinator listening at the given address.
+     *
+     * @param host Host of the coordinator.
+     * @param port Port of the coordinator.
+     */
+    public StressWorker(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    /**
+     * Run a worker, with the host and port of the coordinator as arguments.
+     *
+     * @param args The host and port of the coordinator.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: StressWorker <host> <port>");
+            System.exit(2);
+        }
+
+        new StressWorker(args[0], Integer.parseInt(args[1])).run();
+        System.exit(0);
+    }
+
+    /**
+     * Connect to the coordinator and compute shards until it stops the
+     * worker.
+     */
+    public void run() throws IOException {
+        Socket socket = new Socket();
+
+        try {
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(host, port));
+
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+
+            setup(in);
+            out.writeInt(MAGIC);
+            out.writeLong(StressCheckpoint.fingerprint(engine));
+            out.flush();
+
+            ExecutorService executor = partitions > 1 ? ForkJoinPool.commonPool() : null;
+
+            while (true) {
+                int shard = in.readInt();
+
+                if (shard < 0) {
+                    break;
+                }
+
+                int from = in.readInt();
+                int to = in.readInt();
+                long arcs = engine.meter.arcs.get();
+
+                computeShard(from, to, executor);
+
+                out.writeInt(shard);
+                out.writeLong(engine.meter.arcs.get() - arcs);
+                writeDoubles(out, engine.centrality);
+
+                if (engine.edgeCentrality != null) {
+                    writeDoubles(out, engine.edgeCentrality);
+                }
+
+                out.flush();
+            }
+        } finally {
+            socket.close();
+        }
+    }
+
+    /**
+     * Read the options of the computation and load the snapshot.
+     *
+     * @param in Messages of the coordinator.
+     */
+    protected void setup(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("not a stress coordinator");
+        }
+
+        String snapshot = in.readUTF();
+        boolean edges = in.readBoolean();
+        StressCentrality.Traversal traversal = StressCentrality.Traversal.valueOf(in.readUTF());
+        double maxDistance = in.readDouble();
+
+        partitions = in.readInt();
+        engine = new StressEngine(new EdgeListLoader().load(Paths.get(snapshot)), edges);
+        engine.setTraversal(traversal);
+        engine.setMaxDistance(maxDistance);
+        engine.setMeter(new StressMeter(null, 0, 0));
+    }
+
+    /**
+     * Compute a shard, leaving its centrality in the engine.
+     *
+     * @param from     Index of the first source.
+     * @param to       Index following the last source.
+     * @param executor The executor running the partitions, or null.
+     */
+    protected void computeShard(int from, int to, ExecutorService executor) {
+        Arrays.fill(engine.centrality, 0.0);
+
+        if (engine.edgeCentrality != null) {
+            Arrays.fill(engine.edgeCentrality, 0.0);
+        }
+
+        engine.compute(from, to, partitions, executor);
+    }
+
+    /**
+     * Write an array of doubles.
+     */
+    protected static void writeDoubles(DataOutputStream out, double[] values) throws IOException {
+        for (double value : values) {
+            out.writeDouble(value);
+        }
+    }
+
+    /**
+     * Read an array of doubles.
+     */
+    protected static void readDoubles(DataInputStream in, double[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readDouble();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.graphstream.algorithm;
+
+/**
+ * Scratch space of one worker of a {@link StressEngine}.
+ *
+ * A workspace holds the per-node values needed to process sources and adds
+ * their contribution to a centrality array. It must only be used by one
+ * thread at a time, the engine gives one workspace to each of its worker
+ * threads. Subclasses implement the different traversals.
+ */
+abstract class StressWorkspace {
+
+    /**
+     * Distance of a node not reached yet by the current traversal.
+     */
+    static final int UNREACHED = -1;
+
+    /**
+     * The engine owning the indexed graph.
+     */
+    protected final StressEngine engine;
+
+    /**
+     * Number of arcs scanned by the traversals of this workspace, counted
+     * when their nodes are reset.
+     */
+    protected long arcs = 0;
+
+    /**
+     * Weight of each node as the end of the paths from the sources processed,
+     * or null for a weight of 1 for every node. A path counts for half the
+     * weight of its end, so that with a weight of 1 for every node each pair
+     * of nodes, processed from both ends, counts once, as in the stress.
+     * Only supported by the workspaces of single searches on the heap and
+     * off-heap, see {@link StressEngine#computeBetween(int[], int[], int,
+     * java.util.concurrent.ExecutorService)}.
+     */
+    protected double[] targets = null;
+
+    /**
+     * New workspace for the graph indexed by the given engine.
+     *
+     * @param engine The engine owning the indexed graph.
+     */
+    StressWorkspace(StressEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Add the contribution of a range of sources to centrality arrays.
+     *
+     * @param from           Index of the first source.
+     * @param to             Index following the last source.
+     * @param centrality     The centrality to update, by node index.
+     * @param edgeCentrality The centrality to update, by edge index, or null
+     *                       to ignore edges. The engine must index edges
+     *                       otherwise.
+     */
+    abstract void computeSources(int from, int to, double[] centrality, double[] edgeCentrality);
+}
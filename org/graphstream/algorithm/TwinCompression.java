@@ -0,0 +1,242 @@
+package org.graphstream.algorithm;
+
+import java.util.*;
+
+/**
+ * Reduction of an undirected graph by merging its twins.
+ *
+ * Two non-adjacent nodes are twins when they have the same neighbours. Twins
+ * are at the same distance of every other node, with the same number of
+ * shortest paths, and lie on the same shortest paths, so a class of k twins is
+ * replaced by one representative standing for k nodes as the end of a path
+ * and for k interchangeable copies inside paths. A single traversal per class
+ * then gives the stress of every twin. Paths between two twins of a class
+ * are not seen by the reduced graph : each of the k (k - 1) / 2 pairs has one
+ * shortest path through every common neighbour, which is added to the
+ * neighbours afterwards.
+ *
+ * Classes are found by hashing the sorted lists of neighbours, nodes with
+ * equal hashes being compared list by list. Nodes with a loop or with
+ * several edges to the same neighbour are left alone.
+ */
+class TwinCompression implements StressReduction {
+
+    /**
+     * Number of nodes of the original graph.
+     */
+    protected final int n;
+
+    /**
+     * The original graph.
+     */
+    protected final CsrGraph graph;
+
+    /**
+     * Representative of the class of each node.
+     */
+    protected final int[] representative;
+
+    /**
+     * Index of each node in the reduced graph, or -1 if it is not a
+     * representative.
+     */
+    protected final int[] reducedIndex;
+
+    /**
+     * Original index of each node of the reduced graph.
+     */
+    protected final int[] reducedNodes;
+
+    /**
+     * Number of twins of the class of each node of the reduced graph.
+     */
+    protected final double[] classSize;
+
+    /**
+     * Reduce the given undirected unweighted snapshot.
+     *
+     * @param graph A symmetric snapshot, see {@link CsrGraph#isSymmetric()}.
+     */
+    TwinCompression(CsrGraph graph) {
+        this.graph = graph;
+        this.n = graph.getNodeCount();
+        this.representative = new int[n];
+
+        /*
+         * Sorted neighbours and their hash
+         */
+        int[] offsets = new int[n + 1];
+
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] = offsets[v] + graph.getDegree(v);
+        }
+
+        int[] sorted = new int[offsets[n]];
+        long[] hashes = new long[n];
+        boolean[] simple = new boolean[n];
+
+        for (int v = 0; v < n; v++) {
+            int from = offsets[v];
+            int to = offsets[v + 1];
+            long hash = to - from;
+
+            for (int k = from; k < to; k++) {
+                sorted[k] = graph.getNeighbor(v, k - from);
+            }
+
+            Arrays.sort(sorted, from, to);
+            simple[v] = true;
+
+            for (int k = from; k < to; k++) {
+                simple[v] &= sorted[k] != v && (k == from || sorted[k] != sorted[k - 1]);
+                hash = hash * 0x9E3779B97F4A7C15L + sorted[k];
+            }
+
+            hashes[v] = hash ^ (hash >>> 29);
+        }
+
+        /*
+         * Classes, among the nodes of equal hash
+         */
+        Map<Long, List<Integer>> candidates = new HashMap<Long, List<Integer>>();
+
+        for (int v = 0; v < n; v++) {
+            representative[v] = v;
+
+            if (!simple[v]) {
+                continue;
+            }
+
+            List<Integer> same = candidates.get(hashes[v]);
+
+            if (same == null) {
+                same = new ArrayList<Integer>(1);
+                candidates.put(hashes[v], same);
+            }
+
+            for (int r : same) {
+                if (equalRows(sorted, offsets, r, v)) {
+                    representative[v] = r;
+                    break;
+                }
+            }
+
+            if (representative[v] == v) {
+                same.add(v);
+            }
+        }
+
+        int count = 0;
+
+        this.reducedIndex = new int[n];
+
+        for (int v = 0; v < n; v++) {
+            reducedIndex[v] = representative[v] == v ? count++ : -1;
+        }
+
+        this.reducedNodes = new int[count];
+        this.classSize = new double[count];
+
+        for (int v = 0; v < n; v++) {
+            if (reducedIndex[v] >= 0) {
+                reducedNodes[reducedIndex[v]] = v;
+            }
+
+            classSize[reducedIndex[representative[v]]]++;
+        }
+    }
+
+    /**
+     * Do two nodes have the same sorted neighbours?
+     */
+    protected static boolean equalRows(int[] sorted, int[] offsets, int u, int v) {
+        int length = offsets[u + 1] - offsets[u];
+
+        if (length != offsets[v + 1] - offsets[v]) {
+            return false;
+        }
+
+        for (int k = 0; k < length; k++) {
+            if (sorted[offsets[u] + k] != sorted[offsets[v] + k]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Number of nodes of the reduced graph, one per class.
+     */
+    public int getReducedSize() {
+        return reducedNodes.length;
+    }
+
+    /**
+     * A new engine on the reduced graph, each node standing for its class.
+     * Arcs towards twins other than the representative of their class are
+     * dropped, the representative standing for them.
+     */
+    public StressEngine newReducedEngine() {
+        int c = reducedNodes.length;
+        int[] offsets = new int[c + 1];
+
+        for (int i = 0; i < c; i++) {
+            int v = reducedNodes[i];
+            int arcs = 0;
+
+            for (int k = 0, d = graph.getDegree(v); k < d; k++) {
+                if (reducedIndex[graph.getNeighbor(v, k)] >= 0) {
+                    arcs++;
+                }
+            }
+
+            offsets[i + 1] = offsets[i] + arcs;
+        }
+
+        int[] neighbors = new int[offsets[c]];
+
+        for (int i = 0; i < c; i++) {
+            int v = reducedNodes[i];
+            int a = offsets[i];
+
+            for (int k = 0, d = graph.getDegree(v); k < d; k++) {
+                int w = reducedIndex[graph.getNeighbor(v, k)];
+
+                if (w >= 0) {
+                    neighbors[a++] = w;
+                }
+            }
+        }
+
+        StressEngine engine = new StressEngine(new CsrGraph(offsets, neighbors, null, null, 0, (String[]) null),
+                false);
+        engine.setMultiplicities(classSize, classSize);
+
+        return engine;
+    }
+
+    public double[] expand(StressEngine engine) {
+        CsrGraph reduced = engine.getGraph();
+        double[] reducedCentrality = engine.getCentrality().clone();
+
+        /*
+         * Paths between twins of a same class
+         */
+        for (int i = 0; i < reducedNodes.length; i++) {
+            double k = classSize[i];
+
+            for (int a = 0, d = reduced.getDegree(i); a < d && k > 1; a++) {
+                reducedCentrality[reduced.getNeighbor(i, a)] += k * (k - 1) / 2;
+            }
+        }
+
+        double[] centrality = new double[n];
+
+        for (int v = 0; v < n; v++) {
+            centrality[v] = reducedCentrality[reducedIndex[representative[v]]];
+        }
+
+        return centrality;
+    }
+}
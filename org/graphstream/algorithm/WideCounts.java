@@ -0,0 +1,150 @@
+package org.graphstream.algorithm;
+
+import java.math.BigInteger;
+
+/**
+ * Array of non-negative integer counts that never overflow.
+ *
+ * Each count is held in a long as long as it fits, additions and
+ * multiplications checking for overflow. The counts that overflow are
+ * promoted to a {@link BigInteger}, one node at a time, so the other nodes
+ * keep the cost of long arithmetic. The value of a count is the sum of its
+ * long part and of its promoted part, if any.
+ */
+class WideCounts {
+
+    /**
+     * The long part of each count.
+     */
+    protected final long[] small;
+
+    /**
+     * The promoted part of each count, or null if it fits in the long part.
+     */
+    protected final BigInteger[] big;
+
+    /**
+     * New array of zeros.
+     *
+     * @param length Number of counts.
+     */
+    WideCounts(int length) {
+        this.small = new long[length];
+        this.big = new BigInteger[length];
+    }
+
+    /**
+     * The value of a count.
+     *
+     * @param i Index of the count.
+     */
+    BigInteger get(int i) {
+        BigInteger value = BigInteger.valueOf(small[i]);
+
+        return big[i] != null ? value.add(big[i]) : value;
+    }
+
+    /**
+     * Has a count overflowed a long?
+     *
+     * @param i Index of the count.
+     */
+    boolean isPromoted(int i) {
+        return big[i] != null;
+    }
+
+    /**
+     * Set a count to a long value.
+     *
+     * @param i     Index of the count.
+     * @param value The non-negative value.
+     */
+    void set(int i, long value) {
+        small[i] = value;
+        big[i] = null;
+    }
+
+    /**
+     * Add a long value to a count.
+     *
+     * @param i     Index of the count.
+     * @param value The non-negative value.
+     */
+    void add(int i, long value) {
+        long sum = small[i] + value;
+
+        if (sum < 0) {
+            /*
+             * The sum is below 2^64, its unsigned value is exact.
+             */
+            small[i] = 0;
+            add(i, BigInteger.valueOf(sum - Long.MIN_VALUE).setBit(63));
+        } else {
+            small[i] = sum;
+        }
+    }
+
+    /**
+     * Add a value to a count, promoting it.
+     *
+     * @param i     Index of the count.
+     * @param value The non-negative value.
+     */
+    void add(int i, BigInteger value) {
+        big[i] = big[i] != null ? big[i].add(value) : value;
+    }
+
+    /**
+     * Add a count of another array to a count.
+     *
+     * @param i      Index of the count.
+     * @param counts The other array.
+     * @param j      Index of the count to add.
+     */
+    void add(int i, WideCounts counts, int j) {
+        if (counts.big[j] != null) {
+            add(i, counts.get(j));
+        } else {
+            add(i, counts.small[j]);
+        }
+    }
+
+    /**
+     * Add the product of two counts of other arrays to a count.
+     *
+     * @param i Index of the count.
+     * @param a The array of the first factor.
+     * @param j Index of the first factor.
+     * @param b The array of the second factor.
+     * @param k Index of the second factor.
+     */
+    void addProduct(int i, WideCounts a, int j, WideCounts b, int k) {
+        if (a.big[j] == null && b.big[k] == null) {
+            long x = a.small[j];
+            long y = b.small[k];
+
+            /*
+             * x < 2^(64 - lz(x)) and y < 2^(64 - lz(y)), so the product
+             * is below 2^63 and fits in a long.
+             */
+            if (Long.numberOfLeadingZeros(x) + Long.numberOfLeadingZeros(y) >= 65) {
+                add(i, x * y);
+            } else {
+                add(i, BigInteger.valueOf(x).multiply(BigInteger.valueOf(y)));
+            }
+        } else {
+            add(i, a.get(j).multiply(b.get(k)));
+        }
+    }
+
+    /**
+     * Add all the counts of another array, index by index.
+     *
+     * @param counts The other array, of the same length.
+     */
+    void addAll(WideCounts counts) {
+        for (int i = 0; i < small.length; i++) {
+            add(i, counts, i);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+import org.graphstream.algorithm.StressCentrality;
+import org.graphstream.algorithm.generator.DorogovtsevMendesGenerator;
+import org.graphstream.algorithm.generator.Generator;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.implementations.SingleGraph;
+
+import java.util.Random;
+
+/**
+ * Compare the legacy computation with the array engine, on the
+ * Dorogovtsev-Mendes graphs used by {@link main}.
+ *
+ * The legacy computation stores its intermediate values as node attributes
+ * and orders explored nodes with a distance-based priority queue, while the
+ * engine runs on primitive arrays and walks the BFS visit order backwards.
+ * The speedup reported is the one of the whole engine over the legacy mode,
+ * not of the visit order alone.
+ */
+public class StressBenchmark {
+
+    protected static final int[] SIZES = {250, 500, 1000, 2000};
+
+    protected static final int WARMUP = 3;
+
+    protected static final int RUNS = 5;
+
+    public static void main(String[] args) {
+        System.out.println("nodes\tedges\tlegacy (ms)\tengine (ms)\tengine speedup");
+
+        for (int size : SIZES) {
+            Graph graph = generateGraph(size, 42);
+
+            double legacy = measure(graph, true);
+            double engine = measure(graph, false);
+
+            System.out.println(String.format("%d\t%d\t%.1f\t%.1f\t%.2fx",
+                    graph.getNodeCount(), graph.getEdgeCount(), legacy, engine, legacy / engine));
+        }
+    }
+
+    /**
+     * Median time of a full computation, in milliseconds.
+     */
+    protected static double measure(Graph graph, boolean legacyMode) {
+        StressCentrality sc = new StressCentrality();
+        sc.setLegacyMode(legacyMode);
+        sc.init(graph);
+
+        for (int i = 0; i < WARMUP; i++) {
+            sc.compute();
+        }
+
+        long[] times = new long[RUNS];
+
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            sc.compute();
+            times[i] = System.nanoTime() - start;
+        }
+
+        java.util.Arrays.sort(times);
+
+        return times[RUNS / 2] / 1e6;
+    }
+
+    /**
+     * Same generator as {@link main}, with a fixed seed and size.
+     */
+    protected static Graph generateGraph(int nodes, long seed) {
+        Graph graph = new SingleGraph("DorogovtsevMendes" + nodes);
+        Generator gen = new DorogovtsevMendesGenerator(new Random(seed));
+        gen.addSink(graph);
+        gen.begin();
+        while (graph.getNodeCount() < nodes) {
+            gen.nextEvents();
+        }
+        gen.end();
+
+        return graph;
+    }
+}
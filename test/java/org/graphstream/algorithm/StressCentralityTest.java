@@ -0,0 +1,1213 @@
+package org.graphstream.algorithm;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.SingleGraph;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Checks of the stress centrality against a brute-force reference, on small
+ * random graphs generated with fixed seeds.
+ *
+ * The reference computes the distance and the number of shortest paths
+ * between every pair of nodes, then counts the paths going through each node
+ * and each edge. Every check compares a mode of the computation with it.
+ * Run it with gs-core, gs-algo and the classes on the class path; it exits
+ * with a non-zero status if a check fails.
+ */
+public class StressCentralityTest {
+
+    /**
+     * Relative tolerance of the comparisons.
+     */
+    protected static final double EPSILON = 1e-9;
+
+    /**
+     * Number of random graphs of each check.
+     */
+    protected static final int GRAPHS = 10;
+
+    /**
+     * Number of failed checks.
+     */
+    protected static int failures = 0;
+
+    public static void main(String[] args) throws Exception {
+        testTraversals();
+        testWeighted();
+        testReductions();
+        testChains();
+        testCounting();
+        testBoundedDistance();
+        testOffHeap();
+        testCheckpointResume();
+        testIncremental();
+        testSharded();
+        testSampler();
+        testQueries();
+        testAsync();
+        testProgress();
+        testComponentsWithEdges();
+        testLoaderErrors();
+        testSnapshotEdgeOrder();
+
+        if (failures > 0) {
+            System.out.println(failures + " checks failed");
+            System.exit(1);
+        }
+
+        System.out.println("all checks passed");
+    }
+
+    /*
+     * CHECKS
+     */
+
+    /**
+     * Every traversal of the engine, sequential and in parallel, on
+     * undirected and directed graphs, with the centrality of edges.
+     */
+    protected static void testTraversals() {
+        Random random = new Random(1);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+
+        try {
+            for (int i = 0; i < GRAPHS; i++) {
+                CsrGraph csr = new CsrGraph(randomGraph(random, 25, 50, i % 2 == 1));
+                double[][] expected = bruteForce(csr, Double.POSITIVE_INFINITY);
+
+                for (StressCentrality.Traversal traversal : StressCentrality.Traversal.values()) {
+                    for (int partitions : new int[]{1, 3}) {
+                        StressEngine engine = new StressEngine(csr, true);
+                        String name = traversal + " partitions " + partitions + " graph " + i;
+
+                        engine.setTraversal(traversal);
+                        engine.setLevelExecutor(executor, 3);
+                        engine.compute(partitions, partitions > 1 ? executor : null);
+                        check(name, expected[0], engine.getCentrality());
+                        check(name + " edges", expected[1], engine.getEdgeCentrality());
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Weighted graphs, with small integer lengths run with a bucket queue
+     * and real lengths run with a heap. The legacy mode ignores lengths.
+     */
+    protected static void testWeighted() {
+        Random random = new Random(2);
+
+        for (int i = 0; i < GRAPHS; i++) {
+            Graph graph = randomGraph(random, 25, 60, i % 2 == 1);
+
+            for (Edge edge : graph.getEachEdge()) {
+                edge.setAttribute("length", i < GRAPHS / 2 ? 1 + random.nextInt(3) : 0.5 + random.nextInt(4) * 0.25);
+            }
+
+            CsrGraph csr = new CsrGraph(graph, "length");
+            double[][] expected = bruteForce(csr, Double.POSITIVE_INFINITY);
+            StressEngine engine = new StressEngine(csr, true);
+
+            engine.compute();
+            check("weighted " + i, expected[0], engine.getCentrality());
+            check("weighted edges " + i, expected[1], engine.getEdgeCentrality());
+
+            StressCentrality sc = new StressCentrality("stress");
+
+            sc.setWeightAttributeName("length");
+            check("weighted algorithm " + i, expected[0], stress(graph, csr, sc));
+        }
+    }
+
+    /**
+     * Leaf peeling, twin compression, components and parallel computations
+     * through the algorithm, and the legacy mode, on undirected graphs
+     * holding leaves, twins and several components.
+     */
+    protected static void testReductions() {
+        Random random = new Random(3);
+
+        for (int i = 0; i < GRAPHS; i++) {
+            Graph graph = randomGraph(random, 30, 35, false);
+
+            // Twins sharing the neighbours of node 0
+            for (String twin : new String[]{"t0", "t1", "t2"}) {
+                graph.addNode(twin);
+
+                for (Edge edge : graph.getNode("0").getEachEdge()) {
+                    graph.addEdge(twin + "_" + edge.getId(), twin, edge.getOpposite(graph.getNode("0")).getId());
+                }
+            }
+
+            CsrGraph csr = new CsrGraph(graph);
+            double[] expected = bruteForce(csr, Double.POSITIVE_INFINITY)[0];
+
+            for (int mode = 0; mode < 6; mode++) {
+                StressCentrality sc = new StressCentrality("stress");
+
+                sc.setFolding(mode == 1 || mode == 3);
+                sc.setTwinCompression(mode == 2 || mode == 3);
+                sc.setDecomposition(mode == 4);
+                sc.setParallel(mode >= 4);
+                sc.setPartitions(3);
+                check("reductions mode " + mode + " graph " + i, expected, stress(graph, csr, sc));
+            }
+
+            check("legacy " + i, expected, legacy(graph, csr, new StressCentrality("stress")));
+        }
+    }
+
+    /**
+     * Leaves removed and chains contracted, on random graphs whose edges are
+     * cut by up to 6 nodes, with trees hanging from some of them, chains
+     * from a node to itself and a cycle on its own.
+     */
+    protected static void testChains() {
+        Random random = new Random(15);
+
+        for (int i = 0; i < GRAPHS; i++) {
+            Graph graph = new SingleGraph("chains", false, true);
+            Graph hubs = randomGraph(random, 8, 14, false);
+            int count = 0;
+
+            for (Node node : hubs) {
+                graph.addNode(node.getId());
+            }
+
+            for (Edge edge : hubs.getEachEdge()) {
+                count = addChain(graph, random, edge.getNode0().getId(), edge.getNode1().getId(), count);
+            }
+
+            count = addChain(graph, random, "0", "0", count);
+            count = addChain(graph, random, "1", "2", count);
+            count = addChain(graph, random, "c", "c", count);
+
+            for (int leaf = 0; leaf < 10; leaf++) {
+                Node node = graph.getNode(random.nextInt(graph.getNodeCount()));
+                graph.addEdge("leaf" + leaf, node, graph.addNode("leaf" + leaf));
+            }
+
+            CsrGraph csr = new CsrGraph(graph);
+            double[] expected = bruteForce(csr, Double.POSITIVE_INFINITY)[0];
+            LeafPeeling peeling = new LeafPeeling(csr);
+
+            if (peeling.chainEnds.length == 0 || peeling.getReducedSize() >= peeling.coreNodes.length) {
+                fail("chains graph " + i + ": no chain contracted");
+            }
+
+            for (int parallel = 0; parallel < 2; parallel++) {
+                StressCentrality sc = new StressCentrality("stress");
+
+                sc.setFolding(true);
+                sc.setParallel(parallel == 1);
+                sc.setPartitions(3);
+                check("chains graph " + i + " parallel " + parallel, expected, stress(graph, csr, sc));
+            }
+        }
+    }
+
+    /**
+     * Join two nodes by a path through up to 6 new nodes.
+     *
+     * @return The number of nodes added so far.
+     */
+    protected static int addChain(Graph graph, Random random, String from, String to, int count) {
+        int length = random.nextInt(7);
+
+        if (graph.getNode(from) == null) {
+            graph.addNode(from);
+        }
+
+        // A node joined to itself needs a cycle of at least 3 nodes
+        if (from.equals(to)) {
+            length = Math.max(length, 2);
+        }
+
+        String previous = from;
+
+        for (int k = 0; k < length; k++) {
+            String node = "p" + (count++);
+
+            graph.addNode(node);
+            graph.addEdge(previous + "_" + node, previous, node);
+            previous = node;
+        }
+
+        if (graph.getNode(previous).getEdgeBetween(to) == null && !previous.equals(to)) {
+            graph.addEdge(previous + "_" + to, previous, to);
+        }
+
+        return count;
+    }
+
+    /**
+     * Exact and logarithmic counts of the paths, on graphs whose number of
+     * shortest paths grows quickly.
+     */
+    protected static void testCounting() {
+        Random random = new Random(4);
+
+        for (int i = 0; i < GRAPHS; i++) {
+            CsrGraph csr = new CsrGraph(randomGraph(random, 25, 80, i % 2 == 1));
+            double[] expected = bruteForce(csr, Double.POSITIVE_INFINITY)[0];
+            StressEngine engine = new StressEngine(csr, false);
+            BigDecimal[] exact = engine.computeExact(2, null);
+            double[] logarithmic = engine.computeLogarithmic(2, null);
+            double[] fromExact = new double[exact.length];
+            double[] fromLogarithmic = new double[logarithmic.length];
+
+            for (int v = 0; v < exact.length; v++) {
+                fromExact[v] = exact[v].doubleValue();
+                fromLogarithmic[v] = Math.exp(logarithmic[v]);
+            }
+
+            check("exact counts " + i, expected, fromExact);
+            check("logarithmic counts " + i, expected, fromLogarithmic);
+        }
+    }
+
+    /**
+     * Paths bounded by a maximum distance, with every traversal, weighted
+     * graphs and the legacy mode.
+     */
+    protected static void testBoundedDistance() {
+        Random random = new Random(5);
+
+        for (int i = 0; i < GRAPHS; i++) {
+            Graph graph = randomGraph(random, 25, 45, i % 2 == 1);
+
+            for (Edge edge : graph.getEachEdge()) {
+                edge.setAttribute("length", 1 + random.nextInt(3));
+            }
+
+            CsrGraph csr = new CsrGraph(graph);
+            CsrGraph weighted = new CsrGraph(graph, "length");
+
+            for (int k = 0; k <= 4; k++) {
+                double[][] expected = bruteForce(csr, k);
+
+                for (StressCentrality.Traversal traversal : StressCentrality.Traversal.values()) {
+                    StressEngine engine = new StressEngine(csr, true);
+
+                    engine.setTraversal(traversal);
+                    engine.setMaxDistance(k);
+                    engine.compute();
+                    check("bounded " + k + " " + traversal + " graph " + i, expected[0], engine.getCentrality());
+                    check("bounded " + k + " " + traversal + " edges " + i, expected[1],
+                            engine.getEdgeCentrality());
+                }
+
+                StressCentrality sc = new StressCentrality("stress");
+
+                sc.setMaxDistance(k);
+                check("bounded " + k + " legacy " + i, expected[0], legacy(graph, csr, sc));
+
+                StressEngine engine = new StressEngine(weighted, false);
+
+                engine.setMaxDistance(k + 0.5);
+                engine.compute();
+                check("bounded " + k + " weighted " + i, bruteForce(weighted, k + 0.5)[0], engine.getCentrality());
+            }
+        }
+    }
+
+    /**
+     * Snapshots and scratch spaces stored off-heap.
+     */
+    protected static void testOffHeap() throws IOException {
+        Random random = new Random(6);
+
+        for (int i = 0; i < GRAPHS; i++) {
+            Graph graph = randomGraph(random, 25, 50, i % 2 == 1);
+            CsrGraph csr = new CsrGraph(graph);
+            StressEngine engine = new StressEngine(new OffHeapCsrGraph(graph), false);
+
+            engine.compute();
+            check("off-heap " + i, bruteForce(csr, Double.POSITIVE_INFINITY)[0], engine.getCentrality());
+        }
+    }
+
+    /**
+     * A computation resumed from a checkpoint only computes the sources not
+     * saved yet, and deletes the checkpoint once complete. A checkpoint of
+     * another graph is ignored.
+     */
+    protected static void testCheckpointResume() throws IOException {
+        Random random = new Random(7);
+        Path file = Files.createTempFile("stress", ".checkpoint");
+
+        try {
+            for (int i = 0; i < GRAPHS; i++) {
+                Graph graph = randomGraph(random, 25, 50, i % 2 == 1);
+                CsrGraph csr = new CsrGraph(graph);
+                double[] expected = bruteForce(csr, Double.POSITIVE_INFINITY)[0];
+                StressEngine engine = new StressEngine(graph, null, false);
+                int processed = csr.getNodeCount() / 2;
+
+                // The marker shows that the saved sources are not computed again
+                engine.computeSources(0, processed);
+                engine.getCentrality()[0] += 1000;
+                new StressCheckpoint(file, engine).save(engine, processed);
+
+                StressCentrality sc = new StressCentrality("stress");
+                double[] resumed;
+
+                sc.setCheckpoint(file);
+                resumed = stress(graph, csr, sc);
+                resumed[0] -= 1000;
+                check("checkpoint resume " + i, expected, resumed);
+
+                if (Files.exists(file)) {
+                    fail("checkpoint " + i + ": not deleted");
+                }
+
+                StressEngine other = new StressEngine(randomGraph(random, 25, 50, false), null, false);
+
+                other.computeSources(0, processed);
+                new StressCheckpoint(file, other).save(other, processed);
+                check("checkpoint of another graph " + i, expected, stress(graph, csr, sc));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Centrality updated incrementally as edges and nodes are added and
+     * removed, on undirected and directed graphs.
+     */
+    protected static void testIncremental() {
+        Random random = new Random(8);
+
+        for (int i = 0; i < GRAPHS; i++) {
+            boolean directed = i % 2 == 1;
+            Graph graph = randomGraph(random, 25, directed ? 60 : 40, directed);
+            StressCentrality sc = new StressCentrality("stress");
+
+            // Half of the graphs are never recomputed in full
+            sc.setIncrementalThreshold(i % 4 < 2 ? 1.0 : 0.5);
+            sc.setIncrementalMode(true);
+            sc.init(graph);
+            sc.compute();
+
+            for (int step = 0; step < 10; step++) {
+                for (int change = 0; change < 3; change++) {
+                    Node u = graph.getNode(random.nextInt(graph.getNodeCount()));
+                    Node v = graph.getNode(random.nextInt(graph.getNodeCount()));
+
+                    switch (random.nextInt(5)) {
+                        case 0:
+                        case 1:
+                            if (u != v && u.getEdgeBetween(v) == null) {
+                                graph.addEdge(u.getId() + "_" + v.getId(), u, v, directed);
+                            }
+                            break;
+                        case 2:
+                            if (u.getDegree() > 0) {
+                                Edge edge = u.getEdge(random.nextInt(u.getDegree()));
+                                graph.removeEdge(edge);
+                            }
+                            break;
+                        case 3:
+                            if (graph.getNodeCount() > 10) {
+                                graph.removeNode(u);
+                            }
+                            break;
+                        default:
+                            Node w = graph.addNode("n" + step + "_" + change);
+                            graph.addEdge(w.getId() + "_" + u.getId(), w, u, directed);
+
+                            if (v != u) {
+                                graph.addEdge(v.getId() + "_" + w.getId(), v, w, directed);
+                            }
+                    }
+                }
+
+                sc.compute();
+
+                CsrGraph csr = new CsrGraph(graph);
+
+                check("incremental graph " + i + " step " + step, bruteForce(csr, Double.POSITIVE_INFINITY)[0],
+                        byIndex(graph, csr, "stress"));
+            }
+
+            sc.terminate();
+        }
+    }
+
+    /**
+     * Sources shared among two worker processes, whose result is the same
+     * whatever the number of workers.
+     */
+    protected static void testSharded() {
+        Random random = new Random(10);
+        CsrGraph csr = new CsrGraph(randomGraph(random, 40, 80, false));
+        double[][] expected = bruteForce(csr, Double.POSITIVE_INFINITY);
+        double[][] results = new double[2][];
+
+        for (int workers = 1; workers <= 2; workers++) {
+            StressCoordinator coordinator = new StressCoordinator(workers);
+            StressEngine engine = new StressEngine(csr, true);
+
+            coordinator.setShards(5);
+            coordinator.setPartitions(2);
+
+            StressResult result = coordinator.compute(engine);
+
+            check("sharded " + workers, expected[0], result.getCentrality());
+            check("sharded edges " + workers, expected[1], result.getEdgeCentrality());
+            results[workers - 1] = result.getCentrality();
+        }
+
+        if (!Arrays.equals(results[0], results[1])) {
+            fail("sharded: the result depends on the number of workers");
+        }
+    }
+
+    /**
+     * Estimates of the sampler stay within the error bound they report, even
+     * when the few nodes of high stress are rarely reached by pivots : on a
+     * path of three nodes among isolated ones, no pivot of a small sample
+     * contributes, which must not be taken as an exact estimate.
+     */
+    protected static void testSampler() {
+        Random random = new Random(11);
+        Graph sparse = new SingleGraph("sparse", false, true);
+
+        for (int i = 0; i < 1000; i++) {
+            sparse.addNode("n" + i);
+        }
+
+        sparse.addEdge("n0_n1", "n0", "n1");
+        sparse.addEdge("n1_n2", "n1", "n2");
+
+        CsrGraph path = new CsrGraph(sparse);
+        double[] expected = new double[path.getNodeCount()];
+
+        // Too many nodes for the reference, only the middle of the path has stress
+        expected[path.getIndex("n1")] = 1.0;
+        checkSampler("path among isolated nodes", path, expected, new StressSampler(0.1, 0.05), random);
+
+        for (int i = 0; i < GRAPHS; i++) {
+            CsrGraph csr = new CsrGraph(randomGraph(random, 60, 120, i % 2 == 1));
+            double[] exact = bruteForce(csr, Double.POSITIVE_INFINITY)[0];
+            StressSampler degree = new StressSampler(0.5, 0.1);
+
+            degree.setDistribution(StressSampler.Distribution.DEGREE);
+            checkSampler("adaptive " + i, csr, exact, new StressSampler(0.5, 0.1), random);
+            checkSampler("by degree " + i, csr, exact, degree, random);
+            checkSampler("fixed " + i, csr, exact, new StressSampler(20), random);
+
+            StressResult all = samplerResult(csr, new StressSampler(csr.getNodeCount()), random);
+
+            if (!all.isExact()) {
+                fail("sampler of every node " + i + ": not exact");
+            }
+
+            check("sampler of every node " + i, exact, all.getCentrality());
+        }
+    }
+
+    /**
+     * Check that the estimates of a sampler are within the error bound it
+     * reports.
+     */
+    protected static void checkSampler(String name, CsrGraph csr, double[] expected, StressSampler sampler,
+                                       Random random) {
+        StressResult result = samplerResult(csr, sampler, random);
+        double[] estimates = result.getCentrality();
+        double max = 0.0;
+
+        for (double estimate : estimates) {
+            max = Math.max(max, estimate);
+        }
+
+        if (result.isExact()) {
+            check(name, expected, estimates);
+            return;
+        }
+
+        for (int v = 0; v < expected.length; v++) {
+            if (Math.abs(expected[v] - estimates[v]) > result.getEpsilon() * max + EPSILON) {
+                fail(name + ": " + estimates[v] + " estimated at " + v + " for " + expected[v]
+                        + " with a bound of " + result.getEpsilon() + " after " + result.getSources() + " pivots");
+                return;
+            }
+        }
+    }
+
+    /**
+     * Estimates of a sampler with a seeded random generator.
+     */
+    protected static StressResult samplerResult(CsrGraph csr, StressSampler sampler, Random random) {
+        sampler.setRandom(new Random(random.nextLong()));
+
+        return sampler.sample(new StressEngine(csr, false));
+    }
+
+    /**
+     * Stress restricted to the paths from some sources to some targets, and
+     * the nodes of highest stress, through the engine and the algorithm.
+     */
+    protected static void testQueries() {
+        Random random = new Random(12);
+
+        for (int i = 0; i < GRAPHS; i++) {
+            Graph graph = randomGraph(random, 25, 50, i % 2 == 1);
+            CsrGraph csr = new CsrGraph(graph);
+            int n = csr.getNodeCount();
+            BitSet sources = new BitSet(n);
+            BitSet targets = new BitSet(n);
+            List<Node> sourceNodes = new ArrayList<Node>();
+            List<Node> targetNodes = new ArrayList<Node>();
+
+            for (int v = 0; v < n; v++) {
+                // Sources and targets overlap on some nodes
+                if (random.nextInt(3) == 0) {
+                    sources.set(v);
+                    sourceNodes.add(graph.getNode(csr.getId(v)));
+                }
+
+                if (random.nextInt(3) == 0) {
+                    targets.set(v);
+                    targetNodes.add(graph.getNode(csr.getId(v)));
+                }
+            }
+
+            double[][] expected = bruteForce(csr, Double.POSITIVE_INFINITY, sources, targets);
+            StressEngine engine = new StressEngine(csr, true);
+
+            engine.computeBetween(indices(sources), indices(targets), 2, null);
+            check("between " + i, expected[0], engine.getCentrality());
+            check("between edges " + i, expected[1], engine.getEdgeCentrality());
+
+            StressEngine everyTarget = new StressEngine(csr, false);
+
+            everyTarget.computeBetween(indices(sources), null, 1, null);
+            check("between every target " + i, bruteForce(csr, Double.POSITIVE_INFINITY, sources, null)[0],
+                    everyTarget.getCentrality());
+
+            StressCentrality sc = new StressCentrality("stress");
+
+            sc.init(graph);
+
+            StressResult all = sc.computeBetween(null, null);
+            StressResult between = sc.computeBetween(sourceNodes, targetNodes);
+            StressRanking top = sc.computeTop(5, sourceNodes, targetNodes);
+
+            check("between every node " + i, bruteForce(csr, Double.POSITIVE_INFINITY)[0], all.getCentrality());
+            check("between algorithm " + i, expected[0], between.getCentrality());
+
+            if (graph.getNode(0).hasAttribute("stress")) {
+                fail("between " + i + ": stored on the graph");
+            }
+
+            double[] ranked = new double[top.size()];
+            double[] best = expected[0].clone();
+
+            Arrays.sort(best);
+
+            for (int rank = 0; rank < top.size(); rank++) {
+                ranked[rank] = top.getScore(rank);
+
+                if (top.getScore(rank) != expected[0][csr.getIndex(top.getId(rank))]) {
+                    fail("top " + i + ": score of " + top.getId(rank));
+                }
+
+                if (rank > 0 && top.getScore(rank) == top.getScore(rank - 1)
+                        && top.getIndex(rank) < top.getIndex(rank - 1)) {
+                    fail("top " + i + ": ties not ranked by index");
+                }
+            }
+
+            check("top " + i, new double[]{best[n - 1], best[n - 2], best[n - 3], best[n - 4], best[n - 5]}, ranked);
+        }
+    }
+
+    /**
+     * Indices of the nodes of a set.
+     */
+    protected static int[] indices(BitSet set) {
+        int[] nodes = new int[set.cardinality()];
+
+        for (int v = set.nextSetBit(0), i = 0; v >= 0; v = set.nextSetBit(v + 1)) {
+            nodes[i++] = v;
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Asynchronous computations cancelled, or stopped by their time limit
+     * with or without partial results. The computations run on the calling
+     * thread, once the future is known, and a listener stops them at the
+     * start.
+     */
+    protected static void testAsync() throws InterruptedException {
+        Random random = new Random(13);
+        Graph graph = randomGraph(random, 40, 80, false);
+        CsrGraph csr = new CsrGraph(graph);
+        double[] expected = bruteForce(csr, Double.POSITIVE_INFINITY)[0];
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        Executor executor = new Executor() {
+            public void execute(Runnable task) {
+                tasks.add(task);
+            }
+        };
+
+        // Cancelled at the start, nothing is stored
+        StressCentrality sc = new StressCentrality("stress");
+        final List<CompletableFuture<StressResult>> futures = new ArrayList<CompletableFuture<StressResult>>();
+
+        sc.setListener(new StressListener() {
+            public void progress(StressProgress progress) {
+                futures.get(0).cancel(false);
+            }
+        });
+        sc.init(graph);
+        futures.add(sc.computeAsync(executor));
+        runTasks(tasks);
+
+        if (!futures.get(0).isCancelled()) {
+            fail("async cancelled: future not cancelled");
+        }
+
+        if (graph.getNode(0).hasAttribute("stress") || sc.getResult() != null) {
+            fail("async cancelled: result stored");
+        }
+
+        sc.terminate();
+
+        // Time limit reached
+        StressListener slow = new StressListener() {
+            public void progress(StressProgress progress) {
+                if (progress.getProcessedSources() == 0 && !progress.isFinished()) {
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        };
+
+        sc = new StressCentrality("stress");
+        sc.setListener(slow);
+        sc.setTimeLimit(1);
+        sc.init(graph);
+
+        CompletableFuture<StressResult> future = sc.computeAsync(executor);
+
+        runTasks(tasks);
+
+        try {
+            future.get();
+            fail("async time limit: completed");
+        } catch (ExecutionException e) {
+            if (!(e.getCause() instanceof TimeoutException)) {
+                fail("async time limit: " + e.getCause());
+            }
+        }
+
+        if (graph.getNode(0).hasAttribute("stress")) {
+            fail("async time limit: result stored");
+        }
+
+        sc.terminate();
+
+        // Partial result kept
+        sc = new StressCentrality("stress");
+        sc.setListener(slow);
+        sc.setTimeLimit(1);
+        sc.setPartialResults(true);
+        sc.init(graph);
+        future = sc.computeAsync(executor);
+        runTasks(tasks);
+
+        StressResult partial = null;
+
+        try {
+            partial = future.get();
+        } catch (ExecutionException e) {
+            fail("async partial: " + e.getCause());
+            return;
+        }
+
+        if (!partial.isPartial() || partial.isExact() || partial.getSources() >= csr.getNodeCount()) {
+            fail("async partial: not flagged, " + partial.getSources() + " sources");
+        }
+
+        if (!graph.hasAttribute("stress.partial")) {
+            fail("async partial: no graph attribute");
+        }
+
+        double[] values = byIndex(graph, csr, "stress");
+
+        for (int v = 0; v < values.length; v++) {
+            if (values[v] > expected[v] || values[v] != partial.getCentrality(v)) {
+                fail("async partial: " + values[v] + " for " + expected[v] + " at " + v);
+            }
+        }
+
+        sc.terminate();
+    }
+
+    /**
+     * Run and forget the queued tasks.
+     */
+    protected static void runTasks(List<Runnable> tasks) {
+        for (Runnable task : tasks) {
+            task.run();
+        }
+
+        tasks.clear();
+    }
+
+    /**
+     * Progress reported to a listener and published as gauges, sequentially
+     * and in parallel, and silence without listener.
+     */
+    protected static void testProgress() {
+        Random random = new Random(14);
+        Graph graph = randomGraph(random, 40, 80, false);
+        CsrGraph csr = new CsrGraph(graph);
+        int n = csr.getNodeCount();
+        PrintStream out = System.out;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+
+        System.setOut(new PrintStream(printed));
+
+        try {
+            stress(graph, csr, new StressCentrality("stress"));
+        } finally {
+            System.setOut(out);
+        }
+
+        if (printed.size() > 0) {
+            fail("progress: printed without listener");
+        }
+
+        for (int parallel = 0; parallel < 2; parallel++) {
+            final List<StressProgress> reports = new ArrayList<StressProgress>();
+            final Map<String, Number> gauges = new TreeMap<String, Number>();
+            final MetricsProgressListener metrics = new MetricsProgressListener(
+                    new MetricsProgressListener.Registry() {
+                        public void gauge(String name, Map<String, String> tags, Number value) {
+                            gauges.put(tags.isEmpty() ? name : name + tags, value);
+                        }
+                    });
+            StressCentrality sc = new StressCentrality("stress");
+            String name = "progress " + (parallel == 1 ? "parallel" : "sequential");
+
+            sc.setListener(new StressListener() {
+                public void progress(StressProgress progress) {
+                    reports.add(progress);
+                    metrics.progress(progress);
+                }
+            });
+            sc.setProgressInterval(0);
+            sc.setParallel(parallel == 1);
+            sc.setPartitions(4);
+            stress(graph, csr, sc);
+
+            StressProgress first = reports.get(0);
+            StressProgress last = reports.get(reports.size() - 1);
+
+            if (first.isFinished() || first.getProcessedSources() != 0 || first.getTotalSources() != n) {
+                fail(name + ": start reported " + first.getProcessedSources() + " of " + first.getTotalSources());
+            }
+
+            if (!last.isFinished() || last.getProcessedSources() != n || last.getTotalSources() != n) {
+                fail(name + ": end reported " + last.getProcessedSources() + " of " + last.getTotalSources());
+            }
+
+            if (reports.size() < 3) {
+                fail(name + ": " + reports.size() + " reports");
+            }
+
+            for (int i = 1; i < reports.size(); i++) {
+                StressProgress report = reports.get(i);
+                StressProgress previous = reports.get(i - 1);
+
+                if (report.getProcessedSources() < previous.getProcessedSources()
+                        || report.getTraversedArcs() < previous.getTraversedArcs()
+                        || (i < reports.size() - 1 && report.isFinished())) {
+                    fail(name + ": report " + i + " goes backwards or finishes early");
+                }
+            }
+
+            if (last.getTraversedArcs() <= 0 || last.getTraversedArcs() > (long) n * csr.getArcCount()
+                    || last.getWorkerUtilization().isEmpty()) {
+                fail(name + ": " + last.getTraversedArcs() + " arcs, " + last.getWorkerUtilization());
+            }
+
+            for (double utilization : last.getWorkerUtilization().values()) {
+                if (utilization < 0 || utilization > 1) {
+                    fail(name + ": utilization " + utilization);
+                }
+            }
+
+            if (gauges.get("stress.sources.processed").longValue() != n
+                    || gauges.get("stress.sources.total").longValue() != n
+                    || gauges.get("stress.arcs.traversed").longValue() != last.getTraversedArcs()
+                    || gauges.get("stress.running").intValue() != 0) {
+                fail(name + ": gauges " + gauges);
+            }
+
+            if (gauges.size() != 6 + last.getWorkerUtilization().size()) {
+                fail(name + ": gauges " + gauges.keySet());
+            }
+        }
+    }
+
+    /**
+     * Components computed on their own, with the centrality of edges, on
+     * graphs holding isolated nodes and edges.
+     */
+    protected static void testComponentsWithEdges() {
+        Random random = new Random(17);
+
+        for (int i = 0; i < GRAPHS; i++) {
+            Graph graph = randomGraph(random, 20, 30, i % 2 == 1);
+
+            graph.addNode("a");
+            graph.addNode("b");
+            graph.addEdge("ab", "a", "b");
+            graph.addNode("c");
+
+            CsrGraph csr = new CsrGraph(graph);
+            double[][] expected = bruteForce(csr, Double.POSITIVE_INFINITY);
+            StressEngine engine = new StressEngine(csr, true);
+            StressEngine plain = new StressEngine(csr, true);
+
+            engine.computeComponents(1, null);
+            plain.compute();
+            check("components " + i, expected[0], engine.getCentrality());
+            check("components edges " + i, expected[1], engine.getEdgeCentrality());
+            check("components edges against one engine " + i, plain.getEdgeCentrality(),
+                    engine.getEdgeCentrality());
+            check("isolated edge " + i, new double[]{1.0},
+                    new double[]{engine.getEdgeCentrality()[graph.getEdge("ab").getIndex()]});
+        }
+    }
+
+    /**
+     * Malformed lines of text edge lists fail the loading with an
+     * {@link IOException} giving their line, whatever the executor parsing
+     * the chunks.
+     */
+    protected static void testLoaderErrors() throws IOException {
+        Path file = Files.createTempFile("stress", ".txt");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        String[] lines = {"0 1", "# comment", "1 2", "2 x", "3 4"};
+
+        try {
+            Files.write(file, Arrays.asList(lines), Charset.forName("US-ASCII"));
+
+            for (ExecutorService pool : new ExecutorService[]{null, executor}) {
+                for (int chunkSize : new int[]{8, 1 << 16}) {
+                    EdgeListLoader loader = new EdgeListLoader();
+                    String name = "loader " + (pool == null ? "common pool" : "executor") + " chunks " + chunkSize;
+
+                    loader.setExecutor(pool);
+                    loader.setChunkSize(chunkSize);
+
+                    try {
+                        loader.load(file);
+                        fail(name + ": malformed line loaded");
+                    } catch (IOException e) {
+                        if (!e.getMessage().contains("line 4")) {
+                            fail(name + ": " + e.getMessage());
+                        }
+                    } catch (RuntimeException e) {
+                        fail(name + ": " + e);
+                    }
+                }
+            }
+
+            EdgeListLoader loader = new EdgeListLoader();
+
+            loader.setWeighted(true);
+            Files.write(file, Arrays.asList("0 1 2.5", "1 2 abc"), Charset.forName("US-ASCII"));
+
+            try {
+                loader.load(file);
+                fail("loader length: malformed length loaded");
+            } catch (IOException e) {
+                if (!e.getMessage().contains("line 2")) {
+                    fail("loader length: " + e.getMessage());
+                }
+            }
+        } finally {
+            executor.shutdown();
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * The centrality of edges computed on a snapshot loaded from an edge
+     * list, whose edges are in file order, is stored on the matching edges
+     * of the graph.
+     */
+    protected static void testSnapshotEdgeOrder() throws IOException {
+        Random random = new Random(9);
+        Path file = Files.createTempFile("stress", ".txt");
+
+        try {
+            for (int i = 0; i < GRAPHS; i++) {
+                Graph graph = randomGraph(random, 20, 40, false);
+                List<String> lines = new ArrayList<String>();
+
+                for (Edge edge : graph.getEachEdge()) {
+                    lines.add(edge.getNode0().getId() + " " + edge.getNode1().getId());
+                }
+
+                Collections.shuffle(lines, random);
+                Files.write(file, lines, Charset.forName("US-ASCII"));
+
+                StressCentrality sc = new StressCentrality("stress");
+                double[] expected = bruteForce(new CsrGraph(graph), Double.POSITIVE_INFINITY)[1];
+                double[] actual = new double[expected.length];
+
+                sc.setSnapshot(new EdgeListLoader().load(file));
+                sc.setEdgeCentrality(true);
+                sc.init(graph);
+                sc.compute();
+
+                for (Edge edge : graph.getEachEdge()) {
+                    actual[edge.getIndex()] = edge.getNumber("stress");
+                }
+
+                check("snapshot edge order " + i, expected, actual);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /*
+     * REFERENCE
+     */
+
+    /**
+     * Stress centrality of every node and edge, from the distance and number
+     * of shortest paths of every pair of nodes. As computed by the engine,
+     * each path between two nodes is counted for each of its directions and
+     * halved.
+     *
+     * @param graph       The snapshot.
+     * @param maxDistance Maximum length of the paths counted.
+     * @return The centrality of nodes, then of edges.
+     */
+    protected static double[][] bruteForce(CsrGraph graph, double maxDistance) {
+        return bruteForce(graph, maxDistance, null, null);
+    }
+
+    /**
+     * Stress centrality restricted to the shortest paths from some sources
+     * to some targets. A path between a source and a target counts once,
+     * each direction counting for half when both ends are sources and
+     * targets.
+     *
+     * @param graph       The snapshot.
+     * @param maxDistance Maximum length of the paths counted.
+     * @param sources     The sources, or null for every node.
+     * @param targets     The targets, or null for every node.
+     * @return The centrality of nodes, then of edges.
+     */
+    protected static double[][] bruteForce(CsrGraph graph, double maxDistance, BitSet sources, BitSet targets) {
+        int n = graph.getNodeCount();
+        double[][] dist = new double[n][];
+        double[][] sigma = new double[n][];
+
+        for (int s = 0; s < n; s++) {
+            dist[s] = new double[n];
+            sigma[s] = new double[n];
+            shortestPaths(graph, s, dist[s], sigma[s]);
+        }
+
+        double[] centrality = new double[n];
+        double[] edgeCentrality = new double[graph.getEdgeCount()];
+
+        for (int s = 0; s < n; s++) {
+            for (int t = 0; t < n; t++) {
+                boolean source = sources == null || sources.get(s);
+                boolean target = targets == null || targets.get(t);
+
+                if (s == t || dist[s][t] > maxDistance || !source || !target) {
+                    continue;
+                }
+
+                boolean both = (targets == null || targets.get(s)) && (sources == null || sources.get(t));
+                double weight = both ? 0.5 : 1.0;
+
+                for (int v = 0; v < n; v++) {
+                    if (v != s && v != t && dist[s][v] + dist[v][t] == dist[s][t]) {
+                        centrality[v] += sigma[s][v] * sigma[v][t] * weight;
+                    }
+
+                    for (int k = 0; k < graph.getDegree(v); k++) {
+                        int w = graph.getNeighbor(v, k);
+
+                        if (dist[s][v] + graph.getLength(v, k) + dist[w][t] == dist[s][t]) {
+                            edgeCentrality[graph.getEdge(v, k)] += sigma[s][v] * sigma[w][t] * weight;
+                        }
+                    }
+                }
+            }
+        }
+
+        return new double[][]{centrality, edgeCentrality};
+    }
+
+    /**
+     * Distance and number of shortest paths from a source, with Dijkstra's
+     * algorithm on a dense array.
+     */
+    protected static void shortestPaths(CsrGraph graph, int source, double[] dist, double[] sigma) {
+        int n = graph.getNodeCount();
+        boolean[] done = new boolean[n];
+
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[source] = 0;
+        sigma[source] = 1;
+
+        for (int i = 0; i < n; i++) {
+            int v = -1;
+
+            for (int u = 0; u < n; u++) {
+                if (!done[u] && (v < 0 || dist[u] < dist[v])) {
+                    v = u;
+                }
+            }
+
+            if (dist[v] == Double.POSITIVE_INFINITY) {
+                break;
+            }
+
+            done[v] = true;
+
+            for (int k = 0; k < graph.getDegree(v); k++) {
+                int w = graph.getNeighbor(v, k);
+                double alt = dist[v] + graph.getLength(v, k);
+
+                if (alt < dist[w]) {
+                    dist[w] = alt;
+                    sigma[w] = sigma[v];
+                } else if (alt == dist[w]) {
+                    sigma[w] += sigma[v];
+                }
+            }
+        }
+    }
+
+    /*
+     * UTILITIES
+     */
+
+    /**
+     * Centrality computed by the algorithm, by index of the snapshot.
+     */
+    protected static double[] stress(Graph graph, CsrGraph csr, StressCentrality sc) {
+        sc.init(graph);
+        sc.compute();
+        sc.terminate();
+
+        return byIndex(graph, csr, sc.getCentralityAttributeName());
+    }
+
+    /**
+     * Centrality computed by the algorithm in legacy mode, by index of the
+     * snapshot.
+     */
+    protected static double[] legacy(Graph graph, CsrGraph csr, StressCentrality sc) {
+        sc.setLegacyMode(true);
+
+        return stress(graph, csr, sc);
+    }
+
+    /**
+     * Values of an attribute of the nodes, by index of the snapshot.
+     */
+    protected static double[] byIndex(Graph graph, CsrGraph csr, String attribute) {
+        double[] values = new double[csr.getNodeCount()];
+
+        for (Node node : graph) {
+            values[csr.getIndex(node.getId())] = node.getNumber(attribute);
+        }
+
+        return values;
+    }
+
+    /**
+     * Random graph without loops nor multiple edges.
+     *
+     * @param random   The random generator.
+     * @param nodes    Number of nodes.
+     * @param edges    Number of edges drawn, duplicates being dropped.
+     * @param directed Are the edges directed?
+     */
+    protected static Graph randomGraph(Random random, int nodes, int edges, boolean directed) {
+        Graph graph = new SingleGraph("random", false, true);
+
+        for (int i = 0; i < nodes; i++) {
+            graph.addNode(Integer.toString(i));
+        }
+
+        for (int i = 0; i < edges; i++) {
+            String u = Integer.toString(random.nextInt(nodes));
+            String v = Integer.toString(random.nextInt(nodes));
+
+            if (!u.equals(v) && graph.getNode(u).getEdgeBetween(v) == null) {
+                graph.addEdge(u + "_" + v, u, v, directed);
+            }
+        }
+
+        return graph;
+    }
+
+    /**
+     * Compare values with the expected ones, recording a failure if they
+     * differ.
+     */
+    protected static void check(String name, double[] expected, double[] actual) {
+        if (actual == null || expected.length != actual.length) {
+            fail(name + ": " + (actual == null ? "no values" : actual.length + " values"));
+            return;
+        }
+
+        for (int i = 0; i < expected.length; i++) {
+            if (Math.abs(expected[i] - actual[i]) > EPSILON * Math.max(1, Math.abs(expected[i]))) {
+                fail(name + ": " + expected[i] + " expected at " + i + ", got " + actual[i]);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Record a failure.
+     */
+    protected static void fail(String message) {
+        failures++;
+        System.out.println("FAIL " + message);
+    }
+}
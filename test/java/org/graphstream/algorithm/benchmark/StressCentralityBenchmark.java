@@ -0,0 +1,266 @@
+package org.graphstream.algorithm.benchmark;
+
+import org.graphstream.algorithm.StressCentrality;
+import org.graphstream.algorithm.StressEngine;
+import org.graphstream.algorithm.generator.BarabasiAlbertGenerator;
+import org.graphstream.algorithm.generator.DorogovtsevMendesGenerator;
+import org.graphstream.algorithm.generator.Generator;
+import org.graphstream.algorithm.generator.GridGenerator;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the exact computation run by
+ * {@link StressCentrality#compute()} on generated graphs.
+ *
+ * Graphs of every family are generated with a fixed seed, from 1k to 1M
+ * nodes. A full computation processes every node as a source, which is out
+ * of reach on the largest graphs, so each invocation processes the first
+ * {@link #sources} sources only, all of them when the graph has fewer nodes,
+ * with {@link StressEngine#compute(int, int, int, ExecutorService)}. It is
+ * the exact path of a full computation, with the traversal and the number of
+ * partitions given as parameters, on a snapshot taken once per trial.
+ * Besides the invocations per second, the "sources" counter gives the
+ * throughput in sources per second, the GC profiler the allocation rate and
+ * {@link PeakHeapProfiler} the peak heap.
+ *
+ * Build and run offline with the JMH jars, gs-core and gs-algo on the class
+ * path, the annotation processor generating the benchmark harness :
+ *
+ * <pre>
+ * javac -cp "lib/*:classes" -processorpath "lib/*" -d bench \
+ *     test/java/org/graphstream/algorithm/benchmark/StressCentralityBenchmark.java
+ * java -cp "lib/*:classes:bench" org.graphstream.algorithm.benchmark.StressCentralityBenchmark \
+ *     [results.json] [JMH options]
+ * </pre>
+ *
+ * Results are written as JSON, "stress-benchmark.json" by default, so that
+ * versions can be compared. JMH options restrict the run, for instance
+ * {@code -p size=1000,10000 -p family=GRID -p partitions=1,4}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class StressCentralityBenchmark {
+
+    /**
+     * Families of generated graphs.
+     */
+    public static enum Family {
+        /**
+         * Dorogovtsev-Mendes graphs, as generated by the main demo.
+         */
+        DOROGOVTSEV_MENDES,
+        /**
+         * Barabasi-Albert preferential attachment graphs.
+         */
+        BARABASI_ALBERT,
+        /**
+         * Square grids.
+         */
+        GRID,
+        /**
+         * Random 4-regular graphs.
+         */
+        RANDOM_REGULAR,
+        /**
+         * Complete bipartite graphs between three hubs and every other node,
+         * the shape of examplegraph1 in the main demo.
+         */
+        BIPARTITE
+    }
+
+    protected static final long SEED = 42;
+
+    @Param({"DOROGOVTSEV_MENDES", "BARABASI_ALBERT", "GRID", "RANDOM_REGULAR", "BIPARTITE"})
+    public Family family;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    /**
+     * Maximum number of sources processed by an invocation.
+     */
+    @Param({"1000"})
+    public int sources;
+
+    @Param({"BFS"})
+    public StressCentrality.Traversal traversal;
+
+    /**
+     * Number of partitions of the sources, run by the common pool if more
+     * than one.
+     */
+    @Param({"1"})
+    public int partitions;
+
+    protected Graph graph;
+
+    protected StressEngine engine;
+
+    protected ExecutorService executor;
+
+    /**
+     * Index following the last source processed by an invocation.
+     */
+    protected int to;
+
+    /**
+     * Sources processed, reported as a throughput.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+
+        public long sources;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            sources = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = generateGraph(family, size, SEED);
+        engine = new StressEngine(graph);
+        engine.setTraversal(traversal);
+        executor = partitions > 1 ? ForkJoinPool.commonPool() : null;
+        to = Math.min(sources, engine.getNodeCount());
+    }
+
+    @Benchmark
+    public double[] compute(Counters counters) {
+        engine.compute(0, to, partitions, executor);
+        counters.sources += to;
+
+        return engine.getCentrality();
+    }
+
+    /**
+     * Run every benchmark, writing the results as JSON.
+     *
+     * @param args The result file, then JMH options.
+     */
+    public static void main(String[] args) throws Exception {
+        String file = "stress-benchmark.json";
+
+        if (args.length > 0 && !args[0].startsWith("-")) {
+            file = args[0];
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(StressCentralityBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .addProfiler(PeakHeapProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(file)
+                .build();
+
+        new Runner(options).run();
+    }
+
+    /**
+     * Generate a graph of a family with about the given number of nodes.
+     */
+    protected static Graph generateGraph(Family family, int nodes, long seed) {
+        Graph graph = new SingleGraph(family + "" + nodes, false, true, nodes, 4 * nodes);
+
+        switch (family) {
+            case DOROGOVTSEV_MENDES:
+                generate(graph, new DorogovtsevMendesGenerator(new Random(seed)), nodes);
+                break;
+            case BARABASI_ALBERT:
+                BarabasiAlbertGenerator ba = new BarabasiAlbertGenerator(2);
+                ba.setRandomSeed(seed);
+                generate(graph, ba, nodes);
+                break;
+            case GRID:
+                generate(graph, new GridGenerator(), nodes);
+                break;
+            case RANDOM_REGULAR:
+                randomRegular(graph, nodes, 4, new Random(seed));
+                break;
+            case BIPARTITE:
+                bipartite(graph, 3, nodes - 3);
+                break;
+        }
+
+        return graph;
+    }
+
+    /**
+     * Run a generator until the graph has the given number of nodes.
+     */
+    protected static void generate(Graph graph, Generator gen, int nodes) {
+        gen.addSink(graph);
+        gen.begin();
+        while (graph.getNodeCount() < nodes) {
+            gen.nextEvents();
+        }
+        gen.end();
+        gen.removeSink(graph);
+    }
+
+    /**
+     * Random regular graph from the configuration model. Pairs of stubs
+     * making loops or multiple edges are dropped, so a few nodes have a
+     * smaller degree.
+     */
+    protected static void randomRegular(Graph graph, int nodes, int degree, Random random) {
+        int[] stubs = new int[nodes * degree];
+
+        for (int i = 0; i < nodes; i++) {
+            graph.addNode(Integer.toString(i));
+            Arrays.fill(stubs, i * degree, (i + 1) * degree, i);
+        }
+
+        for (int i = stubs.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int s = stubs[i];
+            stubs[i] = stubs[j];
+            stubs[j] = s;
+        }
+
+        for (int i = 0; i + 1 < stubs.length; i += 2) {
+            String u = Integer.toString(stubs[i]);
+            String v = Integer.toString(stubs[i + 1]);
+
+            if (!u.equals(v) && graph.getNode(u).getEdgeBetween(v) == null) {
+                graph.addEdge(u + "_" + v, u, v);
+            }
+        }
+    }
+
+    /**
+     * Complete bipartite graph between two sets of nodes.
+     */
+    protected static void bipartite(Graph graph, int left, int right) {
+        for (int i = 0; i < left + right; i++) {
+            graph.addNode(Integer.toString(i));
+        }
+
+        for (int i = 0; i < left; i++) {
+            for (int j = left; j < left + right; j++) {
+                graph.addEdge(i + "_" + j, Integer.toString(i), Integer.toString(j));
+            }
+        }
+    }
+}